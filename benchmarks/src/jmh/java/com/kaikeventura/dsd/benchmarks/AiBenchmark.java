@@ -0,0 +1,43 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Custo da IA dos inimigos (behaviour trees + steering fatiados pelo AiScheduler) e do tick
+ * completo com a IA ligada.
+ */
+@State(Scope.Benchmark)
+public class AiBenchmark {
+
+    @Param({"100", "1000"})
+    public int characters;
+
+    private HeadlessSimulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new HeadlessSimulation(characters, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public int aiUpdate() {
+        simulation.world.updateAi();
+        return simulation.world.ai.lastThinks;
+    }
+
+    @Benchmark
+    public void fullTick() {
+        simulation.tick();
+    }
+}
@@ -0,0 +1,55 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Custo de cada fase de um tick da simulação com 1, 100 e 1000 knights.
+ * Resultados em benchmarks/build/results/jmh/results.json.
+ */
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int characters;
+
+    private HeadlessSimulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new HeadlessSimulation(characters);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public void stepSimulation() {
+        simulation.world.stepPhysics(simulation.step);
+    }
+
+    @Benchmark
+    public void controllerUpdate() {
+        simulation.driveInputs();
+        simulation.world.updateControllers(simulation.step);
+        // Sem passo de física a fila de comandos só cresceria
+        simulation.world.physics.commands.clear();
+    }
+
+    @Benchmark
+    public void animationSampling() {
+        simulation.world.updateAnimations(simulation.step);
+    }
+
+    @Benchmark
+    public void fullTick() {
+        simulation.tick();
+    }
+}
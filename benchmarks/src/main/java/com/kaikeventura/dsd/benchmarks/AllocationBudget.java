@@ -0,0 +1,48 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Verifica que o tick da simulação não aloca no heap.
+ * <p>
+ * Roda a {@link HeadlessSimulation}, aquece (pools, JIT, arrays crescendo até o tamanho final) e
+ * mede os bytes alocados pela thread atual ao longo de N ticks. Sai com código 1 quando a média por
+ * tick passa do orçamento, o que faz a task {@code benchmarks:checkAllocations} (e o {@code check})
+ * falhar.
+ */
+public class AllocationBudget {
+
+    // Uso: AllocationBudget [personagens] [ticks] [bytesPorTick]
+    public static void main(String[] args) {
+        int characters = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+        long budgetPerTick = args.length > 2 ? Long.parseLong(args[2]) : 64;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("JVM sem suporte a ThreadAllocatedMemory, verificação ignorada");
+            System.exit(0);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        HeadlessSimulation simulation = new HeadlessSimulation(characters);
+
+        // Aquecimento: cobre pelo menos um ciclo completo do input roteirizado (ataque a cada 300 ticks)
+        for (int i = 0; i < 900; i++) simulation.tick();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ticks; i++) simulation.tick();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        simulation.dispose();
+
+        double perTick = allocated / (double) ticks;
+        System.out.printf("personagens=%d ticks=%d alocado=%d bytes (%.1f bytes/tick, orçamento %d)%n",
+            characters, ticks, allocated, perTick, budgetPerTick);
+        if (perTick > budgetPerTick) {
+            System.err.println("FALHOU: o tick da simulação está alocando acima do orçamento");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
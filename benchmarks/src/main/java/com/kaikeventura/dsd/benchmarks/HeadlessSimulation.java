@@ -0,0 +1,124 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.sim.FixedTimestep;
+import com.kaikeventura.dsd.sim.GameWorld;
+
+import java.util.Arrays;
+
+/**
+ * Sobe a metade de simulação do jogo (mundo Bullet, knights, PackedAnimator) no backend
+ * headless do libGDX, sem janela nem GPU. Os knights são dirigidos por um input roteirizado e
+ * determinístico, então duas execuções com o mesmo número de personagens fazem o mesmo trabalho.
+ * Com {@code ai} ligado só o jogador segue o roteiro e os inimigos são dirigidos pelo AiScheduler.
+ */
+public class HeadlessSimulation implements Disposable {
+
+    private static HeadlessApplication application;
+
+    public final GameAssets assets;
+    public final GameWorld world;
+    public final float step = FixedTimestep.DEFAULT_STEP;
+    public final boolean ai;
+    private int tick;
+
+    public HeadlessSimulation(int characters) {
+        this(characters, false);
+    }
+
+    public HeadlessSimulation(int characters, boolean ai) {
+        this.ai = ai;
+        boot();
+
+        assets = new GameAssets();
+        assets.load();
+        // Sem contexto GL de verdade (MockGL20), então o "upload" roda aqui mesmo
+        while (!assets.update(100)) {
+            Thread.yield();
+        }
+
+        world = new GameWorld(assets.playerModel, assets.knightClips, Math.max(characters, 1));
+        if (assets.swordModel != null) world.melee.setBlade(assets.swordModel);
+        world.ai.enabled = ai;
+        // Orçamento por quantidade: o de tempo deixaria o trabalho por tick dependente da máquina
+        world.ai.budgetNanos = 0;
+
+        // Grade centrada no chão de 50x50, 1.5m entre knights
+        int columns = MathUtils.ceil((float) Math.sqrt(characters));
+        float spacing = 1.5f;
+        float origin = -(columns - 1) * spacing / 2f;
+        for (int i = 1; i < characters; i++) {
+            float x = origin + (i % columns) * spacing;
+            float z = origin + (i / columns) * spacing;
+            world.spawnKnight(x, 1.5f, z);
+        }
+
+        // Deixa todo mundo assentar no chão antes de medir
+        for (int i = 0; i < 60; i++) tick();
+    }
+
+    /** Inicializa Gdx.* (arquivos, natives, MockGL20) uma única vez por JVM. */
+    public static synchronized void boot() {
+        if (application != null) return;
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = -1; // sem loop de render, a simulação é dirigida por quem chama
+        application = new HeadlessApplication(new ApplicationAdapter() {}, config);
+    }
+
+    /** Input roteirizado: anda em círculos, pula e ataca em intervalos diferentes por knight. */
+    public void driveInputs() {
+        EntityStore entities = world.entities;
+        int scripted = ai ? 1 : entities.count;
+        for (int i = 0; i < scripted; i++) {
+            float angle = (tick + i * 7) * 0.01f;
+            entities.forwardX[i] = MathUtils.cos(angle);
+            entities.forwardZ[i] = MathUtils.sin(angle);
+            int buttons = 0;
+            if (((tick + i) / 90) % 3 != 0) buttons |= EntityStore.IN_FORWARD;
+            if ((tick + i * 13) % 240 == 0) buttons |= EntityStore.IN_JUMP;
+            if ((tick + i * 29) % 300 == 0) buttons |= EntityStore.IN_ATTACK;
+            entities.buttons[i] = buttons;
+        }
+        tick++;
+    }
+
+    /** Um tick completo, igual ao que o GameScreen roda. */
+    public void tick() {
+        driveInputs();
+        world.tick(step);
+    }
+
+    @Override
+    public void dispose() {
+        world.dispose();
+        assets.dispose();
+    }
+
+    // Uso: HeadlessSimulation [personagens] [ticks] [ai]
+    public static void main(String[] args) {
+        int characters = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 3600;
+        boolean ai = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        HeadlessSimulation simulation = new HeadlessSimulation(characters, ai);
+        long[] samples = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            simulation.tick();
+            samples[i] = System.nanoTime() - start;
+        }
+        simulation.dispose();
+
+        Arrays.sort(samples);
+        System.out.printf("personagens=%d ai=%b ticks=%d p50=%.3fms p99=%.3fms max=%.3fms%n",
+            characters, ai, ticks,
+            samples[ticks / 2] / 1e6, samples[(int) (ticks * 0.99)] / 1e6, samples[ticks - 1] / 1e6);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.input.InputRecording;
+import com.kaikeventura.dsd.sim.GameSession;
+import com.kaikeventura.dsd.sim.GameWorld;
+
+/**
+ * Reproduz uma sessão gravada no jogo (F6) no backend headless, sem esperar o relógio: monta o
+ * mesmo mundo, aplica o {@link InputFrame} de cada tick e compara o hash do estado com o gravado.
+ * Imprime o primeiro tick divergente e o histograma de tempo por tick; com um CSV de saída, os
+ * hashes e tempos de cada tick podem ser comparados entre builds.
+ * <p>
+ * O streaming do nível não roda aqui: os chunks entram e saem do mundo nos ticks gravados, porque
+ * no jogo isso depende de quando as threads de carregamento terminaram.
+ * <p>
+ * O mundo do jogador e a física são determinísticos. A IA também é, nas sessões gravadas com
+ * {@code GameWorld.setReproducibleAi} (orçamento por quantidade, sem LOD pela câmera e caminhos
+ * aplicados num tick fixo depois do pedido): o replay liga o mesmo modo. Gravações de antes disso,
+ * com IA, divergem cedo e servem só para medir tempo.
+ */
+public class ReplaySession {
+
+    // Uso: ReplaySession <gravação.dsdr> [saída.csv]
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: ReplaySession <gravação.dsdr> [saída.csv]");
+            System.exit(2);
+        }
+        HeadlessSimulation.boot();
+        InputRecording recording = InputRecording.load(Gdx.files.absolute(args[0]));
+        FileHandle csvFile = args.length > 1 ? Gdx.files.absolute(args[1]) : null;
+
+        GameAssets assets = new GameAssets();
+        assets.load();
+        while (!assets.update(100)) {
+            Thread.yield();
+        }
+
+        // Mesma montagem do GameScreen
+        GameSession session = new GameSession(assets.playerModel, assets.knightClips, assets.swordModel, recording.enemies, recording.step);
+        GameWorld world = session.world;
+        world.ai.enabled = recording.ai();
+        world.setReproducibleAi();
+        world.physics.start();
+        if (recording.ai() && !recording.reproducibleAi()) {
+            System.out.println("Aviso: sessão gravada com IA não reproduzível, os hashes dos inimigos vão divergir");
+        }
+
+        InputFrame frame = new InputFrame();
+        StringBuilder csv = csvFile != null ? new StringBuilder("tick,nanos,hash\n") : null;
+        int firstDesync = -1;
+        int ticks = recording.ticks();
+        int event = 0;
+        for (int t = 0; t < ticks; t++) {
+            for (; event < recording.chunkEvents() && recording.chunkEventTick(event) <= t; event++) {
+                world.replayStreaming(recording.chunkEventX(event), recording.chunkEventZ(event), recording.chunkEventAdded(event));
+            }
+            session.tick(recording.frame(t, frame));
+            long nanos = session.lastTickNanos;
+
+            long hash = world.entities.stateHash();
+            if (firstDesync < 0 && hash != recording.hash(t)) firstDesync = t;
+            if (csv != null) csv.append(t).append(',').append(nanos).append(',').append(Long.toHexString(hash)).append('\n');
+        }
+        session.dispose();
+        assets.dispose();
+
+        if (csv != null) csvFile.writeString(csv.toString(), false);
+        System.out.printf("ticks=%d inimigos=%d ai=%b desync=%s%n", ticks, recording.enemies, recording.ai(),
+            firstDesync < 0 ? "nenhum" : "tick " + firstDesync);
+        session.tickTimes.print(System.out);
+        System.exit(firstDesync < 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.kaikeventura.dsd.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.utils.Array;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.entity.AttachmentSystem;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.save.SnapshotWriter;
+import com.kaikeventura.dsd.save.WorldSnapshot;
+import com.kaikeventura.dsd.sim.FixedTimestep;
+import com.kaikeventura.dsd.sim.GameSession;
+import com.kaikeventura.dsd.sim.GameWorld;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Ida e volta do save: roda uma partida com input roteirizado, grava pelo {@link SnapshotWriter},
+ * lê com {@link WorldSnapshot#load} e aplica {@link GameWorld#restore} em mundos montados de outro
+ * jeito (mais inimigos, menos inimigos e o próprio mundo de origem). Cada um precisa sair com o
+ * mesmo {@link EntityStore#stateHash()} e os mesmos itens presos, e continuar batendo tick a tick
+ * com a origem recebendo o mesmo input. Sem IA: o estado dos brains não vai no save.
+ */
+public class SnapshotRoundTrip {
+
+    private static final int ENEMIES = 6;
+    private static final int WARMUP_TICKS = 180;
+    private static final int FOLLOW_TICKS = 120;
+
+    private static GameAssets assets;
+    private static long savedHash;
+    private static final Array<String> failures = new Array<>();
+
+    public static void main(String[] args) throws IOException {
+        HeadlessSimulation.boot();
+        assets = new GameAssets();
+        assets.load();
+        while (!assets.update(100)) {
+            Thread.yield();
+        }
+
+        GameSession source = session(ENEMIES);
+        InputFrame frame = new InputFrame();
+        for (int t = 0; t < WARMUP_TICKS; t++) {
+            source.tick(script(t, frame));
+            // Um inimigo sai no meio: ids deixam de ser contíguos e os índices mudam pelo swap
+            if (t == WARMUP_TICKS / 2) source.world.despawn(2);
+        }
+        source.world.sync();
+        savedHash = source.world.entities.stateHash();
+
+        Path file = Files.createTempFile("dsd-roundtrip", ".dsds");
+        SnapshotWriter writer = new SnapshotWriter(source.world.entities.capacity, 64);
+        writer.save(source.world.entities, source.world.attachments, source.tick, file);
+        while (writer.isBusy()) {
+            Thread.yield();
+        }
+        writer.dispose();
+        if (writer.lastError != null) throw writer.lastError;
+        WorldSnapshot snapshot = WorldSnapshot.load(Gdx.files.absolute(file.toString()));
+        file.toFile().delete();
+
+        check("mais inimigos", session(ENEMIES + 3), snapshot, source);
+        check("menos inimigos", session(1), snapshot, source);
+        check("mundo de origem", source, snapshot, source);
+
+        source.dispose();
+        assets.dispose();
+        for (String failure : failures) System.out.println("FALHOU: " + failure);
+        System.out.println(failures.size == 0 ? "Save: ok" : "Save: " + failures.size + " falha(s)");
+        System.exit(failures.size == 0 ? 0 : 1);
+    }
+
+    // Mesma montagem do GameScreen: espada na mão de todo mundo
+    private static GameSession session(int enemies) {
+        GameSession session = new GameSession(assets.playerModel, assets.knightClips, assets.swordModel, enemies,
+            FixedTimestep.DEFAULT_STEP, 0);
+        GameWorld world = session.world;
+        world.ai.enabled = false;
+        if (assets.swordModel != null) {
+            for (int i = 0; i < world.entities.count; i++) {
+                world.attachments.attach(world.entities, i, world.handSocket, new ModelInstance(assets.swordModel), GameWorld.ITEM_SWORD);
+            }
+        }
+        return session;
+    }
+
+    // Anda virando devagar, com pulos e ataques espaçados
+    private static InputFrame script(int tick, InputFrame frame) {
+        frame.buttons = EntityStore.IN_FORWARD;
+        if (tick % 45 == 0) frame.buttons |= EntityStore.IN_JUMP | EntityStore.IN_JUMP_HELD;
+        if (tick % 70 == 35) frame.buttons |= EntityStore.IN_ATTACK;
+        frame.heading = (short) (tick * 150);
+        return frame;
+    }
+
+    private static void check(String name, GameSession target, WorldSnapshot snapshot, GameSession source) {
+        GameWorld world = target.world;
+        world.restore(snapshot, SnapshotRoundTrip::createItem);
+
+        long actual = world.entities.stateHash();
+        if (actual != savedHash) {
+            failures.add(name + ": hash " + Long.toHexString(actual) + " depois do restore, esperado " + Long.toHexString(savedHash));
+        }
+        compareItems(name, source.world, world);
+
+        // Daqui em diante os dois mundos recebem o mesmo input; só anda, sem ataque: a mistura entre
+        // clips que estava em curso não vai no save e mudaria a mão (e os acertos) da espada
+        if (target != source) {
+            InputFrame frame = new InputFrame();
+            for (int t = 0; t < FOLLOW_TICKS; t++) {
+                script(WARMUP_TICKS + t, frame).buttons &= ~EntityStore.IN_ATTACK;
+                source.tick(frame);
+                target.tick(frame);
+                source.world.sync();
+                world.sync();
+                if (world.entities.stateHash() != source.world.entities.stateHash()) {
+                    failures.add(name + ": divergiu " + (t + 1) + " ticks depois do restore");
+                    break;
+                }
+            }
+            target.dispose();
+            // A origem andou: o próximo caso parte de novo do save
+            source.world.restore(snapshot, SnapshotRoundTrip::createItem);
+        }
+    }
+
+    private static ModelInstance createItem(int itemId) {
+        return itemId == GameWorld.ITEM_SWORD && assets.swordModel != null ? new ModelInstance(assets.swordModel) : null;
+    }
+
+    private static void compareItems(String name, GameWorld source, GameWorld target) {
+        AttachmentSystem expected = source.attachments;
+        AttachmentSystem actual = target.attachments;
+        if (actual.size() != expected.size()) {
+            failures.add(name + ": " + actual.size() + " itens presos, esperado " + expected.size());
+            return;
+        }
+        for (int a = 0; a < expected.size(); a++) {
+            int owner = source.entities.ids[expected.owner(a)];
+            boolean found = false;
+            for (int b = 0; b < actual.size() && !found; b++) {
+                found = target.entities.ids[actual.owner(b)] == owner && actual.socketIndex(b) == expected.socketIndex(a)
+                    && actual.itemId(b) == expected.itemId(a);
+            }
+            if (!found) failures.add(name + ": item " + expected.itemId(a) + " da entidade " + owner + " não voltou");
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.kaikeventura.dsd;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.Pixmap;
@@ -17,25 +17,33 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.model.Node;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
-import com.badlogic.gdx.graphics.g3d.utils.AnimationController;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
-import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Matrix4;
-import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.physics.bullet.Bullet;
 import com.badlogic.gdx.physics.bullet.DebugDrawer;
-import com.badlogic.gdx.physics.bullet.collision.*;
-import com.badlogic.gdx.physics.bullet.dynamics.*;
 import com.badlogic.gdx.physics.bullet.linearmath.btIDebugDraw;
-import com.badlogic.gdx.physics.bullet.linearmath.btMotionState;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import net.mgsx.gltf.loaders.glb.GLBLoader;
-import net.mgsx.gltf.scene3d.scene.SceneAsset;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.input.InputRecording;
+import com.kaikeventura.dsd.input.PlayerInput;
+import com.kaikeventura.dsd.level.Chunk;
+import com.kaikeventura.dsd.level.LevelStreamer;
+import com.kaikeventura.dsd.net.NetClient;
+import com.kaikeventura.dsd.profiling.FramePhase;
+import com.kaikeventura.dsd.profiling.FrameProfiler;
+import com.kaikeventura.dsd.profiling.ProfilerOverlay;
+import com.kaikeventura.dsd.render.ChunkRenderer;
+import com.kaikeventura.dsd.render.DynamicResolution;
+import com.kaikeventura.dsd.render.RenderQueue;
+import com.kaikeventura.dsd.render.ResolutionSettings;
+import com.kaikeventura.dsd.render.StateSortRenderableSorter;
+import com.kaikeventura.dsd.save.SnapshotWriter;
+import com.kaikeventura.dsd.sim.FixedTimestep;
+import com.kaikeventura.dsd.sim.GameSession;
+import com.kaikeventura.dsd.sim.GameWorld;
 
 public class GameScreen implements Screen {
 
@@ -44,75 +52,77 @@ public class GameScreen implements Screen {
     public ModelBatch modelBatch;
     public Environment environment;
 
-    // Modelos
-    public Model playerModel, groundModel, swordModel;
-    // Lista para guardar referências e dar dispose depois
-    private List<Model> animationModels = new ArrayList<>();
+    // Modelos (playerModel e swordModel pertencem ao GameAssets)
+    private final GameAssets assets;
+    public Model playerModel, swordModel;
 
-    public ModelInstance playerInstance, groundInstance, swordInstance;
-    private Node handNode;
+    public ModelInstance playerInstance;
 
     // Variáveis de Calibração da Espada
     private float swordScale = 1.0f;
     private float rotX = 0, rotY = 0, rotZ = 0;
     private float posX = 0, posY = 0, posZ = 0;
-
-    // Animação
-    private AnimationController animationController;
-    private String currentAnimationId = "";
-    private boolean isAttacking = false;
+    // Offset do socket só é reassado quando a calibração muda
+    private boolean gripDirty = true;
 
     // PS1 Rendering
     FrameBuffer fbo;
     SpriteBatch spriteBatch;
     TextureRegion fboRegion;
-    final int VIRTUAL_WIDTH = 320;
-    final int VIRTUAL_HEIGHT = 240;
+    static final int VIRTUAL_WIDTH = 320;
+    static final int VIRTUAL_HEIGHT = 240;
     Viewport viewport; // Viewport para manter a proporção na tela cheia
-
-    // Lógica do Jogador
-    PlayerController playerController;
+    // Resolução interna do FBO: a base 320x240, ou a escolhida pela resolução dinâmica (F8)
+    int renderWidth = VIRTUAL_WIDTH, renderHeight = VIRTUAL_HEIGHT;
+    private final ResolutionSettings resolutionSettings;
+    private DynamicResolution dynamicResolution;
+    private long renderNanos;
+
+    // Simulação (física, knights, animação) em passo fixo; world é o da sessão
+    GameSession session;
+    GameWorld world;
+    // Em rede: jogador previsto aqui, inimigos e outros jogadores como proxies do servidor
+    private final String serverAddress;
+    NetClient net;
+    private final PlayerInput playerInput = new PlayerInput();
+    private final InputFrame inputFrame = new InputFrame();
+    // Sessão gravada desde o início (F6 salva): input por tick e hash do estado, para o replay headless
+    private InputRecording recording;
+
+    // Autosave (a cada AUTOSAVE_SECONDS e no F7): captura incremental aqui, escrita em outra thread
+    static final float AUTOSAVE_SECONDS = 30f;
+    static final String AUTOSAVE_FILE = "saves/autosave.dsds";
+    private SnapshotWriter autosave;
+    private int ticksSinceAutosave;
+    // Knights inimigos espalhados em anel em volta do jogador
+    static final int ARENA_ENEMIES = 16;
+    private final FixedTimestep timestep = new FixedTimestep();
     ThirdPersonCameraController cameraController;
 
-    // Bullet Physics
-    btCollisionConfiguration collisionConfig;
-    btDispatcher dispatcher;
-    btDbvtBroadphase broadphase;
-    btConstraintSolver solver;
-    btDynamicsWorld dynamicsWorld;
     DebugDrawer debugDrawer;
-
-    btRigidBody playerBody;
-    btRigidBody groundBody;
-    MyMotionState playerMotionState;
-
-    // Variáveis de Calibração FINAIS
-    private final float offsetX = 0f;
-    private final float offsetY = -0.9f;
-    private final float offsetZ = 0f;
-    private final float modelScale = 1.2f;
-
-    // Classe auxiliar para sincronizar física e gráficos
-    static class MyMotionState extends btMotionState {
-        Matrix4 transform;
-
-        public MyMotionState(Matrix4 transform) {
-            this.transform = transform;
-        }
-
-        @Override
-        public void getWorldTransform(Matrix4 worldTrans) {
-            worldTrans.set(transform);
-        }
-
-        @Override
-        public void setWorldTransform(Matrix4 worldTrans) {
-            transform.set(worldTrans);
-        }
+    // Wireframe do Bullet (F2): espera o passo em andamento, então fica desligado por padrão
+    private boolean showPhysicsDebug;
+    private final RenderQueue renderQueue = new RenderQueue();
+    private ChunkRenderer chunkRenderer;
+
+    // Profiler por fase (F3 mostra o overlay, F4 exporta CSV dos últimos frames)
+    private final FrameProfiler profiler = new FrameProfiler(600);
+    private ProfilerOverlay profilerOverlay;
+    private boolean showProfiler = false;
+    private final Matrix4 screenProjection = new Matrix4();
+
+    public GameScreen(GameAssets assets) {
+        this(assets, null, new ResolutionSettings());
     }
 
-    public GameScreen() {
-        Bullet.init();
+    /**
+     * @param serverAddress {@code host[:porta]} do servidor dedicado, ou null para jogar sozinho
+     * @param resolution    limites e estado inicial da resolução dinâmica
+     */
+    public GameScreen(GameAssets assets, String serverAddress, ResolutionSettings resolution) {
+        this.assets = assets;
+        this.serverAddress = serverAddress;
+        this.resolutionSettings = resolution;
     }
 
     @Override
@@ -132,273 +142,266 @@ public class GameScreen implements Screen {
         // 3. MODELOS
         DefaultShader.Config config = new DefaultShader.Config();
         config.numBones = 64;
-        modelBatch = new ModelBatch(new DefaultShaderProvider(config));
-
-        // Carrega o asset principal (Idle)
-        SceneAsset idleAsset = new GLBLoader().load(Gdx.files.internal("knight_idle.glb"));
-        playerModel = idleAsset.scene.model;
-        playerInstance = new ModelInstance(playerModel);
-
-        // Renomeia a animação de idle para facilitar
-        if (playerInstance.animations.size > 0) {
-            playerInstance.animations.get(0).id = "idle";
-        }
+        modelBatch = new ModelBatch(new DefaultShaderProvider(config), new StateSortRenderableSorter());
+
+        // Os modelos já chegam carregados (e com as animações extras) pelo GameAssets
+        playerModel = assets.playerModel;
+        swordModel = assets.swordModel;
+
+        // 4. SIMULAÇÃO (física + knight do jogador + animação); em rede os inimigos vêm do servidor
+        session = new GameSession(playerModel, assets.knightClips, swordModel, serverAddress == null ? ARENA_ENEMIES : 0, timestep.step);
+        world = session.world;
+        playerInstance = world.entities.instances[GameWorld.PLAYER];
+        // A sessão está sempre sendo gravada (F6 salva): IA sem LOD pela câmera nem orçamento de tempo,
+        // para o replay poder conferir os inimigos também
+        world.setReproducibleAi();
+        world.physics.start(); // o passo do Bullet roda em paralelo com o render
+        recording = new InputRecording(timestep.step, session.enemies,
+            world.ai.enabled ? InputRecording.FLAG_AI | InputRecording.FLAG_REPRODUCIBLE_AI : 0);
+        // Os chunks entram quando o carregamento termina: a gravação guarda o tick de cada um
+        world.level.listeners.add(new LevelStreamer.ChunkListener() {
+            @Override
+            public void onChunkAdded(Chunk chunk) {
+                recording.addChunkEvent(chunk.cx, chunk.cz, true);
+            }
 
-        // Carrega Animações Extras com Retargeting
-        loadAndAppendAnimation("knight-walk.glb", "walk_fwd");
-        loadAndAppendAnimation("knight-walk-back.glb", "walk_back");
-        loadAndAppendAnimation("knight-walk-left.glb", "walk_left");
-        loadAndAppendAnimation("knight-walk-right.glb", "walk_right");
-        loadAndAppendAnimation("knight-jump.glb", "jump");
-        loadAndAppendAnimation("knight_attack.glb", "attack");
-
-        // Carrega a Espada
-        try {
-            SceneAsset swordAsset = new GLBLoader().load(Gdx.files.internal("sword.glb"));
-            swordModel = swordAsset.scene.model;
-            swordInstance = new ModelInstance(swordModel);
-        } catch (Exception e) {
-            System.err.println("Erro ao carregar sword.glb: " + e.getMessage());
-        }
+            @Override
+            public void onChunkRemoved(Chunk chunk) {
+                recording.addChunkEvent(chunk.cx, chunk.cz, false);
+            }
+        });
+        autosave = new SnapshotWriter(world.entities.capacity, world.entities.capacity);
 
-        // Procura o osso da mão
-        handNode = playerInstance.getNode("mixamo.com:RightHand", true);
-        if (handNode == null) {
-            handNode = playerInstance.getNode("RightHand", true); // Tenta nome alternativo
-        }
+        // Osso da mão (índice resolvido uma vez nos clips do knight)
+        Node handNode = world.entities.hands[GameWorld.PLAYER];
         if (handNode == null) {
             System.out.println("ERRO CRÍTICO: Nó da mão não encontrado no modelo!");
-            // Lista nós para debug se necessário
-            // for(Node n : playerInstance.nodes) System.out.println(n.id);
         } else {
             System.out.println("Sucesso: Nó da mão encontrado: " + handNode.id);
         }
+        // Espada na mão do jogador e de cada inimigo; o AttachmentSystem cuida dos transforms
+        if (swordModel != null) {
+            for (int i = 0; i < world.entities.count; i++) {
+                world.attachments.attach(world.entities, i, world.handSocket, new ModelInstance(swordModel), GameWorld.ITEM_SWORD);
+            }
+        }
+        if (serverAddress != null) {
+            net = new NetClient(session, serverAddress);
+            // Proxies também carregam espada
+            if (swordModel != null) {
+                net.listener = index -> world.attachments.attach(world.entities, index, world.handSocket,
+                    new ModelInstance(swordModel), GameWorld.ITEM_SWORD);
+            }
+        }
 
-        // 4. ANIMAÇÃO
-        animationController = new AnimationController(playerInstance);
-        animationController.allowSameAnimation = true; // Permite transições suaves
-
-        ModelBuilder modelBuilder = new ModelBuilder();
-        groundModel = modelBuilder.createBox(50f, 1f, 50f, new com.badlogic.gdx.graphics.g3d.Material(com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute.createDiffuse(Color.DARK_GRAY)), com.badlogic.gdx.graphics.VertexAttributes.Usage.Position | com.badlogic.gdx.graphics.VertexAttributes.Usage.Normal);
-        groundInstance = new ModelInstance(groundModel);
-        groundInstance.transform.setToTranslation(0, -0.5f, 0);
+        // Fila de render: knights e itens presos neles vêm do EntityStore; o nível é cadastrado pelo
+        // ChunkRenderer (os chunks do spawn já estão carregados, o resto chega pelo listener)
+        chunkRenderer = new ChunkRenderer(renderQueue);
+        for (Chunk chunk : world.level.getActive()) chunkRenderer.onChunkAdded(chunk);
+        chunkRenderer.flush();
+        world.level.listeners.add(chunkRenderer);
 
         // 5. SISTEMA DE PIXELS (PS1)
         spriteBatch = new SpriteBatch();
-        fbo = new FrameBuffer(Pixmap.Format.RGB565, VIRTUAL_WIDTH, VIRTUAL_HEIGHT, true);
 
         // Inicializa o Viewport para manter a proporção 320x240 na tela cheia
         viewport = new FitViewport(VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
 
-        // 6. CONFIGURAÇÃO DA FÍSICA
-        collisionConfig = new btDefaultCollisionConfiguration();
-        dispatcher = new btCollisionDispatcher(collisionConfig);
-        broadphase = new btDbvtBroadphase();
-        solver = new btSequentialImpulseConstraintSolver();
-        dynamicsWorld = new btDiscreteDynamicsWorld(dispatcher, broadphase, solver, collisionConfig);
-        dynamicsWorld.setGravity(new Vector3(0, -9.8f, 0));
+        // Resolução dinâmica (opcional): mira a taxa do monitor (o alvo do vsync), começa na base
+        int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+        dynamicResolution = new DynamicResolution(VIRTUAL_WIDTH, VIRTUAL_HEIGHT, resolutionSettings.minScale,
+            resolutionSettings.maxScale, refreshRate > 0 ? refreshRate : 60);
+        dynamicResolution.setEnabled(resolutionSettings.enabled);
+        applyRenderResolution();
 
+        // 6. DEBUG DA FÍSICA
         debugDrawer = new DebugDrawer();
         debugDrawer.setDebugMode(btIDebugDraw.DebugDrawModes.DBG_DrawWireframe);
-        dynamicsWorld.setDebugDrawer(debugDrawer);
-
-        // Corpo do Chão
-        btCollisionShape groundShape = new btBoxShape(new Vector3(25f, 0.5f, 25f));
-        btRigidBody.btRigidBodyConstructionInfo groundInfo = new btRigidBody.btRigidBodyConstructionInfo(0, null, groundShape, Vector3.Zero);
-        groundBody = new btRigidBody(groundInfo);
-        groundInfo.dispose();
-        groundBody.setWorldTransform(groundInstance.transform);
-        dynamicsWorld.addRigidBody(groundBody);
-
-        // Corpo do Jogador
-        btCollisionShape playerShape = new btCapsuleShape(0.5f, 1.8f);
-        Vector3 localInertia = new Vector3();
-        playerShape.calculateLocalInertia(1f, localInertia);
-        playerMotionState = new MyMotionState(playerInstance.transform);
-        btRigidBody.btRigidBodyConstructionInfo playerInfo = new btRigidBody.btRigidBodyConstructionInfo(1f, playerMotionState, playerShape, localInertia);
-        playerBody = new btRigidBody(playerInfo);
-        playerInfo.dispose();
-        playerBody.setAngularFactor(Vector3.Y);
-        playerBody.setActivationState(Collision.DISABLE_DEACTIVATION);
-        playerInstance.transform.translate(0, 5f, 0);
-        playerBody.setWorldTransform(playerInstance.transform);
-        dynamicsWorld.addRigidBody(playerBody);
+        world.dynamicsWorld.setDebugDrawer(debugDrawer);
+        world.profiler = profiler;
+        profilerOverlay = new ProfilerOverlay(profiler);
 
         // 7. CONTROLLERS
-        playerController = new PlayerController(playerBody, cam);
         cameraController = new ThirdPersonCameraController(cam, playerInstance);
+        timestep.reset();
     }
 
-    // Método auxiliar para carregar e fazer retargeting
-    private void loadAndAppendAnimation(String fileName, String internalName) {
-        try {
-            SceneAsset asset = new GLBLoader().load(Gdx.files.internal(fileName));
-            Model model = asset.scene.model;
-            animationModels.add(model); // Guarda para dispose
-
-            if (model.animations.size > 0) {
-                com.badlogic.gdx.graphics.g3d.model.Animation anim = model.animations.get(0);
-                anim.id = internalName;
-
-                // Retargeting
-                for (com.badlogic.gdx.graphics.g3d.model.NodeAnimation nodeAnim : anim.nodeAnimations) {
-                    com.badlogic.gdx.graphics.g3d.model.Node targetNode = playerInstance.getNode(nodeAnim.node.id, true);
-                    if (targetNode != null) {
-                        nodeAnim.node = targetNode;
-                    }
-                }
-                playerInstance.animations.add(anim);
-                System.out.println("Animação carregada: " + internalName + " de " + fileName);
-            }
-        } catch (Exception e) {
-            System.err.println("Erro ao carregar animação: " + fileName);
-            e.printStackTrace();
-        }
+    // Recria o FBO na resolução interna atual; câmera, viewport e blit passam a usar o mesmo tamanho
+    private void applyRenderResolution() {
+        renderWidth = dynamicResolution.width();
+        renderHeight = dynamicResolution.height();
+        if (fbo != null) fbo.dispose();
+        fbo = new FrameBuffer(Pixmap.Format.RGB565, renderWidth, renderHeight, true);
+        fboRegion = new TextureRegion(fbo.getColorBufferTexture());
+        fboRegion.flip(false, true);
+
+        cam.viewportWidth = renderWidth;
+        cam.viewportHeight = renderHeight;
+        cam.update();
+        viewport.setWorldSize(renderWidth, renderHeight);
+        viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
     }
 
     @Override
     public void render(float delta) {
-        // Atualiza a câmera sempre
-        cameraController.update(delta);
+        long renderStart = System.nanoTime();
+        // Troca de resolução antes de qualquer coisa usar o FBO neste frame
+        if (dynamicResolution.update(delta, renderNanos / 1e9f)) applyRenderResolution();
+        profiler.beginFrame();
+        profiler.begin(FramePhase.INPUT);
+
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            showProfiler = !showProfiler;
+            profiler.setGLCountersEnabled(showProfiler);
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F2)) {
+            showPhysicsDebug = !showPhysicsDebug;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) {
+            profiler.exportCsv(Gdx.files.local("profiling/frames-" + TimeUtils.millis() + ".csv"));
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F5)) {
+            world.animation.lodInterpolation = !world.animation.lodInterpolation;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F6)) {
+            FileHandle file = Gdx.files.local("recordings/session-" + TimeUtils.millis() + ".dsdr");
+            recording.save(file);
+            System.out.println("Sessão gravada (" + recording.ticks() + " ticks): " + file.path());
+        }
+        boolean saveNow = Gdx.input.isKeyJustPressed(Input.Keys.F7);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F8)) {
+            if (dynamicResolution.setEnabled(!dynamicResolution.isEnabled())) applyRenderResolution();
+            System.out.println("Resolução dinâmica: " + (dynamicResolution.isEnabled() ? "ligada" : "desligada")
+                + " (" + renderWidth + "x" + renderHeight + ")");
+        }
 
         // --- DEBUG DE CALIBRAÇÃO DA ESPADA ---
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_1)) rotX += 1f;
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_2)) rotX -= 1f;
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_3)) rotY += 1f;
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_4)) rotY -= 1f;
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_5)) rotZ += 1f;
-        if (Gdx.input.isKeyPressed(Input.Keys.NUM_6)) rotZ -= 1f;
-
-        if (Gdx.input.isKeyPressed(Input.Keys.UP)) posY += 0.01f;
-        if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) posY -= 0.01f;
-        if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) posX -= 0.01f;
-        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) posX += 0.01f;
-        if (Gdx.input.isKeyPressed(Input.Keys.O)) posZ -= 0.01f;
-        if (Gdx.input.isKeyPressed(Input.Keys.P)) posZ += 0.01f;
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_1)) { rotX += 1f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_2)) { rotX -= 1f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_3)) { rotY += 1f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_4)) { rotY -= 1f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_5)) { rotZ += 1f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.NUM_6)) { rotZ -= 1f; gripDirty = true; }
+
+        if (Gdx.input.isKeyPressed(Input.Keys.UP)) { posY += 0.01f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) { posY -= 0.01f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) { posX -= 0.01f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) { posX += 0.01f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.O)) { posZ -= 0.01f; gripDirty = true; }
+        if (Gdx.input.isKeyPressed(Input.Keys.P)) { posZ += 0.01f; gripDirty = true; }
 
         if (Gdx.input.isKeyJustPressed(Input.Keys.ENTER)) {
             System.out.println("CALIBRAÇÃO ATUAL: ");
             System.out.println("Rot: " + rotX + ", " + rotY + ", " + rotZ);
             System.out.println("Pos: " + posX + ", " + posY + ", " + posZ);
         }
+        // Resultado do passo que rodou durante o último render; daqui até o tick o mundo está parado
+        profiler.end(FramePhase.INPUT);
+        profiler.begin(FramePhase.PHYSICS);
+        world.sync();
+        profiler.end(FramePhase.PHYSICS);
+        profiler.begin(FramePhase.INPUT);
+
+        // Desenho e hitbox da espada usam o mesmo offset do socket
+        if (gripDirty) {
+            world.handSocket.setOffset(rotX, rotY, rotZ, posX, posY, posZ, swordScale);
+            world.melee.setGrip(world.handSocket.offset);
+            gripDirty = false;
+        }
         // -------------------------------------
 
-        // Lógica de Ataque e Movimento
-        if (!isAttacking) {
-            // Só permite mover se não estiver atacando
-            playerController.update(delta);
-
-            // Verifica se quer atacar
-            if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
-                isAttacking = true;
-                currentAnimationId = "attack";
-
-                // Para o movimento físico ao atacar
-                playerBody.setLinearVelocity(new Vector3(0, playerBody.getLinearVelocity().y, 0));
-
-                animationController.animate("attack", 1, 1f, new AnimationController.AnimationListener() {
-                    @Override
-                    public void onEnd(AnimationController.AnimationDesc animation) {
-                        isAttacking = false;
-                        // Volta para idle suavemente
-                        animationController.animate("idle", -1, 1f, null, 0.2f);
-                        currentAnimationId = "idle";
-                    }
-
-                    @Override
-                    public void onLoop(AnimationController.AnimationDesc animation) {
-                    }
-                }, 0.1f);
+        // Simulação: input, controller, animação e física sempre no mesmo passo fixo
+        playerInput.poll(cam);
+        profiler.end(FramePhase.INPUT);
+
+        // Streaming mexe nos corpos do nível: antes do tick, com a física parada
+        profiler.begin(FramePhase.SCENE);
+        world.updateStreaming();
+        chunkRenderer.update();
+        profiler.end(FramePhase.SCENE);
+
+        int ticks = timestep.advance(delta);
+        for (int i = 0; i < ticks; i++) {
+            // Um frame de input por tick; as bordas vão só para o primeiro (sem tick ficam travadas)
+            inputFrame.set(playerInput);
+            playerInput.consumeEdges();
+            if (net != null) {
+                net.tick(inputFrame);
             } else {
-                // Lógica de Animação de Movimento (Prioridade)
-                String animToPlay = "idle";
-                int loopCount = -1; // Infinito por padrão
-
-                if (Gdx.input.isKeyPressed(Input.Keys.SPACE)) {
-                    animToPlay = "jump";
-                    loopCount = 1; // Toca uma vez
-                } else if (Gdx.input.isKeyPressed(Input.Keys.W)) {
-                    animToPlay = "walk_fwd";
-                } else if (Gdx.input.isKeyPressed(Input.Keys.S)) {
-                    animToPlay = "walk_back";
-                } else if (Gdx.input.isKeyPressed(Input.Keys.A)) {
-                    animToPlay = "walk_left";
-                } else if (Gdx.input.isKeyPressed(Input.Keys.D)) {
-                    animToPlay = "walk_right";
-                }
-
-                if (!currentAnimationId.equals(animToPlay)) {
-                    float transitionTime = animToPlay.equals("jump") ? 0.1f : 0.2f;
-                    animationController.animate(animToPlay, loopCount, 1f, null, transitionTime);
-                    currentAnimationId = animToPlay;
-                }
-
-                // Reset de pulo se necessário
-                if (currentAnimationId.equals("jump") && animationController.current != null && animationController.current.time >= animationController.current.duration) {
-                     if (animationController.current.loopCount == 1) {
-                         currentAnimationId = "";
-                     }
-                }
+                session.tick(inputFrame);
             }
+            recording.add(inputFrame, world.entities.stateHash());
+            ticksSinceAutosave++;
+        }
+
+        // Entre ticks o store está parado; se a escrita anterior não acabou, tenta no próximo frame
+        if ((saveNow || ticksSinceAutosave * timestep.step >= AUTOSAVE_SECONDS)
+            && autosave.save(world.entities, world.attachments, session.tick, Gdx.files.local(AUTOSAVE_FILE).file().toPath())) {
+            ticksSinceAutosave = 0;
         }
 
-        animationController.update(Gdx.graphics.getDeltaTime());
-        dynamicsWorld.stepSimulation(delta, 5, 1f / 60f);
+        // Render interpola entre os dois últimos ticks
+        profiler.begin(FramePhase.SCENE);
+        world.updateRenderTransforms(timestep.alpha());
 
-        playerBody.getWorldTransform(playerInstance.transform);
-        playerInstance.transform.translate(offsetX, offsetY, offsetZ);
-        playerInstance.transform.rotate(Vector3.Y, 180f);
-        playerInstance.transform.scale(modelScale, modelScale, modelScale);
+        // A câmera segue a posição interpolada
+        cameraController.update(delta);
 
-        // --- ATUALIZAÇÃO DA ESPADA ---
-        if (swordInstance != null && handNode != null) {
-            swordInstance.transform.set(playerInstance.transform);
-            swordInstance.transform.mul(handNode.globalTransform);
+        // Culling contra o frustum (também decide quem anima os ossos no próximo tick)
+        renderQueue.cull(cam, world.entities);
 
-            swordInstance.transform.rotate(Vector3.X, rotX);
-            swordInstance.transform.rotate(Vector3.Y, rotY);
-            swordInstance.transform.rotate(Vector3.Z, rotZ);
-            swordInstance.transform.translate(posX, posY, posZ);
-            swordInstance.transform.scale(swordScale, swordScale, swordScale);
-        }
+        profiler.end(FramePhase.SCENE);
 
-        // Renderização no FBO (320x240)
+        // Renderização no FBO (320x240 ou a resolução dinâmica)
+        profiler.begin(FramePhase.FBO_PASS);
         fbo.begin();
-        Gdx.gl.glViewport(0, 0, VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
+        Gdx.gl.glViewport(0, 0, renderWidth, renderHeight);
         Gdx.gl.glClearColor(0.05f, 0.05f, 0.05f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
 
         modelBatch.begin(cam);
-        modelBatch.render(playerInstance, environment);
-        if (swordInstance != null) modelBatch.render(swordInstance, environment); // Renderiza a espada
-        modelBatch.render(groundInstance, environment);
+        renderQueue.render(modelBatch, environment, world.entities, world.attachments);
         modelBatch.end();
 
-        debugDrawer.begin(cam);
-        dynamicsWorld.debugDrawWorld();
-        debugDrawer.end();
+        if (showPhysicsDebug) {
+            // O debug draw lê o mundo Bullet: espera o passo do frame (só com F2 ligado)
+            world.sync();
+            debugDrawer.begin(cam);
+            world.dynamicsWorld.debugDrawWorld();
+            debugDrawer.end();
+        }
 
         fbo.end();
+        profiler.end(FramePhase.FBO_PASS);
 
         // Desenha na tela grande usando o Viewport para corrigir a proporção
+        profiler.begin(FramePhase.BLIT);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
 
         viewport.apply(); // Aplica o viewport (define glViewport e câmera 2D)
 
-        fboRegion = new TextureRegion(fbo.getColorBufferTexture());
-        fboRegion.flip(false, true);
-
         spriteBatch.setProjectionMatrix(viewport.getCamera().combined); // Usa a matriz do viewport
         spriteBatch.begin();
-        // Desenha ocupando todo o mundo virtual do viewport (320x240)
-        spriteBatch.draw(fboRegion, 0, 0, VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
+        // Desenha ocupando todo o mundo do viewport (do tamanho do FBO)
+        spriteBatch.draw(fboRegion, 0, 0, renderWidth, renderHeight);
         spriteBatch.end();
+        profiler.end(FramePhase.BLIT);
+
+        // Overlay do profiler na resolução da tela, por cima da imagem final
+        if (showProfiler) {
+            Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+            spriteBatch.setProjectionMatrix(screenProjection);
+            profilerOverlay.draw(spriteBatch, 10, Gdx.graphics.getHeight() - 10);
+        }
+        profiler.endFrame();
+        renderNanos = System.nanoTime() - renderStart;
     }
 
     @Override
     public void resize(int width, int height) {
         // Atualiza o viewport quando a janela muda de tamanho
         viewport.update(width, height, true); // true centraliza a câmera
+        screenProjection.setToOrtho2D(0, 0, width, height);
     }
 
     @Override
@@ -419,25 +422,13 @@ public class GameScreen implements Screen {
     @Override
     public void dispose() {
         modelBatch.dispose();
-        playerModel.dispose();
-        if (swordModel != null) swordModel.dispose();
-
-        for (Model m : animationModels) {
-            m.dispose();
-        }
-        animationModels.clear();
-
-        groundModel.dispose();
+        chunkRenderer.dispose();
         fbo.dispose();
         spriteBatch.dispose();
         debugDrawer.dispose();
-
-        dynamicsWorld.dispose();
-        solver.dispose();
-        broadphase.dispose();
-        dispatcher.dispose();
-        collisionConfig.dispose();
-        playerBody.dispose();
-        groundBody.dispose();
+        profilerOverlay.dispose();
+        autosave.dispose();
+        if (net != null) net.dispose();
+        session.dispose();
     }
 }
@@ -0,0 +1,102 @@
+package com.kaikeventura.dsd;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.kaikeventura.dsd.assets.GameAssets;
+
+public class LoadingScreen implements Screen {
+
+    // Tempo máximo por frame gasto em upload para a GPU (o resto fica para o próximo frame)
+    private static final int UPLOAD_BUDGET_MILLIS = 8;
+
+    private final Main game;
+    private final GameAssets assets;
+
+    private final int VIRTUAL_WIDTH = 320;
+    private final int VIRTUAL_HEIGHT = 240;
+    private Viewport viewport;
+    private ShapeRenderer shapeRenderer;
+    private SpriteBatch spriteBatch;
+    private BitmapFont font;
+
+    // Progresso suavizado para a barra não "pular"
+    private float displayedProgress = 0f;
+
+    public LoadingScreen(Main game, GameAssets assets) {
+        this.game = game;
+        this.assets = assets;
+    }
+
+    @Override
+    public void show() {
+        viewport = new FitViewport(VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
+        viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
+        shapeRenderer = new ShapeRenderer();
+        spriteBatch = new SpriteBatch();
+        font = new BitmapFont();
+    }
+
+    @Override
+    public void render(float delta) {
+        boolean finished = assets.update(UPLOAD_BUDGET_MILLIS);
+        displayedProgress = Math.min(assets.getProgress(), displayedProgress + delta * 2f);
+
+        Gdx.gl.glClearColor(0.05f, 0.05f, 0.05f, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        viewport.apply();
+
+        float barWidth = 200f;
+        float barHeight = 6f;
+        float barX = (VIRTUAL_WIDTH - barWidth) / 2f;
+        float barY = VIRTUAL_HEIGHT / 2f - barHeight;
+
+        shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.DARK_GRAY);
+        shapeRenderer.rect(barX, barY, barWidth, barHeight);
+        shapeRenderer.setColor(Color.LIGHT_GRAY);
+        shapeRenderer.rect(barX, barY, barWidth * displayedProgress, barHeight);
+        shapeRenderer.end();
+
+        spriteBatch.setProjectionMatrix(viewport.getCamera().combined);
+        spriteBatch.begin();
+        font.draw(spriteBatch, "Carregando... " + (int) (displayedProgress * 100) + "%", barX, barY + 24f);
+        spriteBatch.end();
+
+        if (finished) {
+            game.onAssetsLoaded();
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+    }
+
+    @Override
+    public void dispose() {
+        shapeRenderer.dispose();
+        spriteBatch.dispose();
+        font.dispose();
+    }
+}
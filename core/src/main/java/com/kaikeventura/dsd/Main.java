@@ -1,11 +1,45 @@
 package com.kaikeventura.dsd;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Screen;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.render.ResolutionSettings;
 
 public class Main extends Game {
 
+    private GameAssets assets;
+    // host[:porta] do servidor dedicado; null joga sozinho
+    private final String server;
+    private final ResolutionSettings resolution;
+
+    public Main() {
+        this(null, new ResolutionSettings());
+    }
+
+    public Main(String server, ResolutionSettings resolution) {
+        this.server = server;
+        this.resolution = resolution;
+    }
+
     @Override
     public void create() {
-        setScreen(new GameScreen());
+        // O parse dos GLBs começa em background; a tela de loading faz o upload aos poucos
+        assets = new GameAssets();
+        assets.load();
+        setScreen(new LoadingScreen(this, assets));
+    }
+
+    // Chamado pela LoadingScreen quando todos os assets estão na GPU
+    void onAssetsLoaded() {
+        Screen loadingScreen = getScreen();
+        setScreen(new GameScreen(assets, server, resolution));
+        loadingScreen.dispose();
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (getScreen() != null) getScreen().dispose();
+        assets.dispose();
     }
 }
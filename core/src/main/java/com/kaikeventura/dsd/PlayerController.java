@@ -1,21 +1,25 @@
 package com.kaikeventura.dsd;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.PlayerInput;
+import com.kaikeventura.dsd.sim.PhysicsCommands;
 
+// Sem estado por personagem: uma instância serve todas as entidades (LocomotionSystem).
+// Lê a velocidade do último passo no store e manda as mudanças no corpo pela fila de comandos.
 public class PlayerController {
 
-    private final btRigidBody playerBody;
-    private final Camera camera;
     private final Vector3 walkDirection = new Vector3();
     private final Vector3 tempVector = new Vector3();
 
+    // Temporários pré-alocados: update() roda todo tick e não pode alocar
+    private final Vector3 strafeDirection = new Vector3();
+    private final Vector3 impulse = new Vector3();
+    private final Vector3 boost = new Vector3();
+
     // Configurações de Movimento
     private final float speed = 5.0f;
     private final float jumpForce = 7.0f;
@@ -25,38 +29,32 @@ public class PlayerController {
     private final float airControlForce = 10.0f;   // Reduzido para evitar "voar"
     private final float maxAirSpeed = 6.0f;        // Velocidade máxima horizontal permitida no ar
 
-    public PlayerController(btRigidBody playerBody, Camera camera) {
-        this.playerBody = playerBody;
-        this.camera = camera;
-    }
+    // Chamado uma vez por tick da simulação, com o input já amostrado
+    public void update(PlayerInput input, EntityStore store, int i, PhysicsCommands commands, float delta) {
+        btRigidBody playerBody = store.bodies[i];
+        float velocityY = store.velY[i];
 
-    public void update(float delta) {
         // --- ROTAÇÃO ---
-        Vector3 direction = tempVector.set(camera.direction).set(camera.direction.x, 0, camera.direction.z).nor();
-        float angle = new Vector2(direction.x, direction.z).angleDeg();
-
-        Matrix4 transform = playerBody.getWorldTransform();
-        Vector3 position = transform.getTranslation(new Vector3());
-        transform.setToRotation(Vector3.Y, -angle - 90f);
-        transform.setTranslation(position);
-        playerBody.setWorldTransform(transform);
+        Vector3 direction = tempVector.set(input.forwardX, 0, input.forwardZ).nor();
+        float angle = Vector2.angleDeg(direction.x, direction.z);
+        commands.setYaw(playerBody, -angle - 90f);
 
         // --- INPUT DE MOVIMENTO ---
         walkDirection.set(0, 0, 0);
 
-        if (Gdx.input.isKeyPressed(Input.Keys.W)) {
+        if (input.forward) {
             walkDirection.add(direction);
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.S)) {
+        if (input.back) {
             walkDirection.sub(direction);
         }
 
-        Vector3 strafeDirection = new Vector3(direction).crs(camera.up).nor();
+        strafeDirection.set(direction).crs(Vector3.Y).nor();
 
-        if (Gdx.input.isKeyPressed(Input.Keys.D)) {
+        if (input.right) {
             walkDirection.add(strafeDirection);
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+        if (input.left) {
             walkDirection.sub(strafeDirection);
         }
 
@@ -66,41 +64,41 @@ public class PlayerController {
         }
 
         // --- FÍSICA E PULO ---
-        boolean onGround = Math.abs(playerBody.getLinearVelocity().y) < 0.1f;
+        // Raycast de chão da física, não a velocidade vertical (que também zera no topo do pulo)
+        boolean onGround = store.grounded[i];
 
         if (onGround) {
             // NO CHÃO: Controle total
             if (walkDirection.len2() > 0) {
                 Vector3 targetVelocity = walkDirection.scl(speed);
-                playerBody.setLinearVelocity(tempVector.set(targetVelocity.x, playerBody.getLinearVelocity().y, targetVelocity.z));
+                commands.setVelocity(playerBody, targetVelocity.x, velocityY, targetVelocity.z);
             } else {
-                playerBody.setLinearVelocity(tempVector.set(0, playerBody.getLinearVelocity().y, 0));
+                commands.setVelocity(playerBody, 0, velocityY, 0);
             }
 
             // PULO
-            if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-                Vector3 jumpImpulse = new Vector3(0, jumpForce, 0);
+            if (input.jumpPressed) {
+                Vector3 jumpImpulse = impulse.set(0, jumpForce, 0);
 
                 if (walkDirection.len2() > 0) {
                     // Normaliza de novo pois o scl acima alterou o vetor
-                    Vector3 forwardBoost = new Vector3(walkDirection).nor().scl(jumpForwardImpulse);
+                    Vector3 forwardBoost = boost.set(walkDirection).nor().scl(jumpForwardImpulse);
                     jumpImpulse.add(forwardBoost);
                 }
 
-                playerBody.applyCentralImpulse(jumpImpulse);
+                commands.applyImpulse(playerBody, jumpImpulse.x, jumpImpulse.y, jumpImpulse.z);
             }
 
         } else {
             // NO AR: Controle limitado
 
             if (walkDirection.len2() > 0) {
-                Vector3 velocity = playerBody.getLinearVelocity();
-                float horizontalSpeed = new Vector2(velocity.x, velocity.z).len();
+                float horizontalSpeed = Vector2.len(store.velX[i], store.velZ[i]);
 
                 // Só aplica força se estiver abaixo da velocidade máxima aérea
                 if (horizontalSpeed < maxAirSpeed) {
-                    Vector3 airForce = new Vector3(walkDirection).nor().scl(airControlForce * delta);
-                    playerBody.applyCentralImpulse(airForce);
+                    Vector3 airForce = impulse.set(walkDirection).nor().scl(airControlForce * delta);
+                    commands.applyImpulse(playerBody, airForce.x, airForce.y, airForce.z);
                 }
             }
         }
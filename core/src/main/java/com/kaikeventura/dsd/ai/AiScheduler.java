@@ -0,0 +1,151 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.utils.IntArray;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.sim.JobSystem;
+
+/**
+ * Espalha os ticks de IA dos inimigos por vários ticks da simulação.
+ * <p>
+ * Cada {@link EnemyBrain} tem um intervalo (LOD) que depende da distância até o jogador e de estar
+ * ou não no campo de visão da câmera. A cada tick o scheduler percorre as entidades em round-robin a
+ * partir de onde parou e roda as que estão vencidas até estourar o orçamento de tempo
+ * ({@link #budgetNanos}) ou de quantidade ({@link #maxThinksPerTick}). Quem ficou de fora roda no
+ * próximo tick, então um encontro grande custa um tempo limitado por frame em vez de crescer
+ * linearmente com o número de inimigos.
+ * <p>
+ * A seleção é em série; as decisões selecionadas rodam em paralelo no {@link JobSystem} (cada
+ * brain só escreve o input da própria entidade e só lê posições do store).
+ */
+public class AiScheduler {
+
+    public boolean enabled = true;
+
+    // Orçamentos por tick (<= 0 desliga o de tempo; o de quantidade é determinístico)
+    public long budgetNanos = 1_000_000L;
+    public int maxThinksPerTick = Integer.MAX_VALUE;
+
+    // LOD: intervalo entre decisões, em ticks
+    public float nearDistance = 12f;
+    public float farDistance = 40f;
+    public int nearInterval = 2;
+    public int midInterval = 6;
+    public int farInterval = 20;
+    public int offscreenInterval = 12;
+
+    // Opcional: sem câmera (headless) todo mundo conta como visível
+    public Camera camera;
+
+    // Métricas do último tick
+    public int lastThinks;
+    public int lastOverdue;
+    public long lastNanos;
+
+    private long tick;
+    private int cursor;
+
+    // Decisões do tick: selecionadas em série (round-robin), rodadas em paralelo pelo JobSystem
+    private static final int THINK_GRAIN = 8;
+    private final JobSystem jobs;
+    private final JobSystem.RangeJob thinkJob = this::thinkRange;
+    private final IntArray selected = new IntArray();
+    private boolean[] ran = new boolean[0];
+    private EntityStore jobStore;
+    private long deadline;
+    private float targetX, targetY, targetZ;
+
+    public AiScheduler(JobSystem jobs) {
+        this.jobs = jobs;
+    }
+
+    public void update(EntityStore store, int target) {
+        tick++;
+        lastThinks = 0;
+        lastOverdue = 0;
+        lastNanos = 0;
+        int count = store.count;
+        if (!enabled || count == 0) return;
+
+        long start = System.nanoTime();
+        deadline = budgetNanos > 0 ? start + budgetNanos : Long.MAX_VALUE;
+        targetX = store.posX[target];
+        targetY = store.posY[target];
+        targetZ = store.posZ[target];
+
+        // Seleção: vencidos a partir do cursor até o orçamento de quantidade
+        selected.clear();
+        if (cursor >= count) cursor = 0;
+        int i = cursor;
+        boolean full = false;
+        for (int visited = 0; visited < count; visited++, i = i + 1 == count ? 0 : i + 1) {
+            EnemyBrain brain = store.brains[i];
+            if (brain == null || brain.nextTick > tick) continue;
+            if (full) {
+                lastOverdue++;
+                continue;
+            }
+            selected.add(i);
+            if (selected.size >= maxThinksPerTick) {
+                full = true;
+                // Na próxima vez começa pelo primeiro que não rodou
+                cursor = i + 1 == count ? 0 : i + 1;
+            }
+        }
+
+        int thinks = selected.size;
+        if (ran.length < thinks) ran = new boolean[Math.max(thinks, ran.length * 2)];
+        jobStore = store;
+        jobs.parallelFor(thinks, THINK_GRAIN, thinkJob);
+        jobStore = null;
+
+        // Quem estourou o orçamento de tempo continua vencido e abre a próxima rodada
+        boolean timedOut = false;
+        for (int s = 0; s < thinks; s++) {
+            if (ran[s]) {
+                lastThinks++;
+                continue;
+            }
+            lastOverdue++;
+            if (!timedOut) {
+                cursor = selected.get(s);
+                timedOut = true;
+            }
+        }
+        lastNanos = System.nanoTime() - start;
+    }
+
+    private void thinkRange(int startSlot, int endSlot) {
+        EntityStore store = jobStore;
+        float near2 = nearDistance * nearDistance;
+        float far2 = farDistance * farDistance;
+        for (int s = startSlot; s < endSlot; s++) {
+            // O primeiro sempre roda, para o orçamento de tempo nunca travar a IA
+            if (s > 0 && System.nanoTime() >= deadline) {
+                ran[s] = false;
+                continue;
+            }
+            int i = selected.get(s);
+            EnemyBrain brain = store.brains[i];
+            brain.think(tick);
+            ran[s] = true;
+
+            float dx = store.posX[i] - targetX, dy = store.posY[i] - targetY, dz = store.posZ[i] - targetZ;
+            float dist2 = dx * dx + dy * dy + dz * dz;
+            int interval;
+            if (dist2 <= near2) interval = nearInterval;
+            else if (dist2 <= far2) interval = midInterval;
+            else interval = farInterval;
+            if (camera != null && interval < offscreenInterval
+                && !camera.frustum.sphereInFrustum(store.posX[i], store.posY[i], store.posZ[i], 1.5f)) {
+                interval = offscreenInterval;
+            }
+            brain.nextTick = tick + interval;
+        }
+    }
+
+    /** Espalha a primeira decisão de um inimigo recém-criado para não sincronizar todos no mesmo tick. */
+    public void schedule(EnemyBrain brain) {
+        brain.nextTick = tick + 1 + brain.entity % nearInterval;
+    }
+}
@@ -0,0 +1,25 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+
+/** Vira para o alvo e ataca; falha durante o cooldown. */
+public class AttackTarget extends LeafTask<EnemyBrain> {
+
+    @Override
+    public Status execute() {
+        EnemyBrain brain = getObject();
+        brain.stop();
+        brain.faceTarget();
+        if (brain.tick < brain.attackReadyTick) return Status.FAILED;
+
+        brain.attack();
+        brain.attackReadyTick = brain.tick + EnemyBrain.ATTACK_COOLDOWN_TICKS;
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<EnemyBrain> copyTo(Task<EnemyBrain> task) {
+        return task;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Persegue o alvo: longe, segue o caminho do PathService; perto (ou sem caminho ainda), usa
+ * {@code Arrive} e anda na direção da aceleração pedida até chegar ao alcance.
+ */
+public class ChaseTarget extends LeafTask<EnemyBrain> {
+
+    @Override
+    public Status execute() {
+        EnemyBrain brain = getObject();
+        brain.updatePath();
+        if (brain.distanceToTarget2() > EnemyBrain.DIRECT_RANGE * EnemyBrain.DIRECT_RANGE && brain.followPath()) {
+            return Status.SUCCEEDED;
+        }
+
+        brain.chase.calculateSteering(brain.steering);
+
+        Vector3 linear = brain.steering.linear;
+        if (linear.x * linear.x + linear.z * linear.z < 0.01f) {
+            brain.stop();
+            brain.faceTarget();
+        } else {
+            brain.face(linear.x, linear.z);
+            brain.walk();
+        }
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<EnemyBrain> copyTo(Task<EnemyBrain> task) {
+        return task;
+    }
+}
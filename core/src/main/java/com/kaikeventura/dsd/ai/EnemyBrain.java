@@ -0,0 +1,190 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.steer.SteeringAcceleration;
+import com.badlogic.gdx.ai.steer.behaviors.Arrive;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.FloatArray;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.nav.PathRequest;
+import com.kaikeventura.dsd.nav.PathService;
+
+/**
+ * IA de um knight inimigo: behaviour tree do gdx-ai + steering. Não mexe no corpo rígido; o
+ * resultado é escrito como input da entidade (direção, andar, atacar) e passa pelo mesmo
+ * {@code LocomotionSystem} do jogador.
+ * <p>
+ * Árvore: ataca se o alvo está ao alcance, persegue se está dentro do raio de aggro, senão fica parado.
+ * Longe do alvo a perseguição segue um caminho pedido ao {@link PathService}; o pedido é assíncrono
+ * e o knight continua indo direto até a resposta chegar (ou até o tick carimbado no pedido, com
+ * {@link PathService#latencyTicks}).
+ */
+public class EnemyBrain {
+
+    public static final float ATTACK_RANGE = 1.8f;
+    public static final float AGGRO_RANGE = 15f;
+    public static final int ATTACK_COOLDOWN_TICKS = 90;
+
+    // Perto assim vai direto (Arrive), sem caminho
+    public static final float DIRECT_RANGE = 3f;
+    // Pede um caminho novo quando o alvo se afastou isso do destino anterior, ou depois de N ticks
+    static final float REPATH_DISTANCE = 2f;
+    static final int REPATH_TICKS = 60;
+    // Pedido recusado (fila do PathService cheia): tenta de novo logo, sem esperar REPATH_TICKS
+    static final int REJECTED_RETRY_TICKS = 4;
+    static final float WAYPOINT_RADIUS = 0.6f;
+
+    private final EntityStore store;
+    int entity;
+
+    final EntitySteerable self;
+    final EntitySteerable target;
+    final Arrive<Vector3> chase;
+    final SteeringAcceleration<Vector3> steering = new SteeringAcceleration<>(new Vector3());
+    private final BehaviorTree<EnemyBrain> tree;
+
+    // Caminho atual (x, y, z) e o pedido em andamento
+    private final PathService paths;
+    private PathRequest pendingPath;
+    private final FloatArray path = new FloatArray();
+    private int waypoint;
+    private float pathGoalX, pathGoalZ;
+    private long pathTick = Long.MIN_VALUE / 2;
+
+    // Agenda do AiScheduler
+    long nextTick;
+    long tick;
+    long attackReadyTick;
+
+    public EnemyBrain(EntityStore store, int entity, int targetEntity, PathService paths) {
+        this.store = store;
+        this.entity = entity;
+        this.paths = paths;
+        self = new EntitySteerable(store, entity);
+        target = new EntitySteerable(store, targetEntity);
+        chase = new Arrive<>(self, target)
+            .setArrivalTolerance(ATTACK_RANGE * 0.8f)
+            .setDecelerationRadius(3f)
+            .setTimeToTarget(0.1f);
+
+        // addChild em vez dos construtores varargs, que geram avisos unchecked com tipo genérico
+        Sequence<EnemyBrain> attack = new Sequence<>();
+        attack.addChild(new TargetInRange(ATTACK_RANGE));
+        attack.addChild(new AttackTarget());
+        Sequence<EnemyBrain> pursue = new Sequence<>();
+        pursue.addChild(new TargetInRange(AGGRO_RANGE));
+        pursue.addChild(new ChaseTarget());
+        Selector<EnemyBrain> root = new Selector<>();
+        root.addChild(attack);
+        root.addChild(pursue);
+        root.addChild(new Idle());
+        tree = new BehaviorTree<>(root, this);
+    }
+
+    /** Uma decisão: atualiza a visão do mundo e dá um passo na árvore. */
+    public void think(long tick) {
+        this.tick = tick;
+        self.sync();
+        target.sync();
+        tree.step();
+    }
+
+    public int getEntity() {
+        return entity;
+    }
+
+    /** Chamado pelo EntityStore quando a entidade muda de índice (remoção por swap). */
+    public void setEntity(int entity) {
+        this.entity = entity;
+        self.entity = entity;
+    }
+
+    float distanceToTarget2() {
+        return self.getPosition().dst2(target.getPosition());
+    }
+
+    /** Devolve o pedido de caminho pendente; chamado quando a entidade sai do mundo. */
+    public void release() {
+        if (pendingPath != null) {
+            paths.free(pendingPath);
+            pendingPath = null;
+        }
+    }
+
+    // --- Caminho ---
+
+    void updatePath() {
+        if (paths == null) return;
+        if (pendingPath != null) {
+            if (!paths.isReady(pendingPath, tick)) return;
+            // Sem caminho novo o knight segue o atual, que ainda leva para perto do alvo
+            int status = pendingPath.getStatus();
+            if (status == PathRequest.FOUND) {
+                path.clear();
+                path.addAll(pendingPath.points);
+                waypoint = 1; // o primeiro ponto é a célula onde o knight estava
+            } else if (status == PathRequest.REJECTED) {
+                pathTick = tick - REPATH_TICKS + REJECTED_RETRY_TICKS;
+            }
+            paths.free(pendingPath);
+            pendingPath = null;
+        }
+
+        Vector3 goal = target.getPosition();
+        float dx = goal.x - pathGoalX, dz = goal.z - pathGoalZ;
+        if (tick - pathTick >= REPATH_TICKS || dx * dx + dz * dz > REPATH_DISTANCE * REPATH_DISTANCE) {
+            Vector3 from = self.getPosition();
+            pendingPath = paths.request(from.x, from.z, goal.x, goal.z, tick);
+            pathGoalX = goal.x;
+            pathGoalZ = goal.z;
+            pathTick = tick;
+        }
+    }
+
+    /** Anda para o próximo waypoint; false quando não há caminho (ou ele acabou). */
+    boolean followPath() {
+        int count = path.size / 3;
+        Vector3 position = self.getPosition();
+        while (waypoint < count) {
+            float dx = path.get(waypoint * 3) - position.x;
+            float dz = path.get(waypoint * 3 + 2) - position.z;
+            if (dx * dx + dz * dz > WAYPOINT_RADIUS * WAYPOINT_RADIUS) {
+                face(dx, dz);
+                walk();
+                return true;
+            }
+            waypoint++;
+        }
+        return false;
+    }
+
+    // --- Saídas (input da entidade) ---
+
+    void face(float dx, float dz) {
+        float len = (float) Math.sqrt(dx * dx + dz * dz);
+        if (len > 0.0001f) {
+            store.forwardX[entity] = dx / len;
+            store.forwardZ[entity] = dz / len;
+        }
+    }
+
+    void faceTarget() {
+        Vector3 from = self.getPosition();
+        Vector3 to = target.getPosition();
+        face(to.x - from.x, to.z - from.z);
+    }
+
+    void walk() {
+        store.buttons[entity] |= EntityStore.IN_FORWARD;
+    }
+
+    void stop() {
+        store.buttons[entity] &= ~(EntityStore.IN_FORWARD | EntityStore.IN_BACK | EntityStore.IN_LEFT | EntityStore.IN_RIGHT);
+    }
+
+    void attack() {
+        store.buttons[entity] |= EntityStore.IN_ATTACK;
+    }
+}
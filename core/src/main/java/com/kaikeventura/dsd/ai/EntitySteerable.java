@@ -0,0 +1,144 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.ai.utils.Location;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+/**
+ * Visão de uma entidade do {@link EntityStore} como {@link Steerable} do gdx-ai.
+ * Posição e velocidade são copiadas dos arrays em {@link #sync()}, antes de cada cálculo de steering.
+ */
+public class EntitySteerable implements Steerable<Vector3> {
+
+    private final EntityStore store;
+    int entity;
+
+    private final Vector3 position = new Vector3();
+    private final Vector3 linearVelocity = new Vector3();
+    private boolean tagged;
+
+    // Limites (m/s, m/s²) no mesmo espírito do PlayerController
+    private float maxLinearSpeed = 5f;
+    private float maxLinearAcceleration = 20f;
+    private float maxAngularSpeed = 10f;
+    private float maxAngularAcceleration = 20f;
+    private float zeroLinearSpeedThreshold = 0.01f;
+
+    public EntitySteerable(EntityStore store, int entity) {
+        this.store = store;
+        this.entity = entity;
+    }
+
+    public void sync() {
+        int i = entity;
+        position.set(store.posX[i], store.posY[i], store.posZ[i]);
+        linearVelocity.set(store.velX[i], store.velY[i], store.velZ[i]);
+    }
+
+    @Override
+    public Vector3 getPosition() {
+        return position;
+    }
+
+    @Override
+    public float getOrientation() {
+        return store.yaw[entity] * MathUtils.degreesToRadians;
+    }
+
+    @Override
+    public void setOrientation(float orientation) {
+        // A orientação é do corpo rígido; o steering só a lê
+    }
+
+    @Override
+    public float vectorToAngle(Vector3 vector) {
+        return (float) Math.atan2(-vector.x, vector.z);
+    }
+
+    @Override
+    public Vector3 angleToVector(Vector3 outVector, float angle) {
+        return outVector.set(-MathUtils.sin(angle), 0f, MathUtils.cos(angle));
+    }
+
+    @Override
+    public Location<Vector3> newLocation() {
+        return new EntitySteerable(store, entity);
+    }
+
+    @Override
+    public Vector3 getLinearVelocity() {
+        return linearVelocity;
+    }
+
+    @Override
+    public float getAngularVelocity() {
+        return 0f;
+    }
+
+    @Override
+    public float getBoundingRadius() {
+        return 0.5f; // raio da cápsula
+    }
+
+    @Override
+    public boolean isTagged() {
+        return tagged;
+    }
+
+    @Override
+    public void setTagged(boolean tagged) {
+        this.tagged = tagged;
+    }
+
+    @Override
+    public float getZeroLinearSpeedThreshold() {
+        return zeroLinearSpeedThreshold;
+    }
+
+    @Override
+    public void setZeroLinearSpeedThreshold(float value) {
+        zeroLinearSpeedThreshold = value;
+    }
+
+    @Override
+    public float getMaxLinearSpeed() {
+        return maxLinearSpeed;
+    }
+
+    @Override
+    public void setMaxLinearSpeed(float maxLinearSpeed) {
+        this.maxLinearSpeed = maxLinearSpeed;
+    }
+
+    @Override
+    public float getMaxLinearAcceleration() {
+        return maxLinearAcceleration;
+    }
+
+    @Override
+    public void setMaxLinearAcceleration(float maxLinearAcceleration) {
+        this.maxLinearAcceleration = maxLinearAcceleration;
+    }
+
+    @Override
+    public float getMaxAngularSpeed() {
+        return maxAngularSpeed;
+    }
+
+    @Override
+    public void setMaxAngularSpeed(float maxAngularSpeed) {
+        this.maxAngularSpeed = maxAngularSpeed;
+    }
+
+    @Override
+    public float getMaxAngularAcceleration() {
+        return maxAngularAcceleration;
+    }
+
+    @Override
+    public void setMaxAngularAcceleration(float maxAngularAcceleration) {
+        this.maxAngularAcceleration = maxAngularAcceleration;
+    }
+}
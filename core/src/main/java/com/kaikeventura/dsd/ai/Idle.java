@@ -0,0 +1,19 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+
+/** Fica parado. */
+public class Idle extends LeafTask<EnemyBrain> {
+
+    @Override
+    public Status execute() {
+        getObject().stop();
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<EnemyBrain> copyTo(Task<EnemyBrain> task) {
+        return task;
+    }
+}
@@ -0,0 +1,30 @@
+package com.kaikeventura.dsd.ai;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+
+/** Condição: o alvo está a no máximo {@code range} metros. */
+public class TargetInRange extends LeafTask<EnemyBrain> {
+
+    @TaskAttribute(required = true)
+    public float range;
+
+    public TargetInRange() {
+    }
+
+    public TargetInRange(float range) {
+        this.range = range;
+    }
+
+    @Override
+    public Status execute() {
+        return getObject().distanceToTarget2() <= range * range ? Status.SUCCEEDED : Status.FAILED;
+    }
+
+    @Override
+    protected Task<EnemyBrain> copyTo(Task<EnemyBrain> task) {
+        ((TargetInRange) task).range = range;
+        return task;
+    }
+}
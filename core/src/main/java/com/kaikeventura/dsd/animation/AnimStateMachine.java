@@ -0,0 +1,235 @@
+package com.kaikeventura.dsd.animation;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Máquina de estados de animação compilada em tabelas indexadas por int.
+ * <p>
+ * A {@link Definition} descreve estados (clip, loop ou uma vez, se pode ser interrompido) e
+ * transições (condição sobre bits de sinal, tempo de blend, prioridade pela ordem de declaração).
+ * {@link Definition#compile(PackedClips)} resolve tudo de antemão para cada combinação de estado e
+ * sinais: em runtime escolher a transição é um acesso a array, sem comparar strings nem registrar
+ * listeners. A máquina é imutável e compartilhada por todos os personagens dos mesmos clips; o
+ * estado de cada um é só o índice e o tempo no estado.
+ */
+public final class AnimStateMachine {
+
+    // Sinais: os cinco primeiros são os mesmos bits dos botões do EntityStore
+    public static final int SIG_FORWARD = 1;
+    public static final int SIG_BACK = 1 << 1;
+    public static final int SIG_LEFT = 1 << 2;
+    public static final int SIG_RIGHT = 1 << 3;
+    public static final int SIG_JUMP_HELD = 1 << 4;
+    public static final int SIG_ATTACKING = 1 << 5;
+    public static final int SIG_GROUNDED = 1 << 6;
+    public static final int SIG_CLIP_DONE = 1 << 7; // clip de uma vez chegou ao fim
+
+    public static final int BUTTON_SIGNALS = SIG_FORWARD | SIG_BACK | SIG_LEFT | SIG_RIGHT | SIG_JUMP_HELD;
+    public static final int SIGNAL_COUNT = 1 << 8;
+
+    /** Origem de transição que vale para qualquer estado (e para quem ainda não tem estado). */
+    public static final int ANY_STATE = -1;
+
+    public static final int LOOP = -1;
+    public static final int ONCE = 1;
+
+    private final String[] names;
+    private final String[] clipIds;
+    private final int[] clips;
+    private final int[] loopCounts;
+    private final float[] durations;
+
+    // Transição escolhida por (linha do estado * SIGNAL_COUNT + sinais); -1 = fica onde está.
+    // A última linha é a de quem ainda não tem estado (-1).
+    private final short[] next;
+    private final int[] transitionTargets;
+    private final float[] transitionBlends;
+
+    private AnimStateMachine(String[] names, String[] clipIds, int[] clips, int[] loopCounts, float[] durations,
+                             short[] next, int[] transitionTargets, float[] transitionBlends) {
+        this.names = names;
+        this.clipIds = clipIds;
+        this.clips = clips;
+        this.loopCounts = loopCounts;
+        this.durations = durations;
+        this.next = next;
+        this.transitionTargets = transitionTargets;
+        this.transitionBlends = transitionBlends;
+    }
+
+    public int stateCount() {
+        return names.length;
+    }
+
+    /**
+     * Transição a tomar a partir de {@code state} (-1 = nenhum) com {@code signals}, ou -1 para
+     * continuar no estado atual.
+     */
+    public int transition(int state, int signals) {
+        int row = state < 0 ? names.length : state;
+        return next[row * SIGNAL_COUNT + (signals & (SIGNAL_COUNT - 1))];
+    }
+
+    public int target(int transition) {
+        return transitionTargets[transition];
+    }
+
+    public float blendTime(int transition) {
+        return transitionBlends[transition];
+    }
+
+    public String clipId(int state) {
+        return clipIds[state];
+    }
+
+    /** Índice do clip do estado nos {@link PackedClips} compilados (-1 se não existir). */
+    public int clip(int state) {
+        return clips[state];
+    }
+
+    public int loopCount(int state) {
+        return loopCounts[state];
+    }
+
+    /** Duração do clip (0 se ele não existir). */
+    public float duration(int state) {
+        return durations[state];
+    }
+
+    /** True se {@code time} segundos no estado já tocaram um clip de uma vez até o fim. */
+    public boolean isDone(int state, float time) {
+        return state >= 0 && loopCounts[state] != LOOP && time >= durations[state];
+    }
+
+    public String stateName(int state) {
+        return state < 0 ? "none" : names[state];
+    }
+
+    /** Descrição declarativa; só é usada para compilar. */
+    public static class Definition {
+        private final Array<StateDef> states = new Array<>();
+        private final Array<TransitionDef> transitions = new Array<>();
+
+        /**
+         * Declara um estado e devolve o índice dele.
+         *
+         * @param loopCount   {@link #LOOP} ou {@link #ONCE}
+         * @param interruptible false: nenhuma transição sai do estado antes do clip acabar
+         */
+        public int state(String name, String clipId, int loopCount, boolean interruptible) {
+            for (StateDef state : states) {
+                if (state.name.equals(name)) {
+                    throw new GdxRuntimeException("Estado de animação repetido: " + name);
+                }
+            }
+            states.add(new StateDef(name, clipId, loopCount, interruptible));
+            return states.size - 1;
+        }
+
+        /**
+         * Transição de {@code from} ({@link #ANY_STATE} para todos) para {@code to} quando todos os
+         * bits de {@code allOf} estão ligados e nenhum de {@code noneOf}. A primeira declarada que
+         * bate ganha. Se ela levar ao próprio estado atual, o estado continua tocando, a menos que
+         * {@code restart} reinicie o clip.
+         */
+        public Definition transition(int from, int to, int allOf, int noneOf, float blendTime, boolean restart) {
+            if (from < ANY_STATE || from >= states.size || to < 0 || to >= states.size) {
+                throw new GdxRuntimeException("Transição de animação com estado inválido: " + from + " -> " + to);
+            }
+            transitions.add(new TransitionDef(from, to, allOf, noneOf, blendTime, restart));
+            return this;
+        }
+
+        public Definition transition(int from, int to, int allOf, int noneOf, float blendTime) {
+            return transition(from, to, allOf, noneOf, blendTime, false);
+        }
+
+        /** Resolve as transições de cada estado para todas as combinações de sinais. */
+        public AnimStateMachine compile(PackedClips packed) {
+            int stateCount = states.size;
+            if (transitions.size > Short.MAX_VALUE) {
+                throw new GdxRuntimeException("Transições de animação demais: " + transitions.size);
+            }
+            String[] names = new String[stateCount];
+            String[] clipIds = new String[stateCount];
+            int[] clips = new int[stateCount];
+            int[] loopCounts = new int[stateCount];
+            float[] durations = new float[stateCount];
+            for (int s = 0; s < stateCount; s++) {
+                StateDef state = states.get(s);
+                names[s] = state.name;
+                clipIds[s] = state.clipId;
+                loopCounts[s] = state.loopCount;
+                clips[s] = packed.indexOf(state.clipId);
+                if (clips[s] < 0) {
+                    System.err.println("Clip de animação não encontrado: " + state.clipId);
+                } else {
+                    durations[s] = packed.clips[clips[s]].duration;
+                }
+            }
+
+            int[] targets = new int[transitions.size];
+            float[] blends = new float[transitions.size];
+            for (int t = 0; t < transitions.size; t++) {
+                targets[t] = transitions.get(t).to;
+                blends[t] = transitions.get(t).blendTime;
+            }
+
+            short[] next = new short[(stateCount + 1) * SIGNAL_COUNT];
+            for (int row = 0; row <= stateCount; row++) {
+                int current = row < stateCount ? row : -1;
+                for (int signals = 0; signals < SIGNAL_COUNT; signals++) {
+                    next[row * SIGNAL_COUNT + signals] = (short) resolve(current, signals);
+                }
+            }
+            return new AnimStateMachine(names, clipIds, clips, loopCounts, durations, next, targets, blends);
+        }
+
+        private int resolve(int current, int signals) {
+            if (current >= 0 && !states.get(current).interruptible && (signals & SIG_CLIP_DONE) == 0) {
+                return -1;
+            }
+            for (int t = 0; t < transitions.size; t++) {
+                TransitionDef transition = transitions.get(t);
+                if (transition.from != ANY_STATE && transition.from != current) continue;
+                if ((signals & transition.allOf) != transition.allOf || (signals & transition.noneOf) != 0) continue;
+                if (transition.to == current && !transition.restart) return -1;
+                return t;
+            }
+            return -1;
+        }
+    }
+
+    private static class StateDef {
+        final String name;
+        final String clipId;
+        final int loopCount;
+        final boolean interruptible;
+
+        StateDef(String name, String clipId, int loopCount, boolean interruptible) {
+            this.name = name;
+            this.clipId = clipId;
+            this.loopCount = loopCount;
+            this.interruptible = interruptible;
+        }
+    }
+
+    private static class TransitionDef {
+        final int from;
+        final int to;
+        final int allOf;
+        final int noneOf;
+        final float blendTime;
+        final boolean restart;
+
+        TransitionDef(int from, int to, int allOf, int noneOf, float blendTime, boolean restart) {
+            this.from = from;
+            this.to = to;
+            this.allOf = allOf;
+            this.noneOf = noneOf;
+            this.blendTime = blendTime;
+            this.restart = restart;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.kaikeventura.dsd.animation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cache em disco dos clips do knight já retargetados e empacotados ({@link PackedClips}).
+ * <p>
+ * O arquivo guarda os arrays primitivos de cada clip (canais, faixas, tempos e valores) como estão
+ * na memória, então a leitura não abre os GLBs de animação nem cria um objeto por keyframe: o
+ * arquivo é mapeado e cada array sai dele numa cópia em bloco (pode rodar fora da thread GL). Os
+ * ossos vão por id, para conferir contra o esqueleto do modelo.
+ */
+public final class BakedClipCache {
+
+    private static final int MAGIC = 0x44534441; // "DSDA"
+    // Incrementar sempre que o layout do arquivo mudar
+    private static final int VERSION = 2;
+
+    private BakedClipCache() {
+    }
+
+    /** Lista os nós em ordem depth-first; é a numeração usada como índice de osso. */
+    public static Array<Node> flattenNodes(Iterable<Node> nodes, Array<Node> out) {
+        for (Node node : nodes) {
+            out.add(node);
+            flattenNodes(node.getChildren(), out);
+        }
+        return out;
+    }
+
+    /**
+     * Lê o cache via {@link FileChannel#map}. Retorna null se o arquivo não existir ou tiver sido
+     * gerado a partir de outros arquivos fonte ({@code sourceStamp} diferente).
+     */
+    public static PackedClips read(FileHandle file, long sourceStamp) {
+        if (!file.exists()) return null;
+
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != sourceStamp) {
+                return null;
+            }
+
+            String[] boneIds = new String[in.getInt()];
+            for (int i = 0; i < boneIds.length; i++) {
+                boneIds[i] = readString(in);
+            }
+
+            PackedClips.Clip[] clips = new PackedClips.Clip[in.getInt()];
+            for (int c = 0; c < clips.length; c++) {
+                String id = readString(in);
+                float duration = in.getFloat();
+                int[] channels = readInts(in);
+                float[] ranges = readFloats(in);
+                short[] times = readShorts(in);
+                short[] values = readShorts(in);
+                if (!valid(channels, ranges, times, values, boneIds.length)) return null;
+                clips[c] = new PackedClips.Clip(id, duration, channels, ranges, times, values);
+            }
+            return new PackedClips(boneIds, clips);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cache de animações inválido, recriando: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Grava {@code clips}. Escreve num arquivo temporário e renomeia, para nunca deixar um cache
+     * pela metade.
+     */
+    public static void write(FileHandle file, long sourceStamp, PackedClips clips) {
+        int size = 4 + 4 + 8 + 4 + 4;
+        for (String bone : clips.boneIds) size += stringSize(bone);
+        for (PackedClips.Clip clip : clips.clips) {
+            size += stringSize(clip.id) + 4 + 4 * 4 + clip.sizeInBytes();
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putLong(sourceStamp);
+
+        out.putInt(clips.boneIds.length);
+        for (String bone : clips.boneIds) writeString(out, bone);
+
+        out.putInt(clips.clips.length);
+        for (PackedClips.Clip clip : clips.clips) {
+            writeString(out, clip.id);
+            out.putFloat(clip.duration);
+            out.putInt(clip.channels.length);
+            out.asIntBuffer().put(clip.channels);
+            out.position(out.position() + clip.channels.length * 4);
+            out.putInt(clip.ranges.length);
+            out.asFloatBuffer().put(clip.ranges);
+            out.position(out.position() + clip.ranges.length * 4);
+            writeShorts(out, clip.times);
+            writeShorts(out, clip.values);
+        }
+        out.flip();
+
+        File target = file.file().getAbsoluteFile();
+        File parent = target.getParentFile();
+        parent.mkdirs();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(parent.toPath(), target.getName() + ".", ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (out.hasRemaining()) channel.write(out);
+            }
+            Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (tmp != null) tmp.toFile().delete();
+            throw new GdxRuntimeException("Erro ao gravar cache de animações: " + target, e);
+        }
+    }
+
+    // Índices dos canais dentro dos arrays: um cache corrompido não pode estourar o animator depois
+    private static boolean valid(int[] channels, float[] ranges, short[] times, short[] values, int bones) {
+        if (channels.length % PackedClips.CH_STRIDE != 0) return false;
+        int count = channels.length / PackedClips.CH_STRIDE;
+        if (ranges.length != count * 6) return false;
+        for (int ch = 0; ch < channels.length; ch += PackedClips.CH_STRIDE) {
+            int bone = channels[ch + PackedClips.CH_BONE];
+            int type = channels[ch + PackedClips.CH_TYPE];
+            int keyStart = channels[ch + PackedClips.CH_KEY_START];
+            int keyCount = channels[ch + PackedClips.CH_KEY_COUNT];
+            int valueStart = channels[ch + PackedClips.CH_VALUE_START];
+            int stride = type == PackedClips.ROTATION ? 4 : 3;
+            if (bone < 0 || bone >= bones || type < PackedClips.TRANSLATION || type > PackedClips.SCALING) return false;
+            if (keyCount <= 0 || keyStart < 0 || keyStart > times.length - keyCount) return false;
+            if (valueStart < 0 || valueStart > values.length - keyCount * stride) return false;
+        }
+        return true;
+    }
+
+    private static int stringSize(String s) {
+        return 2 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeShorts(ByteBuffer out, short[] values) {
+        out.putInt(values.length);
+        out.asShortBuffer().put(values);
+        out.position(out.position() + values.length * 2);
+    }
+
+    private static int[] readInts(ByteBuffer in) {
+        int[] values = new int[length(in, 4)];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * 4);
+        return values;
+    }
+
+    private static float[] readFloats(ByteBuffer in) {
+        float[] values = new float[length(in, 4)];
+        in.asFloatBuffer().get(values);
+        in.position(in.position() + values.length * 4);
+        return values;
+    }
+
+    private static short[] readShorts(ByteBuffer in) {
+        short[] values = new short[length(in, 2)];
+        in.asShortBuffer().get(values);
+        in.position(in.position() + values.length * 2);
+        return values;
+    }
+
+    // Tamanho de um array, conferido contra o que resta do arquivo antes de alocar
+    private static int length(ByteBuffer in, int elementBytes) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / elementBytes) {
+            throw new IllegalArgumentException("Array de " + length + " elementos além do fim do arquivo");
+        }
+        return length;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kaikeventura.dsd.animation;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Duas poses locais (translação, rotação, escala de cada nó) de uma instância, para interpolar
+ * entre amostras quando a animação roda a uma fração da taxa de ticks.
+ * <p>
+ * Interpolar evita o "stop motion" de quem está longe, mas ainda paga o
+ * {@code calculateTransforms} da instância; só a busca de keyframes e o blend do controller são
+ * economizados.
+ */
+public class NodePose {
+
+    private static final int STRIDE = 10; // tx ty tz, rx ry rz rw, sx sy sz
+
+    private final ModelInstance instance;
+    private final Node[] nodes;
+    private float[] from;
+    private float[] to;
+
+    /** False até a primeira amostra, ou depois de voltar à taxa cheia. */
+    public boolean valid;
+
+    private final Quaternion tmpFrom = new Quaternion();
+    private final Quaternion tmpTo = new Quaternion();
+
+    public NodePose(ModelInstance instance) {
+        this.instance = instance;
+        nodes = BakedClipCache.flattenNodes(instance.nodes, new Array<Node>()).toArray(Node[]::new);
+        from = new float[nodes.length * STRIDE];
+        to = new float[nodes.length * STRIDE];
+    }
+
+    /** A pose de destino vira a de origem e a pose atual dos nós vira o novo destino. */
+    public void shift() {
+        float[] swap = from;
+        from = to;
+        to = swap;
+        float[] pose = to;
+        for (int n = 0, p = 0; n < nodes.length; n++, p += STRIDE) {
+            Node node = nodes[n];
+            pose[p] = node.translation.x;
+            pose[p + 1] = node.translation.y;
+            pose[p + 2] = node.translation.z;
+            pose[p + 3] = node.rotation.x;
+            pose[p + 4] = node.rotation.y;
+            pose[p + 5] = node.rotation.z;
+            pose[p + 6] = node.rotation.w;
+            pose[p + 7] = node.scale.x;
+            pose[p + 8] = node.scale.y;
+            pose[p + 9] = node.scale.z;
+        }
+    }
+
+    /** Aplica a pose entre origem (0) e destino (1) nos nós e recalcula os transforms. */
+    public void apply(float alpha) {
+        float[] a = from, b = to;
+        for (int n = 0, p = 0; n < nodes.length; n++, p += STRIDE) {
+            Node node = nodes[n];
+            node.translation.set(
+                a[p] + (b[p] - a[p]) * alpha,
+                a[p + 1] + (b[p + 1] - a[p + 1]) * alpha,
+                a[p + 2] + (b[p + 2] - a[p + 2]) * alpha);
+            tmpFrom.set(a[p + 3], a[p + 4], a[p + 5], a[p + 6]);
+            tmpTo.set(b[p + 3], b[p + 4], b[p + 5], b[p + 6]);
+            node.rotation.set(tmpFrom).slerp(tmpTo, alpha);
+            node.scale.set(
+                a[p + 7] + (b[p + 7] - a[p + 7]) * alpha,
+                a[p + 8] + (b[p + 8] - a[p + 8]) * alpha,
+                a[p + 9] + (b[p + 9] - a[p + 9]) * alpha);
+        }
+        instance.calculateTransforms();
+    }
+}
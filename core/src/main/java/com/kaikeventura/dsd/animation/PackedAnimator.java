@@ -0,0 +1,230 @@
+package com.kaikeventura.dsd.animation;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Toca os {@link PackedClips} compartilhados numa instância, com crossfade entre o clip anterior e
+ * o atual. Substitui o {@code AnimationController}: nada é alocado por tick e a busca do keyframe é
+ * um cursor por canal que só anda para frente (volta ao início quando o clip dá a volta).
+ * <p>
+ * Ossos que o clip não anima ficam na pose de repouso do modelo.
+ */
+public class PackedAnimator {
+
+    private static final int STRIDE = 10; // tx ty tz, rx ry rz rw, sx sy sz
+
+    public final ModelInstance instance;
+    private final PackedClips clips;
+    private final Node[] nodes;
+    private final float[] rest;
+    private final float[] pose;
+    private final float[] fromPose;
+
+    // Clip atual e o anterior (durante o crossfade)
+    private final Layer current;
+    private final Layer previous;
+    private float blendTime;
+    private float blendElapsed;
+
+    private static final class Layer {
+        int clip = -1;
+        int loopCount;
+        float time;
+        final int[] cursors;
+
+        Layer(int channels) {
+            cursors = new int[channels];
+        }
+
+        void copyFrom(Layer other) {
+            clip = other.clip;
+            loopCount = other.loopCount;
+            time = other.time;
+            System.arraycopy(other.cursors, 0, cursors, 0, cursors.length);
+        }
+    }
+
+    public PackedAnimator(ModelInstance instance, PackedClips clips) {
+        this.instance = instance;
+        this.clips = clips;
+        Array<Node> list = BakedClipCache.flattenNodes(instance.nodes, new Array<>());
+        if (list.size != clips.boneIds.length) {
+            throw new GdxRuntimeException("Esqueleto da instância não bate com os clips (" + list.size + " nós, " + clips.boneIds.length + " ossos)");
+        }
+        nodes = list.toArray(Node[]::new);
+        rest = new float[nodes.length * STRIDE];
+        pose = new float[nodes.length * STRIDE];
+        fromPose = new float[nodes.length * STRIDE];
+        for (int n = 0, p = 0; n < nodes.length; n++, p += STRIDE) {
+            Node node = nodes[n];
+            rest[p] = node.translation.x;
+            rest[p + 1] = node.translation.y;
+            rest[p + 2] = node.translation.z;
+            rest[p + 3] = node.rotation.x;
+            rest[p + 4] = node.rotation.y;
+            rest[p + 5] = node.rotation.z;
+            rest[p + 6] = node.rotation.w;
+            rest[p + 7] = node.scale.x;
+            rest[p + 8] = node.scale.y;
+            rest[p + 9] = node.scale.z;
+        }
+        current = new Layer(clips.maxChannels);
+        previous = new Layer(clips.maxChannels);
+    }
+
+    /** Nó da instância para o osso {@code bone} (numeração dos {@link PackedClips}). */
+    public Node node(int bone) {
+        return nodes[bone];
+    }
+
+    public int currentClip() {
+        return current.clip;
+    }
+
+    public float currentTime() {
+        return current.time;
+    }
+
+    /**
+     * Troca para {@code clip} do início, misturando a partir da pose atual por {@code transitionTime}
+     * segundos. {@code loopCount} -1 repete para sempre; 1 toca uma vez e para no último frame.
+     */
+    public void animate(int clip, int loopCount, float transitionTime) {
+        if (clip < 0) return;
+        if (current.clip >= 0 && transitionTime > 0f) {
+            previous.copyFrom(current);
+            blendTime = transitionTime;
+            blendElapsed = 0f;
+        } else {
+            previous.clip = -1;
+        }
+        current.clip = clip;
+        current.loopCount = loopCount;
+        current.time = 0f;
+        for (int c = 0; c < current.cursors.length; c++) current.cursors[c] = 0;
+    }
+
+    /** Avança {@code delta} segundos e aplica a pose nos nós da instância. */
+    public void update(float delta) {
+        if (current.clip < 0) return;
+        advance(current, delta);
+        sample(current, pose);
+
+        if (previous.clip >= 0) {
+            blendElapsed += delta;
+            if (blendElapsed >= blendTime) {
+                previous.clip = -1;
+            } else {
+                advance(previous, delta);
+                sample(previous, fromPose);
+                blend(fromPose, pose, blendElapsed / blendTime);
+            }
+        }
+        apply(pose);
+    }
+
+    private void advance(Layer layer, float delta) {
+        float duration = clips.clips[layer.clip].duration;
+        layer.time += delta;
+        if (layer.time < duration) return;
+        if (layer.loopCount < 0 && duration > 0f) {
+            layer.time %= duration;
+            // Deu a volta: os cursores recomeçam
+            for (int c = 0; c < layer.cursors.length; c++) layer.cursors[c] = 0;
+        } else {
+            layer.time = duration;
+        }
+    }
+
+    private void sample(Layer layer, float[] out) {
+        System.arraycopy(rest, 0, out, 0, rest.length);
+        PackedClips.Clip clip = clips.clips[layer.clip];
+        int[] channels = clip.channels;
+        short[] times = clip.times;
+        short[] values = clip.values;
+        int[] cursors = layer.cursors;
+        float t = clip.duration > 0f ? layer.time / clip.duration * PackedClips.TIME_STEPS : 0f;
+
+        for (int c = 0, ch = 0; ch < channels.length; c++, ch += PackedClips.CH_STRIDE) {
+            int keyStart = channels[ch + PackedClips.CH_KEY_START];
+            int keyCount = channels[ch + PackedClips.CH_KEY_COUNT];
+            int type = channels[ch + PackedClips.CH_TYPE];
+            int stride = type == PackedClips.ROTATION ? 4 : 3;
+
+            // Cursor: último keyframe com tempo <= t
+            int k = cursors[c];
+            if (k >= keyCount || (times[keyStart + k] & 0xFFFF) > t) k = 0;
+            while (k + 1 < keyCount && (times[keyStart + k + 1] & 0xFFFF) <= t) k++;
+            cursors[c] = k;
+
+            int a = channels[ch + PackedClips.CH_VALUE_START] + k * stride;
+            int b = a;
+            float alpha = 0f;
+            if (k + 1 < keyCount) {
+                float ta = times[keyStart + k] & 0xFFFF;
+                float tb = times[keyStart + k + 1] & 0xFFFF;
+                alpha = tb > ta ? (t - ta) / (tb - ta) : 0f;
+                b = a + stride;
+            }
+
+            int p = channels[ch + PackedClips.CH_BONE] * STRIDE;
+            if (type == PackedClips.ROTATION) {
+                float x = lerp(values[a], values[b], alpha);
+                float y = lerp(values[a + 1], values[b + 1], alpha);
+                float z = lerp(values[a + 2], values[b + 2], alpha);
+                float w = lerp(values[a + 3], values[b + 3], alpha);
+                float len = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+                float inv = len > 0f ? 1f / len : 0f;
+                out[p + 3] = x * inv;
+                out[p + 4] = y * inv;
+                out[p + 5] = z * inv;
+                out[p + 6] = w * inv;
+            } else {
+                int r = c * 6;
+                float[] ranges = clip.ranges;
+                int o = type == PackedClips.TRANSLATION ? p : p + 7;
+                for (int axis = 0; axis < 3; axis++) {
+                    float q = lerp(values[a + axis] & 0xFFFF, values[b + axis] & 0xFFFF, alpha);
+                    out[o + axis] = ranges[r + axis] + q * ranges[r + 3 + axis];
+                }
+            }
+        }
+    }
+
+    private static float lerp(float a, float b, float alpha) {
+        return a + (b - a) * alpha;
+    }
+
+    // Crossfade: to = lerp(from, to); rotação por nlerp no hemisfério mais curto
+    private static void blend(float[] from, float[] to, float alpha) {
+        for (int p = 0; p < to.length; p += STRIDE) {
+            for (int i = 0; i < 3; i++) to[p + i] = lerp(from[p + i], to[p + i], alpha);
+            for (int i = 7; i < 10; i++) to[p + i] = lerp(from[p + i], to[p + i], alpha);
+            float dot = from[p + 3] * to[p + 3] + from[p + 4] * to[p + 4] + from[p + 5] * to[p + 5] + from[p + 6] * to[p + 6];
+            float sign = dot < 0f ? -1f : 1f;
+            float x = lerp(from[p + 3] * sign, to[p + 3], alpha);
+            float y = lerp(from[p + 4] * sign, to[p + 4], alpha);
+            float z = lerp(from[p + 5] * sign, to[p + 5], alpha);
+            float w = lerp(from[p + 6] * sign, to[p + 6], alpha);
+            float len = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+            float inv = len > 0f ? 1f / len : 0f;
+            to[p + 3] = x * inv;
+            to[p + 4] = y * inv;
+            to[p + 5] = z * inv;
+            to[p + 6] = w * inv;
+        }
+    }
+
+    private void apply(float[] values) {
+        for (int n = 0, p = 0; n < nodes.length; n++, p += STRIDE) {
+            Node node = nodes[n];
+            node.translation.set(values[p], values[p + 1], values[p + 2]);
+            node.rotation.set(values[p + 3], values[p + 4], values[p + 5], values[p + 6]);
+            node.scale.set(values[p + 7], values[p + 8], values[p + 9]);
+        }
+        instance.calculateTransforms();
+    }
+}
@@ -0,0 +1,303 @@
+package com.kaikeventura.dsd.animation;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * Clips de um esqueleto empacotados em arrays primitivos, só leitura e compartilhados por todas as
+ * instâncias do modelo (cada uma toca com um {@link PackedAnimator}).
+ * <p>
+ * Cada canal (translação, rotação ou escala de um osso) é uma sequência de keyframes contíguos:
+ * tempo em 16 bits (fração da duração), translação e escala em 16 bits por eixo dentro da faixa do
+ * canal, rotação em 16 bits com sinal por componente. Keyframes que a interpolação linear dos
+ * vizinhos já reproduz dentro da tolerância são descartados. Os ossos são numerados pelos nós do
+ * modelo em depth-first ({@link BakedClipCache#flattenNodes}).
+ * <p>
+ * Empacotados uma vez por processo no {@code GameAssets} (ou lidos prontos do {@link BakedClipCache})
+ * e passados para cada mundo; as {@code Animation}s originais do modelo são descartadas em seguida.
+ */
+public final class PackedClips {
+
+    public static final int TRANSLATION = 0;
+    public static final int ROTATION = 1;
+    public static final int SCALING = 2;
+
+    // Tolerâncias padrão da redução de keyframes (unidades do modelo e componente de quaternion)
+    public static final float DEFAULT_POSITION_TOLERANCE = 0.0005f;
+    public static final float DEFAULT_ROTATION_TOLERANCE = 0.0005f;
+
+    // Layout de cada canal em Clip.channels
+    static final int CH_BONE = 0;
+    static final int CH_TYPE = 1;
+    static final int CH_KEY_START = 2;  // em Clip.times
+    static final int CH_KEY_COUNT = 3;
+    static final int CH_VALUE_START = 4; // em Clip.values
+    static final int CH_STRIDE = 5;
+
+    // Tempo e translação/escala em 0..65535, guardados em short (lidos com & 0xFFFF)
+    static final float TIME_STEPS = 65535f;
+    static final float VALUE_STEPS = 65535f;
+    static final float ROTATION_STEPS = 32767f;
+
+    public final String[] boneIds;
+    public final Clip[] clips;
+    /** Maior número de canais de um clip (tamanho dos cursores do animator). */
+    public final int maxChannels;
+
+    /** Um clip empacotado. */
+    public static final class Clip {
+        public final String id;
+        public final float duration;
+        final int[] channels;
+        // Por canal: mínimo (3) e passo de quantização (3) de translação/escala
+        final float[] ranges;
+        final short[] times;
+        final short[] values;
+
+        Clip(String id, float duration, int[] channels, float[] ranges, short[] times, short[] values) {
+            this.id = id;
+            this.duration = duration;
+            this.channels = channels;
+            this.ranges = ranges;
+            this.times = times;
+            this.values = values;
+        }
+
+        public int channelCount() {
+            return channels.length / CH_STRIDE;
+        }
+
+        /** Bytes dos arrays de keyframes e canais. */
+        public int sizeInBytes() {
+            return channels.length * 4 + ranges.length * 4 + times.length * 2 + values.length * 2;
+        }
+    }
+
+    PackedClips(String[] boneIds, Clip[] clips) {
+        this.boneIds = boneIds;
+        this.clips = clips;
+        int max = 0;
+        for (Clip clip : clips) max = Math.max(max, clip.channelCount());
+        maxChannels = max;
+    }
+
+    /** Índice do clip com esse id, ou -1. Só para montar tabelas, não para o loop do tick. */
+    public int indexOf(String id) {
+        for (int c = 0; c < clips.length; c++) {
+            if (clips[c].id.equals(id)) return c;
+        }
+        return -1;
+    }
+
+    /** Índice do primeiro osso encontrado entre {@code ids}, ou -1. Só para montar tabelas. */
+    public int boneIndex(String... ids) {
+        for (String id : ids) {
+            for (int b = 0; b < boneIds.length; b++) {
+                if (boneIds[b].equals(id)) return b;
+            }
+        }
+        return -1;
+    }
+
+    public int sizeInBytes() {
+        int size = 0;
+        for (Clip clip : clips) size += clip.sizeInBytes();
+        return size;
+    }
+
+    /** true se o esqueleto de {@code model} é o destes clips (mesmos nós na mesma ordem). */
+    public boolean matches(Model model) {
+        Array<Node> bones = BakedClipCache.flattenNodes(model.nodes, new Array<Node>());
+        if (bones.size != boneIds.length) return false;
+        for (int b = 0; b < bones.size; b++) {
+            if (!boneIds[b].equals(bones.get(b).id)) return false;
+        }
+        return true;
+    }
+
+    public static PackedClips pack(Model model) {
+        return pack(model, DEFAULT_POSITION_TOLERANCE, DEFAULT_ROTATION_TOLERANCE);
+    }
+
+    /**
+     * Empacota as animações de {@code model}. Tolerância 0 só remove keyframes repetidos; a
+     * quantização sozinha já erra até meio passo (faixa / 65535 em translação e escala).
+     */
+    public static PackedClips pack(Model model, float positionTolerance, float rotationTolerance) {
+        Array<Node> bones = BakedClipCache.flattenNodes(model.nodes, new Array<>());
+        String[] boneIds = new String[bones.size];
+        for (int b = 0; b < bones.size; b++) boneIds[b] = bones.get(b).id;
+
+        Clip[] clips = new Clip[model.animations.size];
+        IntArray channels = new IntArray();
+        FloatArray ranges = new FloatArray();
+        ShortArray times = new ShortArray();
+        ShortArray values = new ShortArray();
+        FloatArray keyTimes = new FloatArray();
+        FloatArray keyValues = new FloatArray();
+        IntArray keep = new IntArray();
+
+        for (int c = 0; c < clips.length; c++) {
+            Animation anim = model.animations.get(c);
+            channels.clear();
+            ranges.clear();
+            times.clear();
+            values.clear();
+            float duration = Math.max(anim.duration, 1e-6f);
+
+            for (NodeAnimation nodeAnim : anim.nodeAnimations) {
+                int bone = bones.indexOf(nodeAnim.node, true);
+                if (bone < 0) {
+                    throw new GdxRuntimeException("Nó '" + nodeAnim.node.id + "' da animação " + anim.id + " não pertence ao modelo");
+                }
+                for (int type = TRANSLATION; type <= SCALING; type++) {
+                    int stride = type == ROTATION ? 4 : 3;
+                    if (!readKeys(nodeAnim, type, keyTimes, keyValues)) continue;
+                    float tolerance = type == ROTATION ? rotationTolerance : positionTolerance;
+                    reduce(keyTimes, keyValues, stride, type == ROTATION, tolerance, keep);
+
+                    channels.add(bone);
+                    channels.add(type);
+                    channels.add(times.size);
+                    channels.add(keep.size);
+                    channels.add(values.size);
+                    if (type == ROTATION) {
+                        ranges.addAll(0f, 0f, 0f, 0f, 0f, 0f);
+                    } else {
+                        addRange(keyValues, keep, ranges);
+                    }
+                    int range = ranges.size - 6;
+                    for (int k = 0; k < keep.size; k++) {
+                        int key = keep.get(k);
+                        float t = Math.min(Math.max(keyTimes.get(key) / duration, 0f), 1f);
+                        times.add((short) Math.round(t * TIME_STEPS));
+                        int v = key * stride;
+                        if (type == ROTATION) {
+                            for (int a = 0; a < 4; a++) {
+                                values.add((short) Math.round(keyValues.get(v + a) * ROTATION_STEPS));
+                            }
+                        } else {
+                            for (int a = 0; a < 3; a++) {
+                                float step = ranges.get(range + 3 + a);
+                                float q = step > 0f ? (keyValues.get(v + a) - ranges.get(range + a)) / step : 0f;
+                                values.add((short) Math.round(q));
+                            }
+                        }
+                    }
+                }
+            }
+            clips[c] = new Clip(anim.id, anim.duration, channels.toArray(), ranges.toArray(), times.toArray(), values.toArray());
+        }
+
+        return new PackedClips(boneIds, clips);
+    }
+
+    // Keyframes do canal em arrays planos; false se o nó não anima esse canal
+    private static boolean readKeys(NodeAnimation nodeAnim, int type, FloatArray outTimes, FloatArray outValues) {
+        outTimes.clear();
+        outValues.clear();
+        if (type == ROTATION) {
+            Array<NodeKeyframe<Quaternion>> keys = nodeAnim.rotation;
+            if (keys == null || keys.size == 0) return false;
+            for (NodeKeyframe<Quaternion> key : keys) {
+                Quaternion q = key.value;
+                float len = q.len();
+                float scale = len > 0f ? 1f / len : 1f;
+                // Mesmo hemisfério do anterior, para a interpolação linear não dar a volta longa
+                int last = outValues.size - 4;
+                if (last >= 0 && outValues.get(last) * q.x + outValues.get(last + 1) * q.y
+                    + outValues.get(last + 2) * q.z + outValues.get(last + 3) * q.w < 0f) {
+                    scale = -scale;
+                }
+                outTimes.add(key.keytime);
+                outValues.addAll(q.x * scale, q.y * scale, q.z * scale, q.w * scale);
+            }
+            return true;
+        }
+        Array<NodeKeyframe<Vector3>> keys = type == TRANSLATION ? nodeAnim.translation : nodeAnim.scaling;
+        if (keys == null || keys.size == 0) return false;
+        for (NodeKeyframe<Vector3> key : keys) {
+            outTimes.add(key.keytime);
+            outValues.addAll(key.value.x, key.value.y, key.value.z);
+        }
+        return true;
+    }
+
+    /**
+     * Redução gulosa: a partir do último keyframe mantido, estende o segmento enquanto todos os
+     * keyframes do meio ficam a menos de {@code tolerance} da interpolação linear entre as pontas.
+     */
+    private static void reduce(FloatArray times, FloatArray values, int stride, boolean normalize, float tolerance, IntArray keep) {
+        keep.clear();
+        int count = times.size;
+        keep.add(0);
+        int anchor = 0;
+        for (int candidate = 2; candidate < count; candidate++) {
+            if (!fits(times, values, stride, normalize, tolerance, anchor, candidate)) {
+                anchor = candidate - 1;
+                keep.add(anchor);
+            }
+        }
+        if (count > 1) {
+            int last = count - 1;
+            // Canal constante: um keyframe só basta
+            if (keep.size == 1 && fits(times, values, stride, normalize, tolerance, 0, last)
+                && maxDelta(values, stride, 0, last) <= tolerance) {
+                return;
+            }
+            keep.add(last);
+        }
+    }
+
+    private static boolean fits(FloatArray times, FloatArray values, int stride, boolean normalize, float tolerance, int a, int b) {
+        float ta = times.get(a), tb = times.get(b);
+        float span = tb - ta;
+        float[] v = values.items;
+        for (int j = a + 1; j < b; j++) {
+            float alpha = span > 0f ? (times.get(j) - ta) / span : 0f;
+            float len2 = 0f;
+            for (int c = 0; c < stride; c++) {
+                float lerp = v[a * stride + c] + (v[b * stride + c] - v[a * stride + c]) * alpha;
+                len2 += lerp * lerp;
+            }
+            float scale = normalize && len2 > 0f ? 1f / (float) Math.sqrt(len2) : 1f;
+            for (int c = 0; c < stride; c++) {
+                float lerp = (v[a * stride + c] + (v[b * stride + c] - v[a * stride + c]) * alpha) * scale;
+                if (Math.abs(lerp - v[j * stride + c]) > tolerance) return false;
+            }
+        }
+        return true;
+    }
+
+    private static float maxDelta(FloatArray values, int stride, int a, int b) {
+        float[] v = values.items;
+        float max = 0f;
+        for (int c = 0; c < stride; c++) max = Math.max(max, Math.abs(v[b * stride + c] - v[a * stride + c]));
+        return max;
+    }
+
+    private static void addRange(FloatArray keyValues, IntArray keep, FloatArray ranges) {
+        int start = ranges.size;
+        ranges.addAll(0f, 0f, 0f, 0f, 0f, 0f);
+        for (int a = 0; a < 3; a++) {
+            float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+            for (int k = 0; k < keep.size; k++) {
+                float value = keyValues.get(keep.get(k) * 3 + a);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            ranges.set(start + a, min);
+            ranges.set(start + 3 + a, (max - min) / VALUE_STEPS);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.kaikeventura.dsd.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.kaikeventura.dsd.animation.BakedClipCache;
+import com.kaikeventura.dsd.animation.PackedClips;
+import net.mgsx.gltf.loaders.glb.BinaryDataFileResolver;
+import net.mgsx.gltf.loaders.glb.GLBLoader;
+import net.mgsx.gltf.scene3d.scene.SceneAsset;
+
+/**
+ * Pipeline de carregamento dos GLBs do jogo.
+ * <p>
+ * O parse dos binários (JSON + buffers) roda em paralelo em threads de trabalho. A criação dos
+ * meshes/texturas precisa do contexto GL, então é feita em {@link #update(int)} na thread de
+ * render, um asset por vez, espalhando o upload por vários frames.
+ * <p>
+ * As animações retargetadas são empacotadas uma vez em {@link #knightClips}, compartilhados por
+ * todos os mundos, e saem do modelo. Os clips empacotados são gravados em {@link BakedClipCache};
+ * quando o cache é válido os GLBs de animação nem são abertos.
+ */
+public class GameAssets implements Disposable {
+
+    public static final String KNIGHT_FILE = "knight_idle.glb";
+    public static final String SWORD_FILE = "sword.glb";
+    public static final String CLIP_CACHE_FILE = "cache/knight-clips.bin";
+    public static final String ASSET_HASHES_FILE = "asset-hashes.txt";
+
+    // Arquivo -> id interno da animação (retargeting para o esqueleto do knight)
+    private static final String[][] ANIMATIONS = {
+        {"knight-walk.glb", "walk_fwd"},
+        {"knight-walk-back.glb", "walk_back"},
+        {"knight-walk-left.glb", "walk_left"},
+        {"knight-walk-right.glb", "walk_right"},
+        {"knight-jump.glb", "jump"},
+        {"knight_attack.glb", "attack"},
+    };
+
+    // Modelos prontos para uso (válidos depois que update() retorna true)
+    public Model playerModel, swordModel;
+    // Clips do knight empacotados; o playerModel fica sem Animations depois disso
+    public PackedClips knightClips;
+
+    private final AsyncExecutor executor;
+    private final Array<Entry> pending = new Array<>();
+    private final Array<SceneAsset> loadedAssets = new Array<>();
+    private int totalEntries;
+    private boolean started;
+
+    // Cache de animações: identifica os arquivos fonte (hashes do build) e conta
+    // quantas faltam para gravar
+    private FileHandle clipCacheFile;
+    private long clipSourceStamp;
+    private int animationsRemaining;
+    private boolean animationFailed;
+
+    // Um item em carregamento: trabalho em background, build na thread GL
+    private static class Entry {
+        final String fileName;
+        final String animationId; // null para knight/espada/cache
+        final boolean required;
+        AsyncResult<?> work;
+
+        Entry(String fileName, String animationId, boolean required) {
+            this.fileName = fileName;
+            this.animationId = animationId;
+            this.required = required;
+        }
+    }
+
+    public GameAssets() {
+        int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, ANIMATIONS.length + 2));
+        executor = new AsyncExecutor(workers, "glb-parse");
+    }
+
+    /** Dispara o parse de todos os GLBs em paralelo. Não bloqueia. */
+    public void load() {
+        if (started) return;
+        started = true;
+
+        clipCacheFile = Gdx.files.local(CLIP_CACHE_FILE);
+        clipSourceStamp = computeClipSourceStamp();
+
+        // O knight vem primeiro: as animações dependem do esqueleto dele para o retargeting
+        queue(new Entry(KNIGHT_FILE, null, true));
+        if (clipCacheFile.exists()) {
+            queueClipCache();
+        } else {
+            queueAnimations();
+        }
+        queue(new Entry(SWORD_FILE, null, false));
+    }
+
+    private void queue(final Entry entry) {
+        entry.work = executor.submit(() -> {
+            BinaryDataFileResolver resolver = new BinaryDataFileResolver();
+            resolver.load(Gdx.files.internal(entry.fileName));
+            return resolver;
+        });
+        pending.add(entry);
+        totalEntries++;
+    }
+
+    private void queueAnimations() {
+        animationsRemaining = ANIMATIONS.length;
+        for (String[] anim : ANIMATIONS) {
+            queue(new Entry(anim[0], anim[1], false));
+        }
+    }
+
+    private void queueClipCache() {
+        Entry entry = new Entry(CLIP_CACHE_FILE, null, false);
+        entry.work = executor.submit(() -> BakedClipCache.read(clipCacheFile, clipSourceStamp));
+        pending.add(entry);
+        totalEntries++;
+    }
+
+    // Muda sempre que o conteúdo de algum GLB de animação (ou do esqueleto) ou as tolerâncias do
+    // empacotamento mudam. Barato: nenhum GLB é lido aqui
+    private static long computeClipSourceStamp() {
+        ObjectMap<String, String> hashes = readAssetHashes();
+        long stamp = 17;
+        stamp = stamp * 31 + fileStamp(KNIGHT_FILE, hashes);
+        for (String[] anim : ANIMATIONS) {
+            stamp = stamp * 31 + fileStamp(anim[0], hashes);
+            stamp = stamp * 31 + anim[1].hashCode();
+        }
+        stamp = stamp * 31 + Float.floatToIntBits(PackedClips.DEFAULT_POSITION_TOLERANCE);
+        stamp = stamp * 31 + Float.floatToIntBits(PackedClips.DEFAULT_ROTATION_TOLERANCE);
+        return stamp;
+    }
+
+    // Hash de conteúdo gerado no build (tarefa generateAssetHashes do core); o jar leva junto
+    private static ObjectMap<String, String> readAssetHashes() {
+        ObjectMap<String, String> hashes = new ObjectMap<>();
+        FileHandle file = Gdx.files.classpath(ASSET_HASHES_FILE);
+        if (!file.exists()) return hashes;
+        for (String line : file.readString("UTF-8").split("\n")) {
+            int space = line.lastIndexOf(' ');
+            if (space > 0) hashes.put(line.substring(0, space), line.substring(space + 1).trim());
+        }
+        return hashes;
+    }
+
+    // Sem o hash do build (rodando de uma IDE, sem o Gradle), tamanho e data do arquivo solto
+    private static long fileStamp(String fileName, ObjectMap<String, String> hashes) {
+        String hash = hashes.get(fileName);
+        if (hash != null) return fileName.hashCode() * 31L + hash.hashCode();
+        FileHandle file = Gdx.files.internal(fileName);
+        long stamp = fileName.hashCode();
+        if (file.exists()) {
+            stamp = stamp * 31 + file.length();
+            stamp = stamp * 31 + file.lastModified();
+        }
+        return stamp;
+    }
+
+    /**
+     * Faz o upload para a GPU dos assets cujo parse já terminou, respeitando a ordem da fila
+     * (o knight antes das animações). Sempre processa pelo menos um asset pronto e continua
+     * enquanto houver tempo no orçamento.
+     *
+     * @return true quando tudo foi carregado
+     */
+    public boolean update(int millis) {
+        long endTime = TimeUtils.millis() + millis;
+        while (pending.size > 0) {
+            Entry entry = pending.first();
+            if (!entry.work.isDone()) return false;
+            pending.removeIndex(0);
+            build(entry);
+            if (TimeUtils.millis() >= endTime) break;
+        }
+        return pending.size == 0;
+    }
+
+    /** Progresso entre 0 e 1 para a tela de loading. */
+    public float getProgress() {
+        if (totalEntries == 0) return 0f;
+        return (totalEntries - pending.size) / (float) totalEntries;
+    }
+
+    public boolean isFinished() {
+        return started && pending.size == 0;
+    }
+
+    private void build(Entry entry) {
+        if (entry.fileName.equals(CLIP_CACHE_FILE)) {
+            buildFromClipCache(entry);
+            return;
+        }
+
+        SceneAsset asset;
+        try {
+            asset = new GLBLoader().load((BinaryDataFileResolver) entry.work.get(), false);
+        } catch (Exception e) {
+            if (entry.required) {
+                throw new RuntimeException("Erro ao carregar " + entry.fileName, e);
+            }
+            System.err.println("Erro ao carregar " + entry.fileName + ": " + e.getMessage());
+            if (entry.animationId != null) {
+                animationFailed = true;
+                onAnimationAppended();
+            }
+            return;
+        }
+
+        if (entry.fileName.equals(KNIGHT_FILE)) {
+            loadedAssets.add(asset);
+            playerModel = asset.scene.model;
+            // Renomeia a animação de idle para facilitar
+            if (playerModel.animations.size > 0) {
+                playerModel.animations.get(0).id = "idle";
+            }
+        } else if (entry.fileName.equals(SWORD_FILE)) {
+            loadedAssets.add(asset);
+            swordModel = asset.scene.model;
+        } else {
+            appendAnimation(asset.scene.model, entry.fileName, entry.animationId);
+            // Só as animações interessam: o resto do modelo (meshes, texturas) sai da memória já
+            asset.dispose();
+            onAnimationAppended();
+        }
+    }
+
+    private void buildFromClipCache(Entry entry) {
+        PackedClips cached = null;
+        try {
+            cached = (PackedClips) entry.work.get();
+        } catch (Exception e) {
+            System.err.println("Erro ao ler cache de animações: " + e.getMessage());
+        }
+
+        if (cached == null || !cached.matches(playerModel)) {
+            // Cache velho ou corrompido: volta para os GLBs e grava de novo no final
+            queueAnimations();
+            return;
+        }
+        // O cache já tem todos os clips, inclusive o idle do knight_idle.glb
+        knightClips = cached;
+        playerModel.animations.clear();
+        System.out.println("Clips carregados do cache: " + cached.clips.length + " clips, " + cached.sizeInBytes() / 1024 + " KB");
+    }
+
+    // Depois da última animação empacota e grava o cache em background para as próximas execuções
+    private void onAnimationAppended() {
+        if (--animationsRemaining > 0) return;
+
+        packKnightClips();
+        if (animationFailed) return;
+        final PackedClips clips = knightClips;
+        executor.submit(() -> {
+            try {
+                BakedClipCache.write(clipCacheFile, clipSourceStamp, clips);
+            } catch (Exception e) {
+                System.err.println("Erro ao gravar cache de animações: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    // Uma vez por processo: as Animations com keyframes em float saem do modelo (e as ModelInstances
+    // criadas depois não copiam nada)
+    private void packKnightClips() {
+        knightClips = PackedClips.pack(playerModel);
+        playerModel.animations.clear();
+        System.out.println("Clips empacotados: " + knightClips.clips.length + " clips, "
+            + knightClips.sizeInBytes() / 1024 + " KB");
+    }
+
+    // Retargeting: aponta os NodeAnimations para os nós do knight, que é o que o empacotamento lê
+    private void appendAnimation(Model model, String fileName, String internalName) {
+        if (model.animations.size == 0) return;
+
+        Animation anim = model.animations.get(0);
+        anim.id = internalName;
+        for (int i = anim.nodeAnimations.size - 1; i >= 0; i--) {
+            NodeAnimation nodeAnim = anim.nodeAnimations.get(i);
+            Node targetNode = playerModel.getNode(nodeAnim.node.id, true);
+            if (targetNode != null) {
+                nodeAnim.node = targetNode;
+            } else {
+                // Osso que não existe no knight: a ModelInstance já ignoraria na cópia
+                anim.nodeAnimations.removeIndex(i);
+            }
+        }
+        playerModel.animations.add(anim);
+        System.out.println("Animação carregada: " + internalName + " de " + fileName);
+    }
+
+    @Override
+    public void dispose() {
+        executor.dispose();
+        for (SceneAsset asset : loadedAssets) {
+            asset.dispose();
+        }
+        loadedAssets.clear();
+        playerModel = null;
+        swordModel = null;
+        knightClips = null;
+    }
+}
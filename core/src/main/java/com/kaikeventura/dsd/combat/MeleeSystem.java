@@ -0,0 +1,269 @@
+package com.kaikeventura.dsd.combat;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.physics.bullet.collision.ConvexResultCallback;
+import com.badlogic.gdx.physics.bullet.collision.LocalConvexResult;
+import com.badlogic.gdx.physics.bullet.collision.btBoxShape;
+import com.badlogic.gdx.physics.bullet.collision.btBroadphaseProxy;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionObject;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionWorld;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.entity.RenderTransformSystem;
+import com.kaikeventura.dsd.sim.CharacterMotor;
+
+/**
+ * Detecção de acerto da espada.
+ * <p>
+ * Durante a janela ativa do ataque a lâmina (um segmento no espaço do modelo da espada) é levada
+ * para o mundo a cada tick pela pose do osso da mão. Uma caixa fina é varrida com
+ * {@code convexSweepTest} da posição do tick anterior até a atual; o sweep passa pelo broadphase, então
+ * o custo depende dos corpos perto da lâmina e não do número de inimigos. O {@code convexSweepTest}
+ * é linear, então golpes rápidos são divididos em sub-sweeps para a ponta não atravessar um alvo
+ * entre dois ticks.
+ * <p>
+ * Cada golpe acerta cada vítima no máximo uma vez (pares atacante/vítima por id estável).
+ * <p>
+ * {@link #update} roda na thread de física, antes do passo; os acertos ficam guardados e o
+ * {@link HitListener} é chamado na thread do jogo por {@link #deliverHits()}.
+ */
+public class MeleeSystem implements Disposable {
+
+    // Janela ativa do golpe, em fração da duração do clip de ataque
+    public static final float ACTIVE_START = 0.25f;
+    public static final float ACTIVE_END = 0.75f;
+
+    public static final float KNOCKBACK = 4f;
+
+    // Distância máxima que a lâmina anda num sub-sweep (metade do raio da cápsula)
+    private static final float MAX_SUBSTEP_TRAVEL = 0.25f;
+    private static final int MAX_SUBSTEPS = 8;
+    private static final float BLADE_HALF_WIDTH = 0.04f;
+
+    public interface HitListener {
+        void onHit(int attacker, int victim);
+    }
+
+    private final btCollisionWorld world;
+    private final CharacterMotor motor;
+    private final btBoxShape bladeShape;
+    private final SweepCallback callback = new SweepCallback();
+
+    // Segmento da lâmina no espaço do modelo da espada e a pega (mão -> espada)
+    private final Vector3 bladeLocalStart = new Vector3(0f, 0f, 0f);
+    private final Vector3 bladeLocalEnd = new Vector3(0f, 0.9f, 0f);
+    private final Matrix4 grip = new Matrix4();
+
+    // Pares (atacante << 32 | vítima) já acertados nos golpes em andamento
+    private final LongArray swingHits = new LongArray();
+
+    // Pares (atacante, vítima) do último update, ainda não entregues ao listener
+    private final IntArray pendingHits = new IntArray();
+
+    public HitListener listener;
+    public int hitsThisTick;
+    public int sweepsThisTick;
+
+    // Temporários
+    private final Matrix4 tmpTransform = new Matrix4();
+    private final Matrix4 sweepFrom = new Matrix4();
+    private final Matrix4 sweepTo = new Matrix4();
+    private final Vector3 start = new Vector3();
+    private final Vector3 end = new Vector3();
+    private final Vector3 segA0 = new Vector3(), segA1 = new Vector3();
+    private final Vector3 segB0 = new Vector3(), segB1 = new Vector3();
+    private final Vector3 axis = new Vector3();
+    private final Vector3 scaling = new Vector3();
+    private final Quaternion rotation = new Quaternion();
+    private final Vector3 impulse = new Vector3();
+
+    public MeleeSystem(btCollisionWorld world, CharacterMotor motor) {
+        this.world = world;
+        this.motor = motor;
+        // Meia altura 0.5: escalada em Y pelo comprimento da lâmina a cada sweep
+        bladeShape = new btBoxShape(new Vector3(BLADE_HALF_WIDTH, 0.5f, BLADE_HALF_WIDTH));
+        // Só personagens: o chão e o cenário não interessam
+        callback.setCollisionFilterGroup(btBroadphaseProxy.CollisionFilterGroups.AllFilter);
+        callback.setCollisionFilterMask(btBroadphaseProxy.CollisionFilterGroups.DefaultFilter | CharacterMotor.CHARACTER_GROUP);
+    }
+
+    /** Usa o eixo mais longo da caixa do modelo da espada como lâmina. */
+    public void setBlade(Model swordModel) {
+        BoundingBox bounds = swordModel.calculateBoundingBox(new BoundingBox());
+        Vector3 center = bounds.getCenter(new Vector3());
+        float w = bounds.getWidth(), h = bounds.getHeight(), d = bounds.getDepth();
+        bladeLocalStart.set(center);
+        bladeLocalEnd.set(center);
+        if (h >= w && h >= d) {
+            bladeLocalStart.y = bounds.min.y;
+            bladeLocalEnd.y = bounds.max.y;
+        } else if (w >= d) {
+            bladeLocalStart.x = bounds.min.x;
+            bladeLocalEnd.x = bounds.max.x;
+        } else {
+            bladeLocalStart.z = bounds.min.z;
+            bladeLocalEnd.z = bounds.max.z;
+        }
+    }
+
+    /**
+     * Pega (mão -> espada): o mesmo offset do socket em que a espada é desenhada. Thread do jogo,
+     * entre o sync e o passo da física.
+     */
+    public void setGrip(Matrix4 offset) {
+        grip.set(offset);
+    }
+
+    /** Roda depois da animação do tick, na thread de física antes do passo. */
+    public void update(EntityStore store, float attackDuration) {
+        pendingHits.clear();
+        hitsThisTick = 0;
+        sweepsThisTick = 0;
+        float activeFrom = attackDuration * ACTIVE_START;
+        float activeTo = attackDuration * ACTIVE_END;
+
+        for (int i = 0; i < store.count; i++) {
+            float elapsed = attackDuration - store.attackTimer[i];
+            boolean active = store.attacking[i] && store.hands[i] != null && elapsed >= activeFrom && elapsed <= activeTo;
+            if (!active) {
+                if (store.bladeTracking[i]) {
+                    store.bladeTracking[i] = false;
+                    forgetSwing(store.ids[i]);
+                }
+                continue;
+            }
+
+            computeBlade(store, i, start, end);
+            if (store.bladeTracking[i]) {
+                segA0.set(store.bladeStartX[i], store.bladeStartY[i], store.bladeStartZ[i]);
+                segA1.set(store.bladeEndX[i], store.bladeEndY[i], store.bladeEndZ[i]);
+                sweep(store, i, segA0, segA1, start, end);
+            } else {
+                // Início do golpe: só registra a pose
+                store.bladeTracking[i] = true;
+                forgetSwing(store.ids[i]);
+            }
+            store.bladeStartX[i] = start.x;
+            store.bladeStartY[i] = start.y;
+            store.bladeStartZ[i] = start.z;
+            store.bladeEndX[i] = end.x;
+            store.bladeEndY[i] = end.y;
+            store.bladeEndZ[i] = end.z;
+        }
+    }
+
+    private void computeBlade(EntityStore store, int i, Vector3 outStart, Vector3 outEnd) {
+        Matrix4 transform = tmpTransform;
+        transform.setToRotation(Vector3.Y, store.yaw[i]);
+        transform.setTranslation(store.posX[i], store.posY[i], store.posZ[i]);
+        RenderTransformSystem.applyModelOffset(transform);
+        transform.mul(store.hands[i].globalTransform);
+        transform.mul(grip);
+        outStart.set(bladeLocalStart).mul(transform);
+        outEnd.set(bladeLocalEnd).mul(transform);
+    }
+
+    private void sweep(EntityStore store, int attacker, Vector3 fromStart, Vector3 fromEnd, Vector3 toStart, Vector3 toEnd) {
+        float travel = Math.max(fromStart.dst(toStart), fromEnd.dst(toEnd));
+        int substeps = MathUtils.clamp(MathUtils.ceil(travel / MAX_SUBSTEP_TRAVEL), 1, MAX_SUBSTEPS);
+
+        callback.store = store;
+        callback.attacker = attacker;
+        for (int s = 0; s < substeps; s++) {
+            float a = s / (float) substeps;
+            float b = (s + 1) / (float) substeps;
+            segA0.set(fromStart).lerp(toStart, a);
+            segA1.set(fromEnd).lerp(toEnd, a);
+            segB0.set(fromStart).lerp(toStart, b);
+            segB1.set(fromEnd).lerp(toEnd, b);
+
+            float length = (segA0.dst(segA1) + segB0.dst(segB1)) * 0.5f;
+            if (length < 0.01f) continue;
+            bladeShape.setLocalScaling(scaling.set(1f, length, 1f));
+            segmentTransform(segA0, segA1, sweepFrom);
+            segmentTransform(segB0, segB1, sweepTo);
+
+            callback.setClosestHitFraction(1f);
+            world.convexSweepTest(bladeShape, sweepFrom, sweepTo, callback);
+            sweepsThisTick++;
+        }
+        callback.store = null;
+    }
+
+    // Caixa com o eixo Y ao longo do segmento, centrada no meio dele
+    private void segmentTransform(Vector3 a, Vector3 b, Matrix4 out) {
+        axis.set(b).sub(a).nor();
+        rotation.setFromCross(Vector3.Y, axis);
+        out.set(rotation);
+        out.setTranslation((a.x + b.x) * 0.5f, (a.y + b.y) * 0.5f, (a.z + b.z) * 0.5f);
+    }
+
+    private void forgetSwing(int attackerId) {
+        long[] items = swingHits.items;
+        for (int i = swingHits.size - 1; i >= 0; i--) {
+            if ((int) (items[i] >>> 32) == attackerId) swingHits.removeIndex(i);
+        }
+    }
+
+    private boolean registerHit(int attackerId, int victimId) {
+        long pair = ((long) attackerId << 32) | (victimId & 0xffffffffL);
+        if (swingHits.contains(pair)) return false;
+        swingHits.add(pair);
+        return true;
+    }
+
+    private void onSweepHit(EntityStore store, int attacker, btCollisionObject object) {
+        int victim = object.getUserValue();
+        if (victim < 0 || victim >= store.count || victim == attacker || store.bodies[victim] != object) return;
+        if (!registerHit(store.ids[attacker], store.ids[victim])) return;
+
+        hitsThisTick++;
+        // Empurra a vítima para longe do atacante
+        btRigidBody body = store.bodies[victim];
+        impulse.set(store.posX[victim] - store.posX[attacker], 0f, store.posZ[victim] - store.posZ[attacker]);
+        if (impulse.len2() > 0.0001f) {
+            impulse.nor().scl(KNOCKBACK).add(0f, 1f, 0f);
+            motor.applyImpulse(body, impulse.x, impulse.y, impulse.z);
+        }
+        pendingHits.add(attacker, victim);
+    }
+
+    /** Avisa o listener dos acertos do último update. Thread do jogo, depois do sync da física. */
+    public void deliverHits() {
+        if (listener != null) {
+            int[] items = pendingHits.items;
+            for (int i = 0; i < pendingHits.size; i += 2) {
+                listener.onHit(items[i], items[i + 1]);
+            }
+        }
+        pendingHits.clear();
+    }
+
+    // Coleta todos os corpos tocados pelo sweep (não só o mais próximo)
+    private class SweepCallback extends ConvexResultCallback {
+        EntityStore store;
+        int attacker;
+
+        @Override
+        public float addSingleResult(LocalConvexResult convexResult, boolean normalInWorldSpace) {
+            onSweepHit(store, attacker, convexResult.getHitCollisionObject());
+            return getClosestHitFraction();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        callback.dispose();
+        bladeShape.dispose();
+        swingHits.clear();
+        pendingHits.clear();
+    }
+}
@@ -0,0 +1,166 @@
+package com.kaikeventura.dsd.entity;
+
+import com.kaikeventura.dsd.animation.AnimStateMachine;
+import com.kaikeventura.dsd.animation.NodePose;
+import com.kaikeventura.dsd.animation.PackedAnimator;
+import com.kaikeventura.dsd.animation.PackedClips;
+import com.kaikeventura.dsd.sim.JobSystem;
+
+/**
+ * Escolhe o estado de animação de cada entidade pela {@link AnimStateMachine} do knight e avança os
+ * {@link PackedAnimator}s. O estado fica em {@code EntityStore.animState} e o tempo nele em
+ * {@code animTime}: o fim dos clips de uma vez sai desse tempo, não do {@code current} do controller.
+ */
+public class AnimationSystem {
+
+    // Estados do knight, na ordem em que knightStates() os declara
+    public static final int IDLE = 0;
+    public static final int WALK_FWD = 1;
+    public static final int WALK_BACK = 2;
+    public static final int WALK_LEFT = 3;
+    public static final int WALK_RIGHT = 4;
+    public static final int JUMP = 5;
+    public static final int ATTACK = 6;
+
+    // Blend ao trocar o clip de um proxy de rede (o estado chega pronto, sem a transição que o escolheu)
+    public static final float REMOTE_BLEND = 0.15f;
+
+    public final AnimStateMachine states;
+    public final float attackDuration;
+
+    // Interpola a pose entre amostras de quem anima em taxa reduzida (custa o calculateTransforms)
+    public boolean lodInterpolation;
+    private int tick;
+
+    // Amostragem e ossos em paralelo, blocos de knights por job
+    private static final int SAMPLE_GRAIN = 16;
+    private final JobSystem jobs;
+    private final JobSystem.RangeJob sampleJob = this::sampleRange;
+    private EntityStore jobStore;
+    private float jobStep;
+
+    public AnimationSystem(PackedClips knightClips, JobSystem jobs) {
+        this.jobs = jobs;
+        states = knightStates().compile(knightClips);
+        attackDuration = states.duration(ATTACK);
+    }
+
+    /** Estados e transições do knight. A primeira transição que bate ganha. */
+    public static AnimStateMachine.Definition knightStates() {
+        AnimStateMachine.Definition def = new AnimStateMachine.Definition();
+        def.state("idle", "idle", AnimStateMachine.LOOP, true);
+        def.state("walk_fwd", "walk_fwd", AnimStateMachine.LOOP, true);
+        def.state("walk_back", "walk_back", AnimStateMachine.LOOP, true);
+        def.state("walk_left", "walk_left", AnimStateMachine.LOOP, true);
+        def.state("walk_right", "walk_right", AnimStateMachine.LOOP, true);
+        def.state("jump", "jump", AnimStateMachine.ONCE, true);
+        def.state("attack", "attack", AnimStateMachine.ONCE, false);
+
+        int any = AnimStateMachine.ANY_STATE;
+        // Ataque encadeado reinicia o clip; fora isso o ataque só sai quando o clip acaba
+        def.transition(ATTACK, ATTACK, AnimStateMachine.SIG_ATTACKING | AnimStateMachine.SIG_CLIP_DONE, 0, 0.1f, true);
+        def.transition(any, ATTACK, AnimStateMachine.SIG_ATTACKING, 0, 0.1f);
+        // Pulo segurado repete o clip quando ele acaba
+        def.transition(JUMP, JUMP, AnimStateMachine.SIG_JUMP_HELD | AnimStateMachine.SIG_CLIP_DONE, 0, 0.1f, true);
+        def.transition(any, JUMP, AnimStateMachine.SIG_JUMP_HELD, 0, 0.1f);
+        def.transition(any, WALK_FWD, AnimStateMachine.SIG_FORWARD, 0, 0.2f);
+        def.transition(any, WALK_BACK, AnimStateMachine.SIG_BACK, 0, 0.2f);
+        def.transition(any, WALK_LEFT, AnimStateMachine.SIG_LEFT, 0, 0.2f);
+        def.transition(any, WALK_RIGHT, AnimStateMachine.SIG_RIGHT, 0, 0.2f);
+        def.transition(any, IDLE, 0, 0, 0.2f);
+        return def;
+    }
+
+    // Seleção de estado, uma vez por tick depois do LocomotionSystem
+    public void updateStates(EntityStore store) {
+        AnimStateMachine machine = states;
+        for (int i = 0; i < store.count; i++) {
+            int state = store.animState[i];
+            if (store.remote[i]) {
+                // Proxy de rede: o estado vem no snapshot, aqui só troca o clip quando ele muda
+                if (state >= 0 && store.animators[i].currentClip() != machine.clip(state)) {
+                    store.animators[i].animate(machine.clip(state), machine.loopCount(state), REMOTE_BLEND);
+                    store.animTime[i] = 0f;
+                }
+                continue;
+            }
+            int signals = store.buttons[i] & AnimStateMachine.BUTTON_SIGNALS;
+            if (store.attacking[i]) signals |= AnimStateMachine.SIG_ATTACKING;
+            if (store.grounded[i]) signals |= AnimStateMachine.SIG_GROUNDED;
+            if (machine.isDone(state, store.animTime[i])) signals |= AnimStateMachine.SIG_CLIP_DONE;
+
+            int transition = machine.transition(state, signals);
+            if (transition < 0) continue;
+
+            int target = machine.target(transition);
+            store.animators[i].animate(machine.clip(target), machine.loopCount(target), machine.blendTime(transition));
+            store.animState[i] = target;
+            store.animTime[i] = 0f;
+            if (target == ATTACK) store.attackTimer[i] = attackDuration;
+        }
+    }
+
+    // Amostragem dos clips.
+    //  - Fora da tela o tempo só acumula em animDebt (sem calcular ossos) e é aplicado de uma vez
+    //    quando o knight volta a aparecer.
+    //  - Com animLod n o knight amostra a cada 2^n ticks, em fase pelo id para espalhar o custo.
+    //  - Com lodInterpolation os ticks do meio interpolam entre duas amostras: o controller anda uma
+    //    amostra à frente e animDebt fica negativo nesse meio tempo.
+    //  - Quem está atacando sempre atualiza em taxa cheia: a espada precisa da mão.
+    public void update(EntityStore store, float step) {
+        tick++;
+        jobStore = store;
+        jobStep = step;
+        jobs.parallelFor(store.count, SAMPLE_GRAIN, sampleJob);
+        jobStore = null;
+    }
+
+    // Cada knight só mexe nos próprios índices e na própria instância
+    private void sampleRange(int start, int end) {
+        EntityStore store = jobStore;
+        float step = jobStep;
+        for (int i = start; i < end; i++) {
+            store.animTime[i] += step;
+            store.animDebt[i] += step;
+            boolean attacking = store.attacking[i];
+            int lod = attacking ? 0 : store.animLod[i];
+            NodePose pose = store.poses[i];
+
+            if (!store.visible[i] && !attacking) {
+                if (pose != null) pose.valid = false;
+            } else if (lod == 0 || !lodInterpolation) {
+                if (pose != null) pose.valid = false;
+                int rate = 1 << lod;
+                if (((tick + store.ids[i]) & (rate - 1)) == 0 && store.animDebt[i] > 0f) {
+                    store.animators[i].update(store.animDebt[i]);
+                    store.animDebt[i] = 0f;
+                }
+            } else {
+                if (pose == null) pose = store.poses[i] = new NodePose(store.instances[i]);
+                int rate = 1 << lod;
+                int phase = (tick + store.ids[i]) & (rate - 1);
+                if (phase == 0) {
+                    // A pose atual dos nós só vale como origem se ainda não estávamos interpolando
+                    if (!pose.valid) pose.shift();
+                    float ahead = rate * step;
+                    float delta = store.animDebt[i] + ahead;
+                    if (delta > 0f) store.animators[i].update(delta);
+                    store.animDebt[i] = -ahead;
+                    pose.shift();
+                    pose.valid = true;
+                    pose.apply(0f);
+                } else if (pose.valid) {
+                    pose.apply(phase / (float) rate);
+                }
+            }
+
+            // O fim do ataque libera o movimento; a máquina de estados troca o clip no próximo tick
+            if (attacking) {
+                store.attackTimer[i] -= step;
+                if (store.attackTimer[i] <= 0f) {
+                    store.attacking[i] = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.kaikeventura.dsd.entity;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.kaikeventura.dsd.sim.JobSystem;
+
+/**
+ * Itens presos a ossos dos personagens (armas, escudos, elmos).
+ * <p>
+ * Um {@link Socket} é um osso do esqueleto (índice resolvido uma vez pelo nome) mais um offset já
+ * assado num único {@link Matrix4}. Cada item preso guarda o dono, o socket e o nó do osso na
+ * instância do dono, então o transform do item é {@code dono * osso * offset}: duas multiplicações,
+ * feitas num único passe paralelo depois dos transforms de render dos personagens.
+ * <p>
+ * Os donos são índices do {@link EntityStore}; quem remove uma entidade avisa com
+ * {@link #detachAll(int)} antes e {@link #moveOwner(int, int)} depois do swap.
+ */
+public class AttachmentSystem {
+
+    /** Ponto de fixação num osso. */
+    public static final class Socket {
+        public final String name;
+        /** Índice do osso (numeração depth-first dos nós do modelo), -1 se o modelo não tiver. */
+        public final int bone;
+        /** Osso -> item. Mexer aqui vale para todos os itens presos no socket. */
+        public final Matrix4 offset = new Matrix4();
+
+        Socket(String name, int bone) {
+            this.name = name;
+            this.bone = bone;
+        }
+
+        /** Assa rotação (graus, X depois Y depois Z), translação e escala uniforme no offset. */
+        public Socket setOffset(float rotX, float rotY, float rotZ, float posX, float posY, float posZ, float scale) {
+            offset.idt();
+            offset.rotate(Vector3.X, rotX);
+            offset.rotate(Vector3.Y, rotY);
+            offset.rotate(Vector3.Z, rotZ);
+            offset.translate(posX, posY, posZ);
+            offset.scale(scale, scale, scale);
+            return this;
+        }
+    }
+
+    private static final int GRAIN = 64;
+
+    private final Array<Socket> sockets = new Array<>();
+
+    // Itens presos, em arrays paralelos
+    private int count;
+    private int[] owners = new int[16];
+    private Socket[] itemSockets = new Socket[16];
+    private int[] itemIds = new int[16];
+    private Node[] bones = new Node[16];
+    private ModelInstance[] items = new ModelInstance[16];
+
+    private final JobSystem jobs;
+    private final JobSystem.RangeJob job = this::updateRange;
+    private EntityStore jobStore;
+
+    public AttachmentSystem(JobSystem jobs) {
+        this.jobs = jobs;
+    }
+
+    public Socket addSocket(String name, int bone) {
+        Socket socket = new Socket(name, bone);
+        sockets.add(socket);
+        return socket;
+    }
+
+    public Socket getSocket(String name) {
+        for (Socket socket : sockets) {
+            if (socket.name.equals(name)) return socket;
+        }
+        return null;
+    }
+
+    /** Socket pelo índice de {@link #socketIndex}, null se não existe. */
+    public Socket getSocket(int index) {
+        return index >= 0 && index < sockets.size ? sockets.get(index) : null;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int owner(int attachment) {
+        return owners[attachment];
+    }
+
+    public ModelInstance item(int attachment) {
+        return items[attachment];
+    }
+
+    /** Id do tipo de item (para saves), 0 se não informado. */
+    public int itemId(int attachment) {
+        return itemIds[attachment];
+    }
+
+    /** Índice do socket na ordem de {@link #addSocket}. */
+    public int socketIndex(int attachment) {
+        return sockets.indexOf(itemSockets[attachment], true);
+    }
+
+    public boolean attach(EntityStore store, int entity, Socket socket, ModelInstance item) {
+        return attach(store, entity, socket, item, 0);
+    }
+
+    /** Prende {@code item} ao socket da entidade. False se o socket não tem osso nesse modelo. */
+    public boolean attach(EntityStore store, int entity, Socket socket, ModelInstance item, int itemId) {
+        if (socket.bone < 0) return false;
+        if (count == owners.length) grow();
+        owners[count] = entity;
+        itemSockets[count] = socket;
+        itemIds[count] = itemId;
+        bones[count] = store.animators[entity].node(socket.bone);
+        items[count] = item;
+        count++;
+        return true;
+    }
+
+    /** Solta todos os itens da entidade (a ordem dos restantes pode mudar). */
+    public void detachAll(int entity) {
+        for (int a = count - 1; a >= 0; a--) {
+            if (owners[a] == entity) removeAt(a);
+        }
+    }
+
+    /** A entidade mudou de índice (remoção por swap no store). */
+    public void moveOwner(int from, int to) {
+        for (int a = 0; a < count; a++) {
+            if (owners[a] == from) owners[a] = to;
+        }
+    }
+
+    /** Transforms de todos os itens, depois do {@link RenderTransformSystem} e da animação. */
+    public void update(EntityStore store) {
+        jobStore = store;
+        jobs.parallelFor(count, GRAIN, job);
+        jobStore = null;
+    }
+
+    private void updateRange(int start, int end) {
+        EntityStore store = jobStore;
+        for (int a = start; a < end; a++) {
+            items[a].transform.set(store.instances[owners[a]].transform)
+                .mul(bones[a].globalTransform)
+                .mul(itemSockets[a].offset);
+        }
+    }
+
+    private void removeAt(int a) {
+        int last = --count;
+        owners[a] = owners[last];
+        itemSockets[a] = itemSockets[last];
+        itemIds[a] = itemIds[last];
+        bones[a] = bones[last];
+        items[a] = items[last];
+        itemSockets[last] = null;
+        bones[last] = null;
+        items[last] = null;
+    }
+
+    private void grow() {
+        int capacity = owners.length * 2;
+        int[] newOwners = new int[capacity];
+        Socket[] newSockets = new Socket[capacity];
+        int[] newItemIds = new int[capacity];
+        Node[] newBones = new Node[capacity];
+        ModelInstance[] newItems = new ModelInstance[capacity];
+        System.arraycopy(owners, 0, newOwners, 0, count);
+        System.arraycopy(itemSockets, 0, newSockets, 0, count);
+        System.arraycopy(itemIds, 0, newItemIds, 0, count);
+        System.arraycopy(bones, 0, newBones, 0, count);
+        System.arraycopy(items, 0, newItems, 0, count);
+        owners = newOwners;
+        itemSockets = newSockets;
+        itemIds = newItemIds;
+        bones = newBones;
+        items = newItems;
+    }
+}
@@ -0,0 +1,44 @@
+package com.kaikeventura.dsd.entity;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.bullet.linearmath.btMotionState;
+import com.kaikeventura.dsd.sim.PhysicsThread;
+import com.kaikeventura.dsd.sim.TransformSnapshot;
+
+// Ponte Bullet -> EntityStore: a posição inicial vem do store; o Bullet escreve posição/yaw no
+// snapshot que a thread de física está montando, e o sync() copia para o store.
+public class EntityMotionState extends btMotionState {
+
+    private final EntityStore store;
+    private final PhysicsThread physics;
+    int index;
+
+    private final Vector3 tmpPosition = new Vector3();
+    private final Quaternion tmpRotation = new Quaternion();
+
+    public EntityMotionState(EntityStore store, PhysicsThread physics, int index) {
+        this.store = store;
+        this.physics = physics;
+        this.index = index;
+    }
+
+    @Override
+    public void getWorldTransform(Matrix4 worldTrans) {
+        int i = index;
+        worldTrans.setToRotation(Vector3.Y, store.yaw[i]);
+        worldTrans.trn(store.posX[i], store.posY[i], store.posZ[i]);
+    }
+
+    @Override
+    public void setWorldTransform(Matrix4 worldTrans) {
+        int i = index;
+        TransformSnapshot snapshot = physics.back();
+        worldTrans.getTranslation(tmpPosition);
+        snapshot.posX[i] = tmpPosition.x;
+        snapshot.posY[i] = tmpPosition.y;
+        snapshot.posZ[i] = tmpPosition.z;
+        snapshot.yaw[i] = worldTrans.getRotation(tmpRotation, true).getYaw();
+    }
+}
@@ -0,0 +1,285 @@
+package com.kaikeventura.dsd.entity;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.kaikeventura.dsd.ai.EnemyBrain;
+import com.kaikeventura.dsd.animation.NodePose;
+import com.kaikeventura.dsd.animation.PackedAnimator;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.input.PlayerInput;
+
+/**
+ * Estado de todos os personagens em structure-of-arrays.
+ * <p>
+ * Cada entidade é só um índice em {@code [0, count)}. Os sistemas percorrem os arrays de forma linear;
+ * remoção é por swap com o último, então índices de outras entidades podem mudar depois de
+ * {@link #remove(int)} (o índice 0, do jogador, nunca é movido).
+ */
+public class EntityStore {
+
+    public static final int KIND_PLAYER = 0;
+    public static final int KIND_ENEMY = 1;
+
+    // Bits de input
+    public static final int IN_FORWARD = 1;
+    public static final int IN_BACK = 1 << 1;
+    public static final int IN_LEFT = 1 << 2;
+    public static final int IN_RIGHT = 1 << 3;
+    public static final int IN_JUMP_HELD = 1 << 4;
+    public static final int IN_JUMP = 1 << 5;   // borda
+    public static final int IN_ATTACK = 1 << 6; // borda
+
+    public final int capacity;
+    public int count;
+    private int nextId = 1;
+
+    // Id estável (não muda com a remoção por swap, ao contrário do índice)
+    public final int[] ids;
+    public final int[] kind;
+
+    // Transform da cápsula no tick atual e no anterior (os knights só giram em Y)
+    public final float[] posX, posY, posZ, yaw;
+    public final float[] prevPosX, prevPosY, prevPosZ, prevYaw;
+
+    // Velocidade linear e contato com o chão (raycast) copiados do passo de física
+    public final float[] velX, velY, velZ;
+    public final boolean[] grounded;
+
+    // Input do tick
+    public final int[] buttons;
+    public final float[] forwardX, forwardZ;
+
+    // Animação (estado da AnimStateMachine, -1 = nenhum, e segundos desde que entrou nele)
+    public final int[] animState;
+    public final float[] animTime;
+    public final boolean[] attacking;
+    public final float[] attackTimer;
+
+    // Visibilidade e LOD de animação do último frame (escritos pelo RenderQueue) e tempo de animação
+    // ainda não aplicado ao controller. animLod n: amostra a cada 2^n ticks.
+    public final boolean[] visible;
+    public final int[] animLod;
+    public final float[] animDebt;
+
+    // Lâmina no último tick (pontas em mundo) enquanto o golpe está na janela ativa
+    public final float[] bladeStartX, bladeStartY, bladeStartZ;
+    public final float[] bladeEndX, bladeEndY, bladeEndZ;
+    public final boolean[] bladeTracking;
+
+    // Proxy de rede: transform, animação e ataque chegam do servidor (NetClient) em vez de serem
+    // simulados; o alvo do transform entra no lugar do controller a cada tick
+    public final boolean[] remote;
+    public final float[] remoteX, remoteY, remoteZ, remoteYaw;
+
+    // Handles para objetos nativos / de render
+    public final btRigidBody[] bodies;
+    public final EntityMotionState[] motionStates; // null com personagens cinemáticos
+    public final PackedAnimator[] animators;
+    public final NodePose[] poses;    // só quem já interpolou LOD de animação
+    public final ModelInstance[] instances;
+    public final EnemyBrain[] brains; // null para o jogador
+    public final Node[] hands;        // osso da mão direita (null se o modelo não tiver)
+
+    public EntityStore(int capacity) {
+        this.capacity = capacity;
+        ids = new int[capacity];
+        kind = new int[capacity];
+        posX = new float[capacity];
+        posY = new float[capacity];
+        posZ = new float[capacity];
+        yaw = new float[capacity];
+        prevPosX = new float[capacity];
+        prevPosY = new float[capacity];
+        prevPosZ = new float[capacity];
+        prevYaw = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        grounded = new boolean[capacity];
+        buttons = new int[capacity];
+        forwardX = new float[capacity];
+        forwardZ = new float[capacity];
+        animState = new int[capacity];
+        animTime = new float[capacity];
+        attacking = new boolean[capacity];
+        attackTimer = new float[capacity];
+        visible = new boolean[capacity];
+        animLod = new int[capacity];
+        animDebt = new float[capacity];
+        bladeStartX = new float[capacity];
+        bladeStartY = new float[capacity];
+        bladeStartZ = new float[capacity];
+        bladeEndX = new float[capacity];
+        bladeEndY = new float[capacity];
+        bladeEndZ = new float[capacity];
+        bladeTracking = new boolean[capacity];
+        remote = new boolean[capacity];
+        remoteX = new float[capacity];
+        remoteY = new float[capacity];
+        remoteZ = new float[capacity];
+        remoteYaw = new float[capacity];
+        bodies = new btRigidBody[capacity];
+        motionStates = new EntityMotionState[capacity];
+        animators = new PackedAnimator[capacity];
+        poses = new NodePose[capacity];
+        instances = new ModelInstance[capacity];
+        brains = new EnemyBrain[capacity];
+        hands = new Node[capacity];
+    }
+
+    /** Reserva um índice com estado zerado. Os handles são preenchidos por quem cria. */
+    public int create(int entityKind, float x, float y, float z) {
+        if (count == capacity) {
+            throw new IllegalStateException("EntityStore cheio (" + capacity + ")");
+        }
+        int i = count++;
+        ids[i] = nextId++;
+        kind[i] = entityKind;
+        posX[i] = prevPosX[i] = x;
+        posY[i] = prevPosY[i] = y;
+        posZ[i] = prevPosZ[i] = z;
+        yaw[i] = prevYaw[i] = 0f;
+        velX[i] = velY[i] = velZ[i] = 0f;
+        grounded[i] = false;
+        buttons[i] = 0;
+        forwardX[i] = 0f;
+        forwardZ[i] = 1f;
+        animState[i] = -1;
+        animTime[i] = 0f;
+        attacking[i] = false;
+        attackTimer[i] = 0f;
+        bladeTracking[i] = false;
+        remote[i] = false;
+        visible[i] = true; // até o primeiro cull (e sempre, no headless)
+        animLod[i] = 0;
+        animDebt[i] = 0f;
+        return i;
+    }
+
+    /** Troca o id da entidade (save carregado); os próximos {@link #create} continuam depois dele. */
+    public void setId(int i, int id) {
+        ids[i] = id;
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    /** Remove por swap com o último. Os handles removidos devem ser liberados antes por quem chama. */
+    public void remove(int i) {
+        if (i == 0) throw new IllegalArgumentException("O jogador (índice 0) não pode ser removido");
+        int last = --count;
+        if (i != last) {
+            ids[i] = ids[last];
+            kind[i] = kind[last];
+            posX[i] = posX[last];
+            posY[i] = posY[last];
+            posZ[i] = posZ[last];
+            yaw[i] = yaw[last];
+            prevPosX[i] = prevPosX[last];
+            prevPosY[i] = prevPosY[last];
+            prevPosZ[i] = prevPosZ[last];
+            prevYaw[i] = prevYaw[last];
+            velX[i] = velX[last];
+            velY[i] = velY[last];
+            velZ[i] = velZ[last];
+            grounded[i] = grounded[last];
+            buttons[i] = buttons[last];
+            forwardX[i] = forwardX[last];
+            forwardZ[i] = forwardZ[last];
+            animState[i] = animState[last];
+            animTime[i] = animTime[last];
+            attacking[i] = attacking[last];
+            attackTimer[i] = attackTimer[last];
+            visible[i] = visible[last];
+            animLod[i] = animLod[last];
+            animDebt[i] = animDebt[last];
+            bladeStartX[i] = bladeStartX[last];
+            bladeStartY[i] = bladeStartY[last];
+            bladeStartZ[i] = bladeStartZ[last];
+            bladeEndX[i] = bladeEndX[last];
+            bladeEndY[i] = bladeEndY[last];
+            bladeEndZ[i] = bladeEndZ[last];
+            bladeTracking[i] = bladeTracking[last];
+            remote[i] = remote[last];
+            remoteX[i] = remoteX[last];
+            remoteY[i] = remoteY[last];
+            remoteZ[i] = remoteZ[last];
+            remoteYaw[i] = remoteYaw[last];
+            bodies[i] = bodies[last];
+            motionStates[i] = motionStates[last];
+            animators[i] = animators[last];
+            poses[i] = poses[last];
+            instances[i] = instances[last];
+            brains[i] = brains[last];
+            hands[i] = hands[last];
+
+            if (motionStates[i] != null) motionStates[i].index = i; // corpos cinemáticos não têm
+            bodies[i].setUserValue(i);
+            if (brains[i] != null) brains[i].setEntity(i);
+        }
+        bodies[last] = null;
+        motionStates[last] = null;
+        animators[last] = null;
+        poses[last] = null;
+        instances[last] = null;
+        brains[last] = null;
+        hands[last] = null;
+    }
+
+    /** Copia o input de um tick (jogador) para a entidade; bordas se acumulam até serem consumidas. */
+    public void setInput(int i, InputFrame frame) {
+        buttons[i] = (buttons[i] & (IN_JUMP | IN_ATTACK)) | frame.buttons;
+        forwardX[i] = frame.forwardX();
+        forwardZ[i] = frame.forwardZ();
+    }
+
+    /** Carrega o input da entidade num {@link PlayerInput} de rascunho. */
+    public void getInput(int i, PlayerInput out) {
+        int b = buttons[i];
+        out.forward = (b & IN_FORWARD) != 0;
+        out.back = (b & IN_BACK) != 0;
+        out.left = (b & IN_LEFT) != 0;
+        out.right = (b & IN_RIGHT) != 0;
+        out.jumpHeld = (b & IN_JUMP_HELD) != 0;
+        out.jumpPressed = (b & IN_JUMP) != 0;
+        out.attackPressed = (b & IN_ATTACK) != 0;
+        out.forwardX = forwardX[i];
+        out.forwardZ = forwardZ[i];
+    }
+
+    public void consumeEdges(int i) {
+        buttons[i] &= ~(IN_JUMP | IN_ATTACK);
+    }
+
+    /**
+     * Hash (FNV-1a de 64 bits) do estado simulado: ids, transform, velocidade, input e animação de
+     * todas as entidades. Duas execuções com o mesmo input só batem se forem iguais bit a bit.
+     */
+    public long stateHash() {
+        long h = 0xCBF29CE484222325L;
+        h = mix(h, count);
+        for (int i = 0; i < count; i++) {
+            h = mix(h, ids[i]);
+            h = mix(h, Float.floatToRawIntBits(posX[i]));
+            h = mix(h, Float.floatToRawIntBits(posY[i]));
+            h = mix(h, Float.floatToRawIntBits(posZ[i]));
+            h = mix(h, Float.floatToRawIntBits(yaw[i]));
+            h = mix(h, Float.floatToRawIntBits(velX[i]));
+            h = mix(h, Float.floatToRawIntBits(velY[i]));
+            h = mix(h, Float.floatToRawIntBits(velZ[i]));
+            h = mix(h, grounded[i] ? 1 : 0);
+            h = mix(h, buttons[i]);
+            h = mix(h, animState[i]);
+            h = mix(h, Float.floatToRawIntBits(animTime[i]));
+            h = mix(h, attacking[i] ? 1 : 0);
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            h ^= (value >>> shift) & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kaikeventura.dsd.entity;
+
+import com.kaikeventura.dsd.PlayerController;
+import com.kaikeventura.dsd.input.PlayerInput;
+import com.kaikeventura.dsd.sim.PhysicsCommands;
+
+/**
+ * Guarda o transform do tick anterior, transforma o input de cada entidade em comandos para o corpo
+ * rígido e decide o início dos ataques. Um único {@link PlayerController} e um {@link PlayerInput}
+ * de rascunho servem todas as entidades. Proxies de rede ({@code EntityStore.remote}) só recebem o
+ * transform replicado.
+ */
+public class LocomotionSystem {
+
+    private final PlayerController controller = new PlayerController();
+    private final PlayerInput input = new PlayerInput();
+
+    public void update(EntityStore store, PhysicsCommands commands, float step) {
+        int count = store.count;
+
+        // Transform do tick anterior, para a interpolação do render
+        System.arraycopy(store.posX, 0, store.prevPosX, 0, count);
+        System.arraycopy(store.posY, 0, store.prevPosY, 0, count);
+        System.arraycopy(store.posZ, 0, store.prevPosZ, 0, count);
+        System.arraycopy(store.yaw, 0, store.prevYaw, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            if (store.remote[i]) {
+                // Proxy de rede: o transform replicado faz o papel do controller
+                store.posX[i] = store.remoteX[i];
+                store.posY[i] = store.remoteY[i];
+                store.posZ[i] = store.remoteZ[i];
+                store.yaw[i] = store.remoteYaw[i];
+                store.consumeEdges(i);
+                continue;
+            }
+            if (!store.attacking[i]) {
+                // Só permite mover se não estiver atacando
+                store.getInput(i, input);
+                controller.update(input, store, i, commands, step);
+
+                if ((store.buttons[i] & EntityStore.IN_ATTACK) != 0) {
+                    store.attacking[i] = true;
+                    // Para o movimento físico ao atacar
+                    commands.setVelocity(store.bodies[i], 0, store.velY[i], 0);
+                }
+            }
+            store.consumeEdges(i);
+        }
+    }
+}
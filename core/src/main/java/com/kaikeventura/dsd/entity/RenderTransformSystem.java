@@ -0,0 +1,56 @@
+package com.kaikeventura.dsd.entity;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.kaikeventura.dsd.sim.JobSystem;
+
+/** Escreve o transform de render de cada entidade, interpolado entre os dois últimos ticks. */
+public class RenderTransformSystem {
+
+    private static final int GRAIN = 64;
+    private final JobSystem jobs;
+    private final JobSystem.RangeJob job = this::updateRange;
+    private EntityStore jobStore;
+    private float jobAlpha;
+
+    // Variáveis de Calibração FINAIS (modelo -> cápsula)
+    private static final float offsetX = 0f;
+    private static final float offsetY = -0.9f;
+    private static final float offsetZ = 0f;
+    private static final float modelScale = 1.2f;
+
+    public RenderTransformSystem(JobSystem jobs) {
+        this.jobs = jobs;
+    }
+
+    public void update(EntityStore store, float alpha) {
+        jobStore = store;
+        jobAlpha = alpha;
+        jobs.parallelFor(store.count, GRAIN, job);
+        jobStore = null;
+    }
+
+    private void updateRange(int start, int end) {
+        EntityStore store = jobStore;
+        float alpha = jobAlpha;
+        for (int i = start; i < end; i++) {
+            float x = MathUtils.lerp(store.prevPosX[i], store.posX[i], alpha);
+            float y = MathUtils.lerp(store.prevPosY[i], store.posY[i], alpha);
+            float z = MathUtils.lerp(store.prevPosZ[i], store.posZ[i], alpha);
+            float yaw = MathUtils.lerpAngleDeg(store.prevYaw[i], store.yaw[i], alpha);
+
+            Matrix4 transform = store.instances[i].transform;
+            transform.setToRotation(Vector3.Y, yaw);
+            transform.setTranslation(x, y, z);
+            applyModelOffset(transform);
+        }
+    }
+
+    /** Cápsula -> modelo: o knight tem o pé na origem, olha para -Z e é um pouco menor que a cápsula. */
+    public static Matrix4 applyModelOffset(Matrix4 capsuleTransform) {
+        capsuleTransform.translate(offsetX, offsetY, offsetZ);
+        capsuleTransform.rotate(Vector3.Y, 180f);
+        return capsuleTransform.scale(modelScale, modelScale, modelScale);
+    }
+}
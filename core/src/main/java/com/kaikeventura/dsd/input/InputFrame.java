@@ -0,0 +1,65 @@
+package com.kaikeventura.dsd.input;
+
+import com.kaikeventura.dsd.entity.EntityStore;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Input de um personagem em um tick, no formato das gravações: os bits {@code IN_*} do
+ * {@link EntityStore} num byte e a direção da "frente" como ângulo de 16 bits ({@link #BYTES} no
+ * total).
+ * <p>
+ * O jogo ao vivo também passa pelo frame quantizado, então a simulação vê exatamente os mesmos
+ * valores gravando ou reproduzindo. A direção volta do ângulo por {@link StrictMath}, que dá o
+ * mesmo resultado em qualquer JVM.
+ */
+public final class InputFrame {
+
+    public static final int BYTES = 3;
+    private static final float HEADING_TO_RADIANS = (float) (Math.PI * 2.0 / 65536.0);
+
+    /** Bits {@code EntityStore.IN_*}, bordas incluídas. */
+    public int buttons;
+    /** Ângulo da frente em 1/65536 de volta, a partir de +X na direção de +Z. */
+    public short heading;
+
+    /** Amostra o {@link PlayerInput}; as bordas dele continuam travadas até o consumeEdges. */
+    public InputFrame set(PlayerInput input) {
+        int b = 0;
+        if (input.forward) b |= EntityStore.IN_FORWARD;
+        if (input.back) b |= EntityStore.IN_BACK;
+        if (input.left) b |= EntityStore.IN_LEFT;
+        if (input.right) b |= EntityStore.IN_RIGHT;
+        if (input.jumpHeld) b |= EntityStore.IN_JUMP_HELD;
+        if (input.jumpPressed) b |= EntityStore.IN_JUMP;
+        if (input.attackPressed) b |= EntityStore.IN_ATTACK;
+        buttons = b;
+        heading = (short) Math.round(Math.atan2(input.forwardZ, input.forwardX) / HEADING_TO_RADIANS);
+        return this;
+    }
+
+    public InputFrame set(InputFrame other) {
+        buttons = other.buttons;
+        heading = other.heading;
+        return this;
+    }
+
+    public float forwardX() {
+        return (float) StrictMath.cos(heading * HEADING_TO_RADIANS);
+    }
+
+    public float forwardZ() {
+        return (float) StrictMath.sin(heading * HEADING_TO_RADIANS);
+    }
+
+    public void write(ByteBuffer out) {
+        out.put((byte) buttons);
+        out.putShort(heading);
+    }
+
+    public InputFrame read(ByteBuffer in) {
+        buttons = in.get() & 0xFF;
+        heading = in.getShort();
+        return this;
+    }
+}
@@ -0,0 +1,169 @@
+package com.kaikeventura.dsd.input;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Sessão gravada: como o mundo foi montado, o {@link InputFrame} do jogador em cada tick e o hash
+ * do estado depois do tick ({@code EntityStore.stateHash}).
+ * <p>
+ * Reproduzir é montar o mesmo mundo e rodar os mesmos frames; o primeiro tick em que o hash
+ * diverge aponta o desync. Gravar custa {@link #BYTES_PER_TICK} bytes por tick em arrays que só
+ * crescem de vez em quando (uma hora a 60 Hz dá uns 2.4 MB).
+ * <p>
+ * Os chunks do nível carregam em threads próprias, então o tick em que cada um entra ou sai do
+ * mundo depende do relógio. Esses eventos também são gravados, com o tick antes do qual
+ * aconteceram, e a reprodução os repete no mesmo ponto em vez de rodar o streaming.
+ * <p>
+ * Formato (little-endian): cabeçalho de {@link #HEADER_BYTES} bytes
+ * {@code [magic, versão, passo, inimigos, flags, ticks]}, depois os frames de todos os ticks, os
+ * hashes e por fim os eventos de chunk ({@code [quantidade]} e {@code [tick, cx, cz, entrou]} cada).
+ */
+public class InputRecording {
+
+    public static final int MAGIC = 0x52445344; // "DSDR"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 4 + 4;
+    public static final int BYTES_PER_TICK = InputFrame.BYTES + 8;
+    public static final int BYTES_PER_CHUNK_EVENT = 4 * 4;
+
+    public static final int FLAG_AI = 1;
+    // IA gravada com GameWorld.setReproducibleAi: os inimigos também batem no replay
+    public static final int FLAG_REPRODUCIBLE_AI = 1 << 1;
+
+    // Montagem do mundo
+    public final float step;
+    public final int enemies;
+    public final int flags;
+
+    private int ticks;
+    private byte[] frames;
+    private long[] hashes;
+    private ByteBuffer frameView;
+    // [tick, cx, cz, entrou] por evento, em ordem de tick
+    private final IntArray chunkEvents = new IntArray();
+
+    public InputRecording(float step, int enemies, int flags) {
+        this(step, enemies, flags, 3600);
+    }
+
+    private InputRecording(float step, int enemies, int flags, int capacity) {
+        this.step = step;
+        this.enemies = enemies;
+        this.flags = flags;
+        frames = new byte[capacity * InputFrame.BYTES];
+        hashes = new long[capacity];
+        frameView = ByteBuffer.wrap(frames).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int ticks() {
+        return ticks;
+    }
+
+    public boolean ai() {
+        return (flags & FLAG_AI) != 0;
+    }
+
+    public boolean reproducibleAi() {
+        return (flags & FLAG_REPRODUCIBLE_AI) != 0;
+    }
+
+    /** Grava o tick seguinte: o input que ele recebeu e o hash do estado depois dele. */
+    public void add(InputFrame frame, long stateHash) {
+        if (ticks == hashes.length) grow();
+        frameView.position(ticks * InputFrame.BYTES);
+        frame.write(frameView);
+        hashes[ticks] = stateHash;
+        ticks++;
+    }
+
+    /** Grava um chunk entrando ({@code added}) ou saindo do mundo antes do próximo tick. */
+    public void addChunkEvent(int cx, int cz, boolean added) {
+        chunkEvents.add(ticks, cx, cz, added ? 1 : 0);
+    }
+
+    public int chunkEvents() {
+        return chunkEvents.size / 4;
+    }
+
+    /** Tick antes do qual o evento aconteceu. */
+    public int chunkEventTick(int event) {
+        return chunkEvents.get(event * 4);
+    }
+
+    public int chunkEventX(int event) {
+        return chunkEvents.get(event * 4 + 1);
+    }
+
+    public int chunkEventZ(int event) {
+        return chunkEvents.get(event * 4 + 2);
+    }
+
+    public boolean chunkEventAdded(int event) {
+        return chunkEvents.get(event * 4 + 3) != 0;
+    }
+
+    public InputFrame frame(int tick, InputFrame out) {
+        frameView.position(tick * InputFrame.BYTES);
+        return out.read(frameView);
+    }
+
+    public long hash(int tick) {
+        return hashes[tick];
+    }
+
+    public void save(FileHandle file) {
+        int events = chunkEvents();
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + ticks * BYTES_PER_TICK + 4 + events * BYTES_PER_CHUNK_EVENT)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putFloat(step).putInt(enemies).putInt(flags).putInt(ticks);
+        out.put(frames, 0, ticks * InputFrame.BYTES);
+        for (int t = 0; t < ticks; t++) out.putLong(hashes[t]);
+        out.putInt(events);
+        for (int i = 0; i < chunkEvents.size; i++) out.putInt(chunkEvents.get(i));
+        file.writeBytes(out.array(), false);
+    }
+
+    public static InputRecording load(FileHandle file) {
+        ByteBuffer in = ByteBuffer.wrap(file.readBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Não é uma gravação: " + file);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Versão de gravação " + version + " não suportada (esperado " + VERSION + "): " + file);
+        }
+        float step = in.getFloat();
+        int enemies = in.getInt();
+        int flags = in.getInt();
+        int ticks = in.getInt();
+        if (ticks < 0 || in.remaining() < ticks * BYTES_PER_TICK + 4) {
+            throw new GdxRuntimeException("Gravação truncada: " + file);
+        }
+        InputRecording recording = new InputRecording(step, enemies, flags, Math.max(ticks, 1));
+        in.get(recording.frames, 0, ticks * InputFrame.BYTES);
+        for (int t = 0; t < ticks; t++) recording.hashes[t] = in.getLong();
+        recording.ticks = ticks;
+        int events = in.getInt();
+        if (events < 0 || in.remaining() != events * BYTES_PER_CHUNK_EVENT) {
+            throw new GdxRuntimeException("Gravação truncada: " + file);
+        }
+        for (int i = 0; i < events * 4; i++) recording.chunkEvents.add(in.getInt());
+        return recording;
+    }
+
+    private void grow() {
+        int capacity = hashes.length * 2;
+        byte[] newFrames = new byte[capacity * InputFrame.BYTES];
+        long[] newHashes = new long[capacity];
+        System.arraycopy(frames, 0, newFrames, 0, ticks * InputFrame.BYTES);
+        System.arraycopy(hashes, 0, newHashes, 0, ticks);
+        frames = newFrames;
+        hashes = newHashes;
+        frameView = ByteBuffer.wrap(frames).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,48 @@
+package com.kaikeventura.dsd.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Camera;
+
+/**
+ * Estado de input consumido pela simulação.
+ * <p>
+ * É amostrado uma vez por frame em {@link #poll(Camera)}. Os eventos de borda (pulo, ataque)
+ * ficam travados até algum tick consumi-los com {@link #consumeEdges()}, assim um clique não se
+ * perde num frame sem tick nem é processado duas vezes num frame com vários ticks.
+ */
+public class PlayerInput {
+
+    // Teclas de movimento seguradas
+    public boolean forward, back, left, right;
+    public boolean jumpHeld;
+
+    // Bordas (pressionou neste frame)
+    public boolean jumpPressed;
+    public boolean attackPressed;
+
+    // Direção horizontal da câmera (normalizada), usada como "frente" do movimento
+    public float forwardX = 0f, forwardZ = 1f;
+
+    public void poll(Camera camera) {
+        forward = Gdx.input.isKeyPressed(Input.Keys.W);
+        back = Gdx.input.isKeyPressed(Input.Keys.S);
+        left = Gdx.input.isKeyPressed(Input.Keys.A);
+        right = Gdx.input.isKeyPressed(Input.Keys.D);
+        jumpHeld = Gdx.input.isKeyPressed(Input.Keys.SPACE);
+
+        jumpPressed |= Gdx.input.isKeyJustPressed(Input.Keys.SPACE);
+        attackPressed |= Gdx.input.isButtonJustPressed(Input.Buttons.LEFT);
+
+        float len = (float) Math.sqrt(camera.direction.x * camera.direction.x + camera.direction.z * camera.direction.z);
+        if (len > 0.0001f) {
+            forwardX = camera.direction.x / len;
+            forwardZ = camera.direction.z / len;
+        }
+    }
+
+    public void consumeEdges() {
+        jumpPressed = false;
+        attackPressed = false;
+    }
+}
@@ -0,0 +1,170 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.physics.bullet.collision.btOptimizedBvh;
+import com.badlogic.gdx.physics.bullet.linearmath.LinearMath;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cache em disco da BVH quantizada das malhas estáticas do nível.
+ * <p>
+ * O arquivo guarda o buffer do {@code btQuantizedBvh::serializeInPlace} como está na memória, então
+ * a leitura é um read direto para um buffer nativo e um {@code deSerializeInPlace} que só corrige
+ * os ponteiros internos. Esse formato depende da versão do Bullet, do tamanho do ponteiro e da
+ * ordem dos bytes, por isso os três vão no cabeçalho junto com o hash da malha.
+ */
+public final class BvhCache {
+
+    private static final int MAGIC = 0x44534442; // "DSDB"
+    // Incrementar sempre que o layout do arquivo mudar
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 8 + 8;
+
+    private BvhCache() {
+    }
+
+    /**
+     * BVH lida do cache. Vive dentro de {@link #buffer}, então o buffer só pode ser liberado depois
+     * que o shape que usa a BVH for destruído.
+     */
+    public static class BakedBvh implements Disposable {
+        public final btOptimizedBvh bvh;
+        private ByteBuffer buffer;
+
+        BakedBvh(btOptimizedBvh bvh, ByteBuffer buffer) {
+            this.bvh = bvh;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void dispose() {
+            if (buffer == null) return;
+            BufferUtils.disposeUnsafeByteBuffer(buffer);
+            buffer = null;
+        }
+    }
+
+    /** Hash da malha (posições e índices). Qualquer vértice mexido invalida o cache. */
+    public static long stamp(FloatBuffer positions, ShortBuffer indices) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < positions.limit(); i++) {
+            hash = (hash ^ Float.floatToIntBits(positions.get(i))) * 0x100000001b3L;
+        }
+        for (int i = 0; i < indices.limit(); i++) {
+            hash = (hash ^ indices.get(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Lê a BVH de {@code file}. Retorna null se o arquivo não existir, tiver sido gerado para outra
+     * malha ({@code meshStamp} diferente) ou por outro build do Bullet.
+     */
+    public static BakedBvh read(FileHandle file, long meshStamp) {
+        if (!file.exists()) return null;
+
+        ByteBuffer data = null;
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (!readFully(channel, header)) return null;
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION
+                || header.getInt() != LinearMath.btGetVersion() || header.getInt() != pointerSize()
+                || header.getInt() != nativeOrder() || header.getLong() != meshStamp) {
+                return null;
+            }
+            long size = header.getLong();
+            if (size <= 0 || size != channel.size() - HEADER_SIZE) return null;
+
+            // Buffer nativo (alinhado pelo malloc): a BVH é montada em cima dele, sem cópia
+            data = BufferUtils.newUnsafeByteBuffer((int) size);
+            if (!readFully(channel, data)) {
+                BufferUtils.disposeUnsafeByteBuffer(data);
+                return null;
+            }
+            data.flip();
+            btOptimizedBvh bvh = btOptimizedBvh.deSerializeInPlace(BufferUtils.getUnsafeBufferAddress(data), size, false);
+            return new BakedBvh(bvh, data);
+        } catch (IOException | RuntimeException e) {
+            if (data != null) BufferUtils.disposeUnsafeByteBuffer(data);
+            System.err.println("Cache de BVH inválido, recriando " + file.name() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Serializa {@code bvh} em {@code file}. Escreve num arquivo temporário e renomeia, para nunca
+     * deixar um cache pela metade.
+     */
+    public static void write(FileHandle file, long meshStamp, btOptimizedBvh bvh) {
+        long size = bvh.calculateSerializeBufferSize();
+        ByteBuffer data = BufferUtils.newUnsafeByteBuffer((int) size);
+        try {
+            if (!bvh.serializeInPlace(BufferUtils.getUnsafeBufferAddress(data), size, false)) {
+                throw new GdxRuntimeException("Falha ao serializar BVH: " + file.name());
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(LinearMath.btGetVersion()).putInt(pointerSize())
+                .putInt(nativeOrder()).putLong(meshStamp).putLong(size);
+            header.flip();
+
+            File target = file.file().getAbsoluteFile();
+            File parent = target.getParentFile();
+            parent.mkdirs();
+            // Temporário com nome único: várias sessões podem gerar o mesmo chunk ao mesmo tempo, e
+            // quem renomear por último vence com um arquivo inteiro
+            Path tmp = null;
+            try {
+                tmp = Files.createTempFile(parent.toPath(), target.getName() + ".", ".tmp");
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (header.hasRemaining()) channel.write(header);
+                    while (data.hasRemaining()) channel.write(data);
+                }
+                Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteQuietly(tmp);
+                throw new GdxRuntimeException("Erro ao gravar cache de BVH: " + target, e);
+            }
+        } finally {
+            BufferUtils.disposeUnsafeByteBuffer(data);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) return false;
+        }
+        return true;
+    }
+
+    private static int pointerSize() {
+        return "64".equals(System.getProperty("sun.arch.data.model")) ? 8 : 4;
+    }
+
+    private static int nativeOrder() {
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 0 : 1;
+    }
+}
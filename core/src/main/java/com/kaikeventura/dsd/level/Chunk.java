@@ -0,0 +1,58 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncResult;
+
+/** Um pedaço quadrado do nível: dados, colisão estática e o que o renderer pendurar nele. */
+public class Chunk implements Disposable {
+
+    public final int cx, cz;
+    public final float minX, minZ, maxX, maxZ;
+
+    public ChunkData data;
+    StaticMesh mesh;
+    btRigidBody body;
+    boolean inWorld;
+
+    AsyncResult<Chunk> work;
+
+    // Dono: o renderer (malha na GPU); null enquanto não foi enviado
+    public Object renderData;
+
+    Chunk(int cx, int cz) {
+        this.cx = cx;
+        this.cz = cz;
+        minX = cx * LevelStreamer.CHUNK_SIZE;
+        minZ = cz * LevelStreamer.CHUNK_SIZE;
+        maxX = minX + LevelStreamer.CHUNK_SIZE;
+        maxZ = minZ + LevelStreamer.CHUNK_SIZE;
+    }
+
+    // Roda na thread de trabalho: shapes e corpo ainda fora do mundo, então sem concorrência com a física.
+    // A BVH da malha vem de bvhCache quando ele bate com a malha; senão é montada e gravada lá.
+    void build(ChunkData data, FileHandle bvhCache) {
+        this.data = data;
+        if (data == null || data.boxCount() == 0) return;
+
+        data.buildCollision();
+        mesh = new StaticMesh(data.collisionVertices, data.collisionIndices, bvhCache);
+        body = new btRigidBody(0f, null, mesh.shape, Vector3.Zero);
+        body.setUserValue(-1); // não é uma entidade
+    }
+
+    public boolean hasCollision() {
+        return body != null;
+    }
+
+    @Override
+    public void dispose() {
+        if (body != null) body.dispose();
+        if (mesh != null) mesh.dispose();
+        body = null;
+        mesh = null;
+        data = null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Conteúdo de um chunk: caixas estáticas (centro + meia-extensão) com uma cor cada. A malha
+ * (posição, normal, cor empacotada) é montada em {@link #buildMesh()} ainda na thread de trabalho;
+ * só o upload para a GPU fica para a thread de render.
+ */
+public class ChunkData {
+
+    public static final int BOX_STRIDE = 6;   // cx, cy, cz, hx, hy, hz
+    public static final int VERTEX_SIZE = 7;  // x, y, z, nx, ny, nz, cor
+
+    public final float[] boxes;
+    public final int[] colors;                // rgba8888
+
+    public float[] vertices;
+    public short[] indices;
+
+    // Malha de colisão: só posições, 8 vértices por caixa, em buffers diretos para o Bullet
+    public FloatBuffer collisionVertices;
+    public ShortBuffer collisionIndices;
+
+    public ChunkData(float[] boxes, int[] colors) {
+        this.boxes = boxes;
+        this.colors = colors;
+    }
+
+    public int boxCount() {
+        return colors.length;
+    }
+
+    // Normais e cantos das 6 faces de uma caixa unitária (sentido anti-horário visto de fora)
+    private static final float[][] FACE_NORMALS = {
+        {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1},
+    };
+    private static final float[][][] FACE_CORNERS = {
+        {{1, -1, 1}, {1, -1, -1}, {1, 1, -1}, {1, 1, 1}},
+        {{-1, -1, -1}, {-1, -1, 1}, {-1, 1, 1}, {-1, 1, -1}},
+        {{-1, 1, 1}, {1, 1, 1}, {1, 1, -1}, {-1, 1, -1}},
+        {{-1, -1, -1}, {1, -1, -1}, {1, -1, 1}, {-1, -1, 1}},
+        {{-1, -1, 1}, {1, -1, 1}, {1, 1, 1}, {-1, 1, 1}},
+        {{1, -1, -1}, {-1, -1, -1}, {-1, 1, -1}, {1, 1, -1}},
+    };
+
+    // Triângulos da caixa unitária sobre os cantos (bit 0 = x, bit 1 = y, bit 2 = z)
+    private static final short[] BOX_TRIANGLES = {
+        1, 3, 7, 7, 5, 1,  0, 4, 6, 6, 2, 0,
+        2, 6, 7, 7, 3, 2,  0, 1, 5, 5, 4, 0,
+        4, 5, 7, 7, 6, 4,  0, 2, 3, 3, 1, 0,
+    };
+
+    public void buildCollision() {
+        int count = boxCount();
+        collisionVertices = BufferUtils.newFloatBuffer(count * 8 * 3);
+        collisionIndices = BufferUtils.newShortBuffer(count * BOX_TRIANGLES.length);
+        for (int b = 0; b < count; b++) {
+            int o = b * BOX_STRIDE;
+            for (int corner = 0; corner < 8; corner++) {
+                collisionVertices.put(boxes[o] + ((corner & 1) != 0 ? 1 : -1) * boxes[o + 3]);
+                collisionVertices.put(boxes[o + 1] + ((corner & 2) != 0 ? 1 : -1) * boxes[o + 4]);
+                collisionVertices.put(boxes[o + 2] + ((corner & 4) != 0 ? 1 : -1) * boxes[o + 5]);
+            }
+            for (short index : BOX_TRIANGLES) {
+                collisionIndices.put((short) (b * 8 + index));
+            }
+        }
+        collisionVertices.flip();
+        collisionIndices.flip();
+    }
+
+    public void buildMesh() {
+        int count = boxCount();
+        vertices = new float[count * 24 * VERTEX_SIZE];
+        indices = new short[count * 36];
+        Color color = new Color();
+        int v = 0, i = 0, base = 0;
+        for (int b = 0; b < count; b++) {
+            int o = b * BOX_STRIDE;
+            Color.rgba8888ToColor(color, colors[b]);
+            float packed = color.toFloatBits();
+            for (int face = 0; face < 6; face++) {
+                float[] normal = FACE_NORMALS[face];
+                for (float[] corner : FACE_CORNERS[face]) {
+                    vertices[v++] = boxes[o] + corner[0] * boxes[o + 3];
+                    vertices[v++] = boxes[o + 1] + corner[1] * boxes[o + 4];
+                    vertices[v++] = boxes[o + 2] + corner[2] * boxes[o + 5];
+                    vertices[v++] = normal[0];
+                    vertices[v++] = normal[1];
+                    vertices[v++] = normal[2];
+                    vertices[v++] = packed;
+                }
+                indices[i++] = (short) base;
+                indices[i++] = (short) (base + 1);
+                indices[i++] = (short) (base + 2);
+                indices[i++] = (short) (base + 2);
+                indices[i++] = (short) (base + 3);
+                indices[i++] = (short) base;
+                base += 4;
+            }
+        }
+    }
+}
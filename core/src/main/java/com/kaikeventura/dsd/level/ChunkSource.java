@@ -0,0 +1,8 @@
+package com.kaikeventura.dsd.level;
+
+/** De onde vem o conteúdo dos chunks. Chamado nas threads de trabalho do {@link LevelStreamer}. */
+public interface ChunkSource {
+
+    /** @return o conteúdo do chunk (cx, cz), ou null se ele for vazio */
+    ChunkData load(int cx, int cz);
+}
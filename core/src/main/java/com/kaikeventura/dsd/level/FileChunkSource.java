@@ -0,0 +1,52 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lê chunks de {@code <dir>/chunk_<cx>_<cz>.bin}; chunks sem arquivo vêm do {@code fallback}.
+ * <p>
+ * Formato (little-endian): "DSDC", versão (int), número de caixas (int) e, por caixa, centro e
+ * meia-extensão (6 floats) e a cor rgba8888 (int).
+ */
+public class FileChunkSource implements ChunkSource {
+
+    private static final int MAGIC = 0x43445344; // "DSDC"
+    private static final int VERSION = 1;
+
+    private final String directory;
+    private final ChunkSource fallback;
+
+    public FileChunkSource(String directory, ChunkSource fallback) {
+        this.directory = directory;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ChunkData load(int cx, int cz) {
+        FileHandle file = Gdx.files.internal(directory + "/chunk_" + cx + "_" + cz + ".bin");
+        if (!file.exists()) {
+            return fallback != null ? fallback.load(cx, cz) : null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(file.readBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new RuntimeException("Chunk inválido: " + file.path());
+        }
+        int count = buffer.getInt();
+        float[] boxes = new float[count * ChunkData.BOX_STRIDE];
+        int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < ChunkData.BOX_STRIDE; j++) {
+                boxes[i * ChunkData.BOX_STRIDE + j] = buffer.getFloat();
+            }
+            colors[i] = buffer.getInt();
+        }
+        ChunkData data = new ChunkData(boxes, colors);
+        data.buildMesh();
+        return data;
+    }
+}
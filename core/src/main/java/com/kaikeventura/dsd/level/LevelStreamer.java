@@ -0,0 +1,230 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.physics.bullet.dynamics.btDynamicsWorld;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+
+/**
+ * Streaming do nível em chunks de {@link #CHUNK_SIZE} metros em volta do jogador.
+ * <p>
+ * Chunks a até {@link #loadRadius} chunks de distância são carregados em threads de trabalho (dados,
+ * malha em memória e shapes do Bullet). A entrada e a saída do {@code dynamicsWorld} acontecem em
+ * {@link #update} na thread da simulação, no máximo {@link #maxAddsPerUpdate} /
+ * {@link #maxRemovesPerUpdate} por frame; o raio de descarga é maior que o de carga para o jogador
+ * não ficar carregando e descarregando na fronteira. O número de chunks vivos (memória e tamanho do
+ * broadphase) depende só dos raios, não do tamanho do mapa.
+ */
+public class LevelStreamer implements Disposable {
+
+    public static final float CHUNK_SIZE = 32f;
+
+    public interface ChunkListener {
+        // Chamados na thread de update, logo depois do chunk entrar/sair do mundo
+        void onChunkAdded(Chunk chunk);
+
+        void onChunkRemoved(Chunk chunk);
+    }
+
+    public int loadRadius = 2;
+    public int unloadRadius = 3;
+    public int maxAddsPerUpdate = 2;
+    public int maxRemovesPerUpdate = 2;
+    public int maxLoadsInFlight = 4;
+
+    public final Array<ChunkListener> listeners = new Array<>();
+    /** Pasta do cache de BVH das malhas de colisão (um arquivo por chunk); null desliga o cache. */
+    public FileHandle bvhCacheDir;
+
+    private final btDynamicsWorld world;
+    private final ChunkSource source;
+    private final AsyncExecutor executor;
+
+    private final LongMap<Chunk> chunks = new LongMap<>();
+    private final Array<Chunk> loading = new Array<>();
+    private final Array<Chunk> ready = new Array<>();
+    private final Array<Chunk> active = new Array<>();
+    private int centerX, centerZ;
+
+    public LevelStreamer(btDynamicsWorld world, ChunkSource source) {
+        this.world = world;
+        this.source = source;
+        executor = new AsyncExecutor(2, "chunk-load");
+    }
+
+    public static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+
+    public Array<Chunk> getActive() {
+        return active;
+    }
+
+    /** Carrega tudo em volta de (x, z) e espera: para o começo da fase, antes de qualquer knight nascer. */
+    public void loadAround(float x, float z) {
+        setCenter(x, z);
+        for (int dz = -loadRadius; dz <= loadRadius; dz++) {
+            for (int dx = -loadRadius; dx <= loadRadius; dx++) {
+                request(centerX + dx, centerZ + dz);
+            }
+        }
+        for (Chunk chunk : loading) {
+            try {
+                chunk.work.get();
+            } catch (Exception e) {
+                // Reportado em collectLoaded()
+            }
+        }
+        collectLoaded();
+        while (ready.size > 0) {
+            activate(ready.pop());
+        }
+    }
+
+    /** Uma vez por frame com a posição do jogador. */
+    public void update(float x, float z) {
+        setCenter(x, z);
+
+        // Descarga (orçamento próprio)
+        int removed = 0;
+        for (int i = active.size - 1; i >= 0 && removed < maxRemovesPerUpdate; i--) {
+            Chunk chunk = active.get(i);
+            if (distance(chunk) > unloadRadius) {
+                active.removeIndex(i);
+                deactivate(chunk);
+                removed++;
+            }
+        }
+
+        collectLoaded();
+
+        // Entrada no mundo, do mais perto para o mais longe
+        for (int added = 0; added < maxAddsPerUpdate && ready.size > 0; added++) {
+            int nearest = 0;
+            for (int i = 1; i < ready.size; i++) {
+                if (distance(ready.get(i)) < distance(ready.get(nearest))) nearest = i;
+            }
+            activate(ready.removeIndex(nearest));
+        }
+
+        requestMissing();
+    }
+
+    /**
+     * Põe o chunk (cx, cz) no mundo agora, esperando o carregamento se preciso. Para reproduzir um
+     * streaming gravado, no lugar de {@link #update}.
+     */
+    public void forceAdd(int cx, int cz) {
+        request(cx, cz);
+        Chunk chunk = chunks.get(key(cx, cz));
+        if (active.contains(chunk, true)) return;
+        if (loading.removeValue(chunk, true)) {
+            try {
+                chunk.work.get();
+            } catch (Exception e) {
+                System.err.println("Erro ao carregar chunk " + chunk.cx + "," + chunk.cz + ": " + e.getMessage());
+                chunk.dispose();
+            }
+        } else {
+            ready.removeValue(chunk, true);
+        }
+        activate(chunk);
+    }
+
+    /** Tira o chunk (cx, cz) do mundo agora, se estiver nele. Par de {@link #forceAdd}. */
+    public void forceRemove(int cx, int cz) {
+        Chunk chunk = chunks.get(key(cx, cz));
+        if (chunk != null && active.removeValue(chunk, true)) deactivate(chunk);
+    }
+
+    private void setCenter(float x, float z) {
+        centerX = MathUtils.floor(x / CHUNK_SIZE);
+        centerZ = MathUtils.floor(z / CHUNK_SIZE);
+    }
+
+    private int distance(Chunk chunk) {
+        return Math.max(Math.abs(chunk.cx - centerX), Math.abs(chunk.cz - centerZ));
+    }
+
+    // Pede os chunks que faltam, em anéis a partir do centro
+    private void requestMissing() {
+        for (int ring = 0; ring <= loadRadius; ring++) {
+            for (int dz = -ring; dz <= ring; dz++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue;
+                    if (loading.size >= maxLoadsInFlight) return;
+                    if (!chunks.containsKey(key(centerX + dx, centerZ + dz))) request(centerX + dx, centerZ + dz);
+                }
+            }
+        }
+    }
+
+    private void request(int cx, int cz) {
+        long key = key(cx, cz);
+        if (chunks.containsKey(key)) return;
+        final Chunk chunk = new Chunk(cx, cz);
+        chunks.put(key, chunk);
+        loading.add(chunk);
+        chunk.work = executor.submit(() -> {
+            FileHandle dir = bvhCacheDir;
+            chunk.build(source.load(chunk.cx, chunk.cz), dir != null ? dir.child("chunk_" + chunk.cx + "_" + chunk.cz + ".bvh") : null);
+            return chunk;
+        });
+    }
+
+    private void collectLoaded() {
+        for (int i = loading.size - 1; i >= 0; i--) {
+            Chunk chunk = loading.get(i);
+            if (!chunk.work.isDone()) continue;
+            loading.removeIndex(i);
+            try {
+                chunk.work.get();
+            } catch (Exception e) {
+                // Segue como chunk vazio, para não tentar de novo a cada frame
+                System.err.println("Erro ao carregar chunk " + chunk.cx + "," + chunk.cz + ": " + e.getMessage());
+                chunk.dispose();
+            }
+            if (distance(chunk) > unloadRadius) {
+                // O jogador já foi embora
+                chunks.remove(key(chunk.cx, chunk.cz));
+                chunk.dispose();
+            } else {
+                ready.add(chunk);
+            }
+        }
+    }
+
+    private void activate(Chunk chunk) {
+        if (chunk.hasCollision()) {
+            world.addRigidBody(chunk.body);
+            chunk.inWorld = true;
+        }
+        active.add(chunk);
+        for (int i = 0; i < listeners.size; i++) listeners.get(i).onChunkAdded(chunk);
+    }
+
+    private void deactivate(Chunk chunk) {
+        if (chunk.inWorld) {
+            world.removeRigidBody(chunk.body);
+            chunk.inWorld = false;
+        }
+        for (int i = 0; i < listeners.size; i++) listeners.get(i).onChunkRemoved(chunk);
+        chunks.remove(key(chunk.cx, chunk.cz));
+        chunk.dispose();
+    }
+
+    @Override
+    public void dispose() {
+        executor.dispose(); // espera os carregamentos em andamento
+        for (Chunk chunk : active) deactivate(chunk);
+        active.clear();
+        for (Chunk chunk : ready) chunk.dispose();
+        ready.clear();
+        for (Chunk chunk : loading) chunk.dispose();
+        loading.clear();
+        chunks.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Nível gerado a partir de uma semente: um piso por chunk e alguns pilares/muros espalhados.
+ * A mesma semente e as mesmas coordenadas geram sempre o mesmo chunk. A área em volta da origem
+ * (a arena onde os knights nascem) fica livre.
+ */
+public class ProceduralChunkSource implements ChunkSource {
+
+    private static final int FLOOR_COLOR = 0x404040ff;
+    private static final int STONE_COLOR = 0x6b6358ff;
+    private static final float ARENA_RADIUS = 28f;
+
+    private final long seed;
+
+    public ProceduralChunkSource(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public ChunkData load(int cx, int cz) {
+        float size = LevelStreamer.CHUNK_SIZE;
+        float minX = cx * size, minZ = cz * size;
+        FloatArray boxes = new FloatArray();
+        IntArray colors = new IntArray();
+
+        // Piso (topo em y = 0)
+        addBox(boxes, colors, minX + size / 2f, -0.5f, minZ + size / 2f, size / 2f, 0.5f, size / 2f, FLOOR_COLOR);
+
+        RandomXS128 random = new RandomXS128(seed ^ (cx * 0x9E3779B97F4A7C15L) ^ (cz * 0xC2B2AE3D27D4EB4FL));
+        int pillars = random.nextInt(7);
+        for (int i = 0; i < pillars; i++) {
+            float x = minX + 2f + random.nextFloat() * (size - 4f);
+            float z = minZ + 2f + random.nextFloat() * (size - 4f);
+            if (x * x + z * z < ARENA_RADIUS * ARENA_RADIUS) continue;
+            boolean wall = random.nextInt(4) == 0;
+            float hx = wall ? 1f + random.nextFloat() * 5f : 0.5f + random.nextFloat() * 0.5f;
+            float hz = wall ? 0.4f : hx;
+            float hy = 1f + random.nextFloat() * 1.5f;
+            if (wall && random.nextBoolean()) {
+                float swap = hx;
+                hx = hz;
+                hz = swap;
+            }
+            addBox(boxes, colors, x, hy, z, hx, hy, hz, STONE_COLOR);
+        }
+
+        ChunkData data = new ChunkData(boxes.toArray(), colors.toArray());
+        data.buildMesh();
+        return data;
+    }
+
+    private static void addBox(FloatArray boxes, IntArray colors, float x, float y, float z, float hx, float hy, float hz, int color) {
+        boxes.addAll(x, y, z, hx, hy, hz);
+        colors.add(color);
+    }
+}
@@ -0,0 +1,64 @@
+package com.kaikeventura.dsd.level;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.physics.bullet.collision.btBvhTriangleMeshShape;
+import com.badlogic.gdx.physics.bullet.collision.btIndexedMesh;
+import com.badlogic.gdx.physics.bullet.collision.btTriangleIndexVertexArray;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Colisão de uma malha estática ({@link btBvhTriangleMeshShape}) com a BVH vinda do
+ * {@link BvhCache}. Sem cache válido a BVH é montada na hora e gravada para a próxima carga.
+ */
+public class StaticMesh implements Disposable {
+
+    public final btBvhTriangleMeshShape shape;
+    /** true quando a BVH veio do disco. */
+    public final boolean fromCache;
+
+    // O Bullet lê os vértices direto destes buffers: precisam viver tanto quanto o shape
+    private final FloatBuffer positions;
+    private final ShortBuffer indices;
+    private final BvhCache.BakedBvh baked;
+
+    /**
+     * @param positions x, y, z por vértice, em buffer direto
+     * @param indices   três por triângulo, em buffer direto
+     * @param cacheFile onde ler/gravar a BVH; null desliga o cache
+     */
+    public StaticMesh(FloatBuffer positions, ShortBuffer indices, FileHandle cacheFile) {
+        this.positions = positions;
+        this.indices = indices;
+
+        btTriangleIndexVertexArray meshInterface = new btTriangleIndexVertexArray();
+        meshInterface.addIndexedMesh(new btIndexedMesh(positions, 3 * 4, positions.limit() / 3, 0, indices, 0, indices.limit()));
+
+        long stamp = cacheFile != null ? BvhCache.stamp(positions, indices) : 0;
+        baked = cacheFile != null ? BvhCache.read(cacheFile, stamp) : null;
+        if (baked != null) {
+            shape = new btBvhTriangleMeshShape(meshInterface, true, false);
+            shape.setOptimizedBvh(baked.bvh);
+            fromCache = true;
+        } else {
+            shape = new btBvhTriangleMeshShape(meshInterface, true);
+            fromCache = false;
+            if (cacheFile != null) {
+                try {
+                    BvhCache.write(cacheFile, stamp, shape.getOptimizedBvh());
+                } catch (RuntimeException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // O shape solta a malha; a BVH do cache mora no buffer, que só sai depois do shape
+        shape.dispose();
+        if (baked != null) baked.dispose();
+    }
+}
@@ -0,0 +1,32 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+
+/** Aresta com custo igual à distância horizontal entre os nós. */
+public class NavConnection implements Connection<NavNode> {
+
+    private final NavNode from, to;
+    private final float cost;
+
+    public NavConnection(NavNode from, NavNode to) {
+        this.from = from;
+        this.to = to;
+        float dx = to.x - from.x, dz = to.z - from.z;
+        cost = (float) Math.sqrt(dx * dx + dz * dz);
+    }
+
+    @Override
+    public float getCost() {
+        return cost;
+    }
+
+    @Override
+    public NavNode getFromNode() {
+        return from;
+    }
+
+    @Override
+    public NavNode getToNode() {
+        return to;
+    }
+}
@@ -0,0 +1,173 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Grid de navegação em dois níveis, gerado a partir da colisão estática ({@link NavGridBuilder}).
+ * <p>
+ * Nível de baixo: uma célula por {@code cellSize} metros, ligada às 8 vizinhas quando as duas são
+ * andáveis e o degrau entre elas é pequeno. Nível de cima: setores de {@code sectorCells} x
+ * {@code sectorCells} células, ligados quando alguma aresta do nível de baixo cruza a fronteira.
+ * <p>
+ * Imutável depois de construído: as threads do {@link PathService} leem sem sincronização e uma
+ * invalidação gera um grid novo.
+ */
+public class NavGrid implements IndexedGraph<NavNode> {
+
+    // Maior diferença de altura que um knight sobe andando
+    public static final float MAX_STEP = 0.4f;
+
+    public static final Heuristic<NavNode> DISTANCE = (node, endNode) -> {
+        float dx = endNode.x - node.x, dz = endNode.z - node.z;
+        return (float) Math.sqrt(dx * dx + dz * dz);
+    };
+
+    public final float originX, originZ, cellSize;
+    public final int width, depth;
+    public final int sectorCells, sectorsX, sectorsZ;
+
+    final float[] heights;
+    final boolean[] walkable;
+    // Incrementado a cada invalidação que toca o setor; usado para validar o cache de caminhos
+    final int[] sectorVersions;
+
+    public final NavNode[] nodes;
+    public final NavNode[] sectors;
+    public final IndexedGraph<NavNode> sectorGraph;
+
+    NavGrid(float originX, float originZ, float cellSize, int width, int depth, int sectorCells,
+            float[] heights, boolean[] walkable, int[] sectorVersions) {
+        this.originX = originX;
+        this.originZ = originZ;
+        this.cellSize = cellSize;
+        this.width = width;
+        this.depth = depth;
+        this.sectorCells = sectorCells;
+        this.sectorsX = (width + sectorCells - 1) / sectorCells;
+        this.sectorsZ = (depth + sectorCells - 1) / sectorCells;
+        this.heights = heights;
+        this.walkable = walkable;
+        this.sectorVersions = sectorVersions;
+
+        nodes = new NavNode[width * depth];
+        for (int cz = 0; cz < depth; cz++) {
+            for (int cx = 0; cx < width; cx++) {
+                int i = cz * width + cx;
+                int sector = (cz / sectorCells) * sectorsX + cx / sectorCells;
+                nodes[i] = new NavNode(i, originX + (cx + 0.5f) * cellSize, heights[i], originZ + (cz + 0.5f) * cellSize, sector);
+            }
+        }
+
+        sectors = new NavNode[sectorsX * sectorsZ];
+        for (int sz = 0; sz < sectorsZ; sz++) {
+            for (int sx = 0; sx < sectorsX; sx++) {
+                int s = sz * sectorsX + sx;
+                // Centro das células do setor (o último de cada eixo pode ser menor)
+                float cx = (sx * sectorCells + Math.min(width, (sx + 1) * sectorCells)) * 0.5f;
+                float cz = (sz * sectorCells + Math.min(depth, (sz + 1) * sectorCells)) * 0.5f;
+                sectors[s] = new NavNode(s, originX + cx * cellSize, 0f, originZ + cz * cellSize, s);
+            }
+        }
+
+        for (int cz = 0; cz < depth; cz++) {
+            for (int cx = 0; cx < width; cx++) {
+                connectCell(cx, cz);
+            }
+        }
+
+        sectorGraph = new IndexedGraph<NavNode>() {
+            @Override
+            public int getIndex(NavNode node) {
+                return node.index;
+            }
+
+            @Override
+            public int getNodeCount() {
+                return sectors.length;
+            }
+
+            @Override
+            public Array<Connection<NavNode>> getConnections(NavNode fromNode) {
+                return fromNode.connections;
+            }
+        };
+    }
+
+    private void connectCell(int cx, int cz) {
+        int i = cz * width + cx;
+        if (!walkable[i]) return;
+        NavNode node = nodes[i];
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dz == 0) continue;
+                int nx = cx + dx, nz = cz + dz;
+                if (!canStep(i, nx, nz)) continue;
+                // Diagonal só sem cortar quina
+                if (dx != 0 && dz != 0 && (!canStep(i, cx + dx, cz) || !canStep(i, cx, cz + dz))) continue;
+
+                NavNode neighbour = nodes[nz * width + nx];
+                node.connections.add(new NavConnection(node, neighbour));
+                if (neighbour.sector != node.sector) connectSectors(node.sector, neighbour.sector);
+            }
+        }
+    }
+
+    private boolean canStep(int from, int cx, int cz) {
+        if (cx < 0 || cz < 0 || cx >= width || cz >= depth) return false;
+        int to = cz * width + cx;
+        return walkable[to] && Math.abs(heights[to] - heights[from]) <= MAX_STEP;
+    }
+
+    private void connectSectors(int from, int to) {
+        Array<Connection<NavNode>> connections = sectors[from].connections;
+        for (int i = 0; i < connections.size; i++) {
+            if (connections.get(i).getToNode().index == to) return;
+        }
+        connections.add(new NavConnection(sectors[from], sectors[to]));
+    }
+
+    /** Célula andável mais próxima de (x, z), procurando em anéis de até 2 células; null se não houver. */
+    public NavNode nodeAt(float x, float z) {
+        int cx = MathUtils.clamp((int) Math.floor((x - originX) / cellSize), 0, width - 1);
+        int cz = MathUtils.clamp((int) Math.floor((z - originZ) / cellSize), 0, depth - 1);
+        for (int ring = 0; ring <= 2; ring++) {
+            for (int dz = -ring; dz <= ring; dz++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue;
+                    int nx = cx + dx, nz = cz + dz;
+                    if (nx < 0 || nz < 0 || nx >= width || nz >= depth) continue;
+                    int i = nz * width + nx;
+                    if (walkable[i]) return nodes[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean isWalkable(int index) {
+        return walkable[index];
+    }
+
+    public int sectorVersion(int sector) {
+        return sectorVersions[sector];
+    }
+
+    @Override
+    public int getIndex(NavNode node) {
+        return node.index;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public Array<Connection<NavNode>> getConnections(NavNode fromNode) {
+        return fromNode.connections;
+    }
+}
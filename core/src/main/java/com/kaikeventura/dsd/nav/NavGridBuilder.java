@@ -0,0 +1,112 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.bullet.collision.ClosestRayResultCallback;
+import com.badlogic.gdx.physics.bullet.collision.btBroadphaseProxy;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionWorld;
+
+/**
+ * Gera o {@link NavGrid} amostrando a colisão estática do mundo com raycasts: um raio de cima para
+ * baixo acha o piso de cada célula (rampas íngremes demais ficam de fora) e outro, do piso para cima,
+ * verifica se cabe um knight de pé. Só enxerga objetos do grupo {@code StaticFilter}, então os
+ * personagens não viram obstáculos.
+ * <p>
+ * Usa o mundo Bullet, então só pode rodar na thread da simulação, fora do {@code stepSimulation}.
+ */
+public final class NavGridBuilder {
+
+    public static final int DEFAULT_SECTOR_CELLS = 16;
+
+    private static final float RAY_TOP = 50f;
+    private static final float RAY_BOTTOM = -10f;
+    private static final float MIN_NORMAL_Y = 0.7f;   // ~45 graus
+    private static final float HEADROOM = 1.8f;
+
+    private NavGridBuilder() {
+    }
+
+    public static NavGrid build(btCollisionWorld world, float minX, float minZ, float maxX, float maxZ, float cellSize) {
+        int width = MathUtils.ceil((maxX - minX) / cellSize);
+        int depth = MathUtils.ceil((maxZ - minZ) / cellSize);
+        float[] heights = new float[width * depth];
+        boolean[] walkable = new boolean[width * depth];
+        int sectorCells = DEFAULT_SECTOR_CELLS;
+        int sectorCount = ((width + sectorCells - 1) / sectorCells) * ((depth + sectorCells - 1) / sectorCells);
+
+        sample(world, minX, minZ, cellSize, width, heights, walkable, 0, 0, width - 1, depth - 1);
+        return new NavGrid(minX, minZ, cellSize, width, depth, sectorCells, heights, walkable, new int[sectorCount]);
+    }
+
+    /**
+     * Reamostra só a área dada (por exemplo, uma porta que fechou) e devolve um grid novo. Os
+     * setores tocados mudam de versão, o que invalida os caminhos em cache que passam por eles.
+     */
+    public static NavGrid resample(NavGrid grid, btCollisionWorld world, float minX, float minZ, float maxX, float maxZ) {
+        int cx0 = MathUtils.clamp((int) Math.floor((minX - grid.originX) / grid.cellSize), 0, grid.width - 1);
+        int cz0 = MathUtils.clamp((int) Math.floor((minZ - grid.originZ) / grid.cellSize), 0, grid.depth - 1);
+        int cx1 = MathUtils.clamp((int) Math.floor((maxX - grid.originX) / grid.cellSize), 0, grid.width - 1);
+        int cz1 = MathUtils.clamp((int) Math.floor((maxZ - grid.originZ) / grid.cellSize), 0, grid.depth - 1);
+
+        float[] heights = grid.heights.clone();
+        boolean[] walkable = grid.walkable.clone();
+        int[] sectorVersions = grid.sectorVersions.clone();
+        sample(world, grid.originX, grid.originZ, grid.cellSize, grid.width, heights, walkable, cx0, cz0, cx1, cz1);
+
+        // Uma célula a mais em volta: as arestas que saem da área também mudaram
+        int sx0 = Math.max(0, cx0 - 1) / grid.sectorCells, sx1 = Math.min(grid.width - 1, cx1 + 1) / grid.sectorCells;
+        int sz0 = Math.max(0, cz0 - 1) / grid.sectorCells, sz1 = Math.min(grid.depth - 1, cz1 + 1) / grid.sectorCells;
+        for (int sz = sz0; sz <= sz1; sz++) {
+            for (int sx = sx0; sx <= sx1; sx++) {
+                sectorVersions[sz * grid.sectorsX + sx]++;
+            }
+        }
+        return new NavGrid(grid.originX, grid.originZ, grid.cellSize, grid.width, grid.depth, grid.sectorCells,
+            heights, walkable, sectorVersions);
+    }
+
+    private static void sample(btCollisionWorld world, float originX, float originZ, float cellSize, int width,
+                               float[] heights, boolean[] walkable, int cx0, int cz0, int cx1, int cz1) {
+        Vector3 from = new Vector3();
+        Vector3 to = new Vector3();
+        Vector3 hit = new Vector3();
+        Vector3 normal = new Vector3();
+        ClosestRayResultCallback callback = new ClosestRayResultCallback(from, to);
+        callback.setCollisionFilterGroup(btBroadphaseProxy.CollisionFilterGroups.AllFilter);
+        callback.setCollisionFilterMask(btBroadphaseProxy.CollisionFilterGroups.StaticFilter);
+
+        for (int cz = cz0; cz <= cz1; cz++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int i = cz * width + cx;
+                float x = originX + (cx + 0.5f) * cellSize;
+                float z = originZ + (cz + 0.5f) * cellSize;
+
+                // Piso
+                if (!rayTest(world, callback, from.set(x, RAY_TOP, z), to.set(x, RAY_BOTTOM, z))) {
+                    walkable[i] = false;
+                    continue;
+                }
+                callback.getHitPointWorld(hit);
+                callback.getHitNormalWorld(normal);
+                heights[i] = hit.y;
+                if (normal.y < MIN_NORMAL_Y) {
+                    walkable[i] = false;
+                    continue;
+                }
+
+                // Altura livre: nada estático entre o piso e a cabeça
+                walkable[i] = !rayTest(world, callback, from.set(x, hit.y + 0.05f, z), to.set(x, hit.y + HEADROOM, z));
+            }
+        }
+        callback.dispose();
+    }
+
+    private static boolean rayTest(btCollisionWorld world, ClosestRayResultCallback callback, Vector3 from, Vector3 to) {
+        callback.setCollisionObject(null);
+        callback.setClosestHitFraction(1f);
+        callback.setRayFromWorld(from);
+        callback.setRayToWorld(to);
+        world.rayTest(from, to, callback);
+        return callback.hasHit();
+    }
+}
@@ -0,0 +1,22 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.Array;
+
+/** Nó do grafo de navegação: uma célula do grid ou, no nível de cima, um setor inteiro. */
+public class NavNode {
+
+    public final int index;
+    public final float x, y, z;
+    public final int sector;
+
+    final Array<Connection<NavNode>> connections = new Array<>(false, 8);
+
+    public NavNode(int index, float x, float y, float z, int sector) {
+        this.index = index;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.sector = sector;
+    }
+}
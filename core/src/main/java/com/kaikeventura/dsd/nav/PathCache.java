@@ -0,0 +1,85 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Cache de caminhos em dois níveis, compartilhado pelas threads do {@link PathService}:
+ * corredores de setores por par (setor de origem, setor de destino) e caminhos finos por par de
+ * células. Cada entrada guarda a versão dos setores por onde passa; uma invalidação que toque algum
+ * deles torna a entrada velha, e ela é descartada na próxima consulta.
+ */
+class PathCache {
+
+    static class Entry {
+        final int[] sectors;
+        final int[] versions;
+        final float[] points;   // caminho fino (x, y, z)
+        final int[] corridor;   // setores do corredor, em ordem
+
+        Entry(NavGrid grid, int[] sectors, float[] points, int[] corridor) {
+            this.sectors = sectors;
+            this.points = points;
+            this.corridor = corridor;
+            versions = new int[sectors.length];
+            for (int i = 0; i < sectors.length; i++) {
+                versions[i] = grid.sectorVersion(sectors[i]);
+            }
+        }
+
+        boolean isValid(NavGrid grid) {
+            for (int i = 0; i < sectors.length; i++) {
+                if (grid.sectorVersion(sectors[i]) != versions[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    private final int maxEntries;
+    private final LongMap<Entry> paths = new LongMap<>();
+    private final LongMap<Entry> corridors = new LongMap<>();
+
+    int hits, misses;
+
+    PathCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    synchronized Entry getPath(NavGrid grid, int fromCell, int toCell) {
+        return lookup(paths, grid, key(fromCell, toCell));
+    }
+
+    synchronized Entry getCorridor(NavGrid grid, int fromSector, int toSector) {
+        return lookup(corridors, grid, key(fromSector, toSector));
+    }
+
+    private Entry lookup(LongMap<Entry> map, NavGrid grid, long key) {
+        Entry entry = map.get(key);
+        if (entry != null && !entry.isValid(grid)) {
+            map.remove(key);
+            entry = null;
+        }
+        if (entry != null) hits++;
+        else misses++;
+        return entry;
+    }
+
+    synchronized void putPath(NavGrid grid, int fromCell, int toCell, float[] points, IntArray sectors) {
+        if (paths.size >= maxEntries) paths.clear(); // simples: o cache se reconstrói rápido
+        paths.put(key(fromCell, toCell), new Entry(grid, sectors.toArray(), points, null));
+    }
+
+    synchronized void putCorridor(NavGrid grid, int fromSector, int toSector, int[] corridor) {
+        if (corridors.size >= maxEntries) corridors.clear();
+        corridors.put(key(fromSector, toSector), new Entry(grid, corridor, null, corridor));
+    }
+
+    synchronized void clear() {
+        paths.clear();
+        corridors.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Um pedido de caminho ao {@link PathService}. Quem pede consulta
+ * {@link PathService#isReady(PathRequest, long)} a cada tick e devolve o objeto com
+ * {@link PathService#free(PathRequest)} depois de copiar o resultado.
+ */
+public class PathRequest implements Pool.Poolable {
+
+    public static final int PENDING = 0;
+    public static final int FOUND = 1;
+    public static final int NOT_FOUND = 2;
+    public static final int REJECTED = 3; // fila cheia, tente de novo mais tarde
+
+    public float fromX, fromZ, toX, toZ;
+
+    // Resultado: pontos (x, y, z) do início ao fim, válidos quando status == FOUND
+    public final FloatArray points = new FloatArray(64);
+    public boolean cached;
+
+    volatile int status;
+    boolean cancelled;
+    // Carimbados no pedido: grid usado na busca e, com latencyTicks, o tick em que o resultado vale
+    NavGrid grid;
+    long readyTick;
+    boolean useCache;
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        return status != PENDING;
+    }
+
+    public int pointCount() {
+        return points.size / 3;
+    }
+
+    @Override
+    public void reset() {
+        points.clear();
+        cached = false;
+        status = PENDING;
+        cancelled = false;
+        grid = null;
+        readyTick = 0;
+        useCache = true;
+    }
+}
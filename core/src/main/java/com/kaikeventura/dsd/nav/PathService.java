@@ -0,0 +1,310 @@
+package com.kaikeventura.dsd.nav;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionWorld;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Serviço de pathfinding assíncrono sobre o {@link NavGrid}.
+ * <p>
+ * {@link #request} só enfileira (nunca bloqueia a thread da simulação/render); um pool de threads
+ * resolve os pedidos com o {@link IndexedAStarPathFinder} do gdx-ai. A busca é hierárquica: primeiro
+ * um A* no grafo de setores acha o corredor, depois o A* fino só expande células dentro dele. Os
+ * dois níveis ficam em {@link PathCache}.
+ * <p>
+ * Com {@link #latencyTicks} o serviço é reproduzível (gravação e replay): cada resultado vale a
+ * partir de um tick fixo depois do pedido, esperando a worker se ela atrasar, a busca usa o grid do
+ * momento do pedido sem consultar o cache, e a fila bloqueia em vez de recusar.
+ */
+public class PathService implements Disposable {
+
+    private static final int QUEUE_CAPACITY = 512;
+
+    private volatile NavGrid grid;
+    private final ArrayBlockingQueue<PathRequest> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final PathCache cache = new PathCache(4096);
+    private final Thread[] workers;
+    private volatile boolean running = true;
+
+    /** 0: resultado aplicado assim que a worker termina. Maior: exatamente tantos ticks depois do pedido. */
+    public int latencyTicks;
+
+    private final Pool<PathRequest> pool = new Pool<PathRequest>(64) {
+        @Override
+        protected PathRequest newObject() {
+            return new PathRequest();
+        }
+    };
+
+    public PathService(NavGrid grid, int workerCount) {
+        this.grid = grid;
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(new Worker(), "pathfinder-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public NavGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Pede no {@code tick} um caminho de (fromX, fromZ) até (toX, toZ). Sem {@link #latencyTicks}
+     * nunca bloqueia; com ela espera lugar na fila, já que uma recusa dependeria do relógio.
+     */
+    public PathRequest request(float fromX, float fromZ, float toX, float toZ, long tick) {
+        PathRequest request;
+        synchronized (pool) {
+            request = pool.obtain();
+        }
+        request.fromX = fromX;
+        request.fromZ = fromZ;
+        request.toX = toX;
+        request.toZ = toZ;
+        request.grid = grid;
+        int latency = latencyTicks;
+        if (latency <= 0) {
+            if (!queue.offer(request)) request.status = PathRequest.REJECTED;
+            return request;
+        }
+        request.readyTick = tick + latency;
+        request.useCache = false;
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.status = PathRequest.REJECTED;
+        }
+        return request;
+    }
+
+    /**
+     * Se o resultado de {@code request} já vale no {@code tick}. Com {@link #latencyTicks} é false
+     * até o tick carimbado e, nele, espera a worker terminar; sem, é só {@link PathRequest#isDone()}.
+     */
+    public boolean isReady(PathRequest request, long tick) {
+        if (request.readyTick == 0) return request.isDone();
+        if (tick < request.readyTick) return false;
+        synchronized (request) {
+            while (!request.isDone()) {
+                try {
+                    request.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Devolve o pedido; se ainda estiver na fila, a worker o devolve quando terminar. */
+    public void free(PathRequest request) {
+        synchronized (request) {
+            if (!request.isDone()) {
+                request.cancelled = true;
+                return;
+            }
+        }
+        synchronized (pool) {
+            pool.free(request);
+        }
+    }
+
+    /**
+     * Reamostra a área dada da colisão estática e publica um grid novo. Pedidos em andamento
+     * terminam no grid antigo; caminhos em cache que passam pelos setores tocados são descartados.
+     * Tem que rodar na thread da simulação, fora do passo de física.
+     */
+    public void invalidate(btCollisionWorld world, float minX, float minZ, float maxX, float maxZ) {
+        grid = NavGridBuilder.resample(grid, world, minX, minZ, maxX, maxZ);
+    }
+
+    public int cacheHits() {
+        return cache.hits;
+    }
+
+    public int cacheMisses() {
+        return cache.misses;
+    }
+
+    private class Worker implements Runnable {
+
+        private NavGrid workerGrid;
+        private IndexedAStarPathFinder<NavNode> cellFinder, corridorFinder, sectorFinder;
+        private final DefaultGraphPath<NavNode> nodePath = new DefaultGraphPath<>();
+        private final DefaultGraphPath<NavNode> sectorPath = new DefaultGraphPath<>();
+        private final IntArray sectors = new IntArray();
+        private boolean[] inCorridor;
+
+        // Visão do grid que só devolve arestas para dentro do corredor de setores
+        private final Array<Connection<NavNode>> filtered = new Array<>(false, 8);
+        private final IndexedGraph<NavNode> corridorGraph = new IndexedGraph<NavNode>() {
+            @Override
+            public int getIndex(NavNode node) {
+                return node.index;
+            }
+
+            @Override
+            public int getNodeCount() {
+                return workerGrid.nodes.length;
+            }
+
+            @Override
+            public Array<Connection<NavNode>> getConnections(NavNode fromNode) {
+                filtered.clear();
+                Array<Connection<NavNode>> all = fromNode.connections;
+                for (int i = 0; i < all.size; i++) {
+                    Connection<NavNode> connection = all.get(i);
+                    if (inCorridor[connection.getToNode().sector]) filtered.add(connection);
+                }
+                return filtered;
+            }
+        };
+
+        @Override
+        public void run() {
+            while (running) {
+                PathRequest request;
+                try {
+                    request = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int status;
+                try {
+                    status = solve(request);
+                } catch (RuntimeException e) {
+                    System.err.println("Erro no pathfinding: " + e.getMessage());
+                    status = PathRequest.NOT_FOUND;
+                }
+                boolean cancelled;
+                synchronized (request) {
+                    cancelled = request.cancelled;
+                    request.status = status;
+                    request.notifyAll();
+                }
+                if (cancelled) {
+                    synchronized (pool) {
+                        pool.free(request);
+                    }
+                }
+            }
+        }
+
+        private int solve(PathRequest request) {
+            NavGrid g = request.grid;
+            if (g != workerGrid) {
+                // Grid novo (invalidação): os finders guardam um registro por nó do grafo
+                workerGrid = g;
+                cellFinder = new IndexedAStarPathFinder<>(g);
+                corridorFinder = new IndexedAStarPathFinder<>(corridorGraph);
+                sectorFinder = new IndexedAStarPathFinder<>(g.sectorGraph);
+                inCorridor = new boolean[g.sectors.length];
+            }
+
+            NavNode start = g.nodeAt(request.fromX, request.fromZ);
+            NavNode goal = g.nodeAt(request.toX, request.toZ);
+            if (start == null || goal == null) return PathRequest.NOT_FOUND;
+
+            PathCache.Entry cachedPath = request.useCache ? cache.getPath(g, start.index, goal.index) : null;
+            if (cachedPath != null) {
+                request.points.addAll(cachedPath.points);
+                request.cached = true;
+                return PathRequest.FOUND;
+            }
+
+            // Nível de cima: corredor de setores
+            PathCache.Entry corridor = request.useCache ? cache.getCorridor(g, start.sector, goal.sector) : null;
+            int[] corridorSectors;
+            if (corridor != null) {
+                corridorSectors = corridor.corridor;
+            } else {
+                sectorPath.clear();
+                if (!sectorFinder.searchNodePath(g.sectors[start.sector], g.sectors[goal.sector], NavGrid.DISTANCE, sectorPath)) {
+                    return PathRequest.NOT_FOUND; // setores desconectados: não há caminho fino
+                }
+                corridorSectors = new int[sectorPath.getCount()];
+                for (int i = 0; i < corridorSectors.length; i++) corridorSectors[i] = sectorPath.get(i).index;
+                cache.putCorridor(g, start.sector, goal.sector, corridorSectors);
+            }
+
+            // Nível de baixo: A* só dentro do corredor (com os vizinhos, para não ficar apertado demais)
+            Arrays.fill(inCorridor, false);
+            for (int sector : corridorSectors) markWithNeighbours(g, sector);
+            nodePath.clear();
+            boolean found = corridorFinder.searchNodePath(start, goal, NavGrid.DISTANCE, nodePath);
+            if (!found) {
+                nodePath.clear();
+                found = cellFinder.searchNodePath(start, goal, NavGrid.DISTANCE, nodePath);
+            }
+            if (!found) return PathRequest.NOT_FOUND;
+
+            float[] points = simplify(nodePath);
+            request.points.addAll(points);
+            cache.putPath(g, start.index, goal.index, points, sectors);
+            return PathRequest.FOUND;
+        }
+
+        private void markWithNeighbours(NavGrid g, int sector) {
+            int sx = sector % g.sectorsX, sz = sector / g.sectorsX;
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = sx + dx, nz = sz + dz;
+                    if (nx >= 0 && nz >= 0 && nx < g.sectorsX && nz < g.sectorsZ) inCorridor[nz * g.sectorsX + nx] = true;
+                }
+            }
+        }
+
+        // Remove pontos colineares (o grid gera um ponto por célula) e anota os setores percorridos
+        private float[] simplify(DefaultGraphPath<NavNode> path) {
+            sectors.clear();
+            int count = path.getCount();
+            float[] out = new float[count * 3];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                NavNode node = path.get(i);
+                if (!sectors.contains(node.sector)) sectors.add(node.sector);
+                if (i > 0 && i < count - 1 && isStraight(path.get(i - 1), node, path.get(i + 1))) continue;
+                out[size++] = node.x;
+                out[size++] = node.y;
+                out[size++] = node.z;
+            }
+            return Arrays.copyOf(out, size);
+        }
+
+        private boolean isStraight(NavNode prev, NavNode node, NavNode next) {
+            return Math.abs((node.x - prev.x) - (next.x - node.x)) < 0.001f
+                && Math.abs((node.z - prev.z) - (next.z - node.z)) < 0.001f
+                && Math.abs(next.y - node.y) < 0.01f;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        queue.clear();
+        cache.clear();
+    }
+}
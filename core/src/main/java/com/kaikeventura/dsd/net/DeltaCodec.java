@@ -0,0 +1,99 @@
+package com.kaikeventura.dsd.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codifica um {@link EntityFrame} contra uma base que os dois lados têm (o último snapshot que o
+ * cliente confirmou), ou inteiro quando não há base.
+ * <p>
+ * Cada entidade: diferença de id para a anterior (varint), uma máscara dos campos presentes e os
+ * campos. Entidade que já estava na base só manda o que mudou, posição como diferença em zigzag;
+ * parada custa 2 bytes. Entidade nova manda tudo. Quem estava na base e não veio saiu do
+ * interesse do cliente.
+ */
+public final class DeltaCodec {
+
+    static final int FIELD_X = 1;
+    static final int FIELD_Y = 1 << 1;
+    static final int FIELD_Z = 1 << 2;
+    static final int FIELD_YAW = 1 << 3;
+    static final int FIELD_ANIM = 1 << 4;
+    static final int FIELD_FLAGS = 1 << 5;
+    static final int ALL_FIELDS = FIELD_X | FIELD_Y | FIELD_Z | FIELD_YAW | FIELD_ANIM | FIELD_FLAGS;
+
+    /** Maior registro possível: id e três posições em varints de 5 bytes, máscara, yaw, animação e flags. */
+    public static final int MAX_RECORD_BYTES = 5 + 1 + 3 * 5 + 2 + 1 + 1;
+
+    private DeltaCodec() {
+    }
+
+    /** @param base null para mandar o frame inteiro */
+    public static void encode(EntityFrame base, EntityFrame frame, ByteBuffer out) {
+        NetProtocol.putVarInt(out, frame.count);
+        int previousId = 0;
+        int b = 0;
+        for (int n = 0; n < frame.count; n++) {
+            int id = frame.ids[n];
+            NetProtocol.putVarInt(out, id - previousId);
+            previousId = id;
+
+            // Os dois frames estão ordenados por id: a base anda junto
+            int from = -1;
+            if (base != null) {
+                while (b < base.count && base.ids[b] < id) b++;
+                if (b < base.count && base.ids[b] == id) from = b;
+            }
+
+            int mask = ALL_FIELDS;
+            if (from >= 0) {
+                mask = 0;
+                if (frame.x[n] != base.x[from]) mask |= FIELD_X;
+                if (frame.y[n] != base.y[from]) mask |= FIELD_Y;
+                if (frame.z[n] != base.z[from]) mask |= FIELD_Z;
+                if (frame.yaw[n] != base.yaw[from]) mask |= FIELD_YAW;
+                if (frame.anim[n] != base.anim[from]) mask |= FIELD_ANIM;
+                if (frame.flags[n] != base.flags[from]) mask |= FIELD_FLAGS;
+            }
+            out.put((byte) mask);
+            if ((mask & FIELD_X) != 0) NetProtocol.putVarInt(out, NetProtocol.zigZag(frame.x[n] - (from >= 0 ? base.x[from] : 0)));
+            if ((mask & FIELD_Y) != 0) NetProtocol.putVarInt(out, NetProtocol.zigZag(frame.y[n] - (from >= 0 ? base.y[from] : 0)));
+            if ((mask & FIELD_Z) != 0) NetProtocol.putVarInt(out, NetProtocol.zigZag(frame.z[n] - (from >= 0 ? base.z[from] : 0)));
+            if ((mask & FIELD_YAW) != 0) out.putShort((short) frame.yaw[n]);
+            if ((mask & FIELD_ANIM) != 0) out.put((byte) frame.anim[n]);
+            if ((mask & FIELD_FLAGS) != 0) out.put((byte) frame.flags[n]);
+        }
+    }
+
+    /**
+     * Decodifica em {@code out} (que não pode ser a base). Pacote malformado lança
+     * {@link IllegalArgumentException} ou {@link java.nio.BufferUnderflowException}.
+     */
+    public static void decode(EntityFrame base, ByteBuffer in, EntityFrame out) {
+        int count = NetProtocol.getVarInt(in);
+        if (count < 0 || count > out.capacity()) throw new IllegalArgumentException("Snapshot com " + count + " entidades");
+        out.count = 0;
+        int id = 0;
+        int b = 0;
+        for (int n = 0; n < count; n++) {
+            id += NetProtocol.getVarInt(in);
+            if (n > 0 && id <= out.ids[n - 1]) throw new IllegalArgumentException("Ids fora de ordem no snapshot");
+
+            int from = -1;
+            if (base != null) {
+                while (b < base.count && base.ids[b] < id) b++;
+                if (b < base.count && base.ids[b] == id) from = b;
+            }
+
+            int mask = in.get() & 0xFF;
+            if (from < 0 && mask != ALL_FIELDS) throw new IllegalArgumentException("Entidade " + id + " sem base nem estado completo");
+            out.ids[n] = id;
+            out.x[n] = (mask & FIELD_X) != 0 ? NetProtocol.unZigZag(NetProtocol.getVarInt(in)) + (from >= 0 ? base.x[from] : 0) : base.x[from];
+            out.y[n] = (mask & FIELD_Y) != 0 ? NetProtocol.unZigZag(NetProtocol.getVarInt(in)) + (from >= 0 ? base.y[from] : 0) : base.y[from];
+            out.z[n] = (mask & FIELD_Z) != 0 ? NetProtocol.unZigZag(NetProtocol.getVarInt(in)) + (from >= 0 ? base.z[from] : 0) : base.z[from];
+            out.yaw[n] = (mask & FIELD_YAW) != 0 ? in.getShort() & 0xFFFF : base.yaw[from];
+            out.anim[n] = (mask & FIELD_ANIM) != 0 ? in.get() & 0xFF : base.anim[from];
+            out.flags[n] = (mask & FIELD_FLAGS) != 0 ? in.get() & 0xFF : base.flags[from];
+            out.count = n + 1;
+        }
+    }
+}
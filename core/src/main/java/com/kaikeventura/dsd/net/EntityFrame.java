@@ -0,0 +1,84 @@
+package com.kaikeventura.dsd.net;
+
+import com.kaikeventura.dsd.entity.EntityStore;
+
+/**
+ * O que um cliente vê num snapshot: as entidades em volta dele, já quantizadas e ordenadas por id.
+ * Servidor e cliente guardam os últimos num {@link SnapshotRing} para servir de base ao
+ * {@link DeltaCodec}.
+ */
+public final class EntityFrame {
+
+    public static final int FLAG_ATTACKING = 1;
+    public static final int FLAG_GROUNDED = 1 << 1;
+    public static final int FLAG_PLAYER = 1 << 2;
+
+    /** Número do snapshot (por cliente), -1 enquanto vazio. */
+    public int seq = -1;
+    public int count;
+    public final int[] ids;
+    public final int[] x, y, z;
+    public final int[] yaw;
+    public final int[] anim; // animState + 1 (0 = nenhum)
+    public final int[] flags;
+
+    public EntityFrame(int capacity) {
+        ids = new int[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        z = new int[capacity];
+        yaw = new int[capacity];
+        anim = new int[capacity];
+        flags = new int[capacity];
+    }
+
+    public int capacity() {
+        return ids.length;
+    }
+
+    /** Acrescenta a entidade {@code i} do store; os ids devem chegar em ordem crescente. */
+    public void add(EntityStore store, int i) {
+        int n = count++;
+        ids[n] = store.ids[i];
+        x[n] = NetProtocol.quantizePosition(store.posX[i]);
+        y[n] = NetProtocol.quantizePosition(store.posY[i]);
+        z[n] = NetProtocol.quantizePosition(store.posZ[i]);
+        yaw[n] = NetProtocol.quantizeYaw(store.yaw[i]);
+        anim[n] = store.animState[i] + 1;
+        int f = 0;
+        if (store.attacking[i]) f |= FLAG_ATTACKING;
+        if (store.grounded[i]) f |= FLAG_GROUNDED;
+        if (store.kind[i] == EntityStore.KIND_PLAYER) f |= FLAG_PLAYER;
+        flags[n] = f;
+    }
+
+    /** Posição de {@code id} (busca binária), ou -1. */
+    public int indexOf(int id) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = ids[mid];
+            if (value < id) low = mid + 1;
+            else if (value > id) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public void set(EntityFrame other) {
+        seq = other.seq;
+        count = other.count;
+        System.arraycopy(other.ids, 0, ids, 0, count);
+        System.arraycopy(other.x, 0, x, 0, count);
+        System.arraycopy(other.y, 0, y, 0, count);
+        System.arraycopy(other.z, 0, z, 0, count);
+        System.arraycopy(other.yaw, 0, yaw, 0, count);
+        System.arraycopy(other.anim, 0, anim, 0, count);
+        System.arraycopy(other.flags, 0, flags, 0, count);
+    }
+
+    public void clear() {
+        seq = -1;
+        count = 0;
+    }
+}
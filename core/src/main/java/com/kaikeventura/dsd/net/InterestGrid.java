@@ -0,0 +1,87 @@
+package com.kaikeventura.dsd.net;
+
+import com.kaikeventura.dsd.entity.EntityStore;
+
+import java.util.Arrays;
+
+/**
+ * Hash espacial das entidades no plano XZ, reconstruído uma vez por tick de envio e consultado por
+ * cliente. Células do tamanho do raio de interesse: cada consulta olha só as 3x3 células em volta,
+ * então o custo por cliente depende de quantos estão perto, não do total do mundo.
+ * <p>
+ * As células caem num número fixo de buckets (counting sort, sem alocar); células diferentes no
+ * mesmo bucket só trazem candidatos a mais, que o teste de distância descarta.
+ */
+public final class InterestGrid {
+
+    public final float cellSize;
+    private final int mask;
+    private final int[] bucketStart;
+    private final int[] cursor;
+    private final int[] entries;
+    private final int[] entityBucket;
+    private final int[] visited = new int[9];
+
+    /** @param buckets potência de 2 */
+    public InterestGrid(float cellSize, int buckets, int capacity) {
+        if (Integer.bitCount(buckets) != 1) throw new IllegalArgumentException("buckets deve ser potência de 2: " + buckets);
+        this.cellSize = cellSize;
+        mask = buckets - 1;
+        bucketStart = new int[buckets + 1];
+        cursor = new int[buckets];
+        entries = new int[capacity];
+        entityBucket = new int[capacity];
+    }
+
+    public void build(EntityStore store) {
+        int count = store.count;
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < count; i++) {
+            int bucket = bucket(cell(store.posX[i]), cell(store.posZ[i]));
+            entityBucket[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int b = 0; b <= mask; b++) bucketStart[b + 1] += bucketStart[b];
+        System.arraycopy(bucketStart, 0, cursor, 0, mask + 1);
+        for (int i = 0; i < count; i++) entries[cursor[entityBucket[i]]++] = i;
+    }
+
+    /**
+     * Entidades a até {@code radius} (no máximo {@link #cellSize}) de (x, z), exceto {@code exclude}.
+     * Cada uma vai em {@code out} como {@code (bits do float da distância² << 32) | índice}, para que
+     * ordenar o array ordene por distância. Devolve quantas.
+     */
+    public int query(EntityStore store, float x, float z, float radius, int exclude, long[] out) {
+        float radius2 = radius * radius;
+        int cx = cell(x), cz = cell(z);
+        int visitedCount = 0;
+        int n = 0;
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int bucket = bucket(cx + dx, cz + dz);
+                boolean seen = false;
+                for (int v = 0; v < visitedCount; v++) seen |= visited[v] == bucket;
+                if (seen) continue;
+                visited[visitedCount++] = bucket;
+
+                for (int e = bucketStart[bucket], end = bucketStart[bucket + 1]; e < end; e++) {
+                    int i = entries[e];
+                    if (i == exclude) continue;
+                    float ex = store.posX[i] - x, ez = store.posZ[i] - z;
+                    float dist2 = ex * ex + ez * ez;
+                    if (dist2 > radius2 || n == out.length) continue;
+                    out[n++] = ((long) Float.floatToRawIntBits(dist2) << 32) | i;
+                }
+            }
+        }
+        return n;
+    }
+
+    private int cell(float value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private int bucket(int cx, int cz) {
+        return (cx * 73856093 ^ cz * 19349663) & mask;
+    }
+}
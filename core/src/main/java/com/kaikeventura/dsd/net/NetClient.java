@@ -0,0 +1,399 @@
+package com.kaikeventura.dsd.net;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.sim.GameSession;
+import com.kaikeventura.dsd.sim.GameWorld;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Lado cliente da rede, em volta de uma {@link GameSession} local (sem inimigos próprios).
+ * <p>
+ * Predição: o jogador ({@link GameWorld#PLAYER}) roda o {@code PlayerController} aqui mesmo com o
+ * input do tick, sem esperar o servidor. Cada tick manda os últimos {@link NetProtocol#REDUNDANT_INPUTS}
+ * frames de input e guarda a posição prevista depois dele. O snapshot diz qual foi o último input que
+ * o servidor aplicou e onde o jogador ficou: a diferença para a posição prevista naquele tick é o
+ * erro. Em vez de voltar o mundo e re-simular (o Bullet não volta no tempo), o erro é somado às
+ * previsões seguintes e aplicado aos poucos na posição atual ({@link #CORRECTION_RATE} por tick, de
+ * uma vez acima de {@link #SNAP_DISTANCE}); o deslocamento que o input produziu desde então fica.
+ * <p>
+ * Todas as outras entidades são proxies ({@code EntityStore.remote}) criados e removidos conforme
+ * entram e saem do interesse, interpolados entre os dois últimos snapshots. Tudo acontece em
+ * {@link #tick}, com a física parada entre o sync e o passo.
+ */
+public class NetClient implements Disposable {
+
+    public interface Listener {
+        /** Proxy novo em {@code index} (para prender a espada, por exemplo). */
+        void proxySpawned(int index);
+    }
+
+    private static final int HISTORY = 128;
+    private static final int HISTORY_MASK = HISTORY - 1;
+    // Erro abaixo disso é ruído de float; acima de SNAP_DISTANCE não vale a pena suavizar
+    public static final float RECONCILE_EPSILON = 0.01f;
+    public static final float SNAP_DISTANCE = 2f;
+    public static final float CORRECTION_RATE = 0.2f;
+    static final int CONNECT_RETRY_TICKS = 30;
+    static final int MAX_PACKETS_PER_TICK = 64;
+    public static final float TIMEOUT_SECONDS = 5f;
+
+    public final GameSession session;
+    private final GameWorld world;
+    public final UdpEndpoint endpoint;
+    private final InetSocketAddress server;
+    private final int nonce = (int) System.nanoTime();
+    public Listener listener;
+
+    public boolean connected;
+    public boolean rejected;
+    public int entityId = -1;
+    private int sendInterval = 1;
+    private long lastHeardTick;
+    private final int timeoutTicks;
+
+    // Input mandado e posição prevista depois de cada tick (posição no store + correção pendente)
+    private final InputFrame[] inputs = new InputFrame[HISTORY];
+    private int firstInputTick = -1;
+    private final float[] predictedX = new float[HISTORY];
+    private final float[] predictedY = new float[HISTORY];
+    private final float[] predictedZ = new float[HISTORY];
+    private final int[] predictedTicks = new int[HISTORY];
+    private int newestPredicted = -1;
+    private float pendingX, pendingY, pendingZ;
+
+    // Snapshots decodificados (bases dos próximos deltas)
+    private final SnapshotRing received = new SnapshotRing(NetProtocol.MAX_SNAPSHOT_ENTITIES);
+    private final EntityFrame decoded = new EntityFrame(NetProtocol.MAX_SNAPSHOT_ENTITIES);
+    private int lastSnapshot = -1;
+
+    // Proxies: id no servidor -> índice no store, e a interpolação por índice
+    private final IntIntMap proxies = new IntIntMap();
+    private final int[] proxyId;
+    private final int[] proxySeen;
+    private final int[] proxyAge;
+    private final float[] fromX, fromY, fromZ, fromYaw;
+    private final float[] toX, toY, toZ, toYaw;
+
+    // Métricas desde a conexão
+    public int snapshots;
+    public int corrections;
+    public int malformed;
+    public float maxError;
+    private double errorSum;
+    private int errorSamples;
+
+    /** @param address {@code host} ou {@code host:porta} (sem porta, {@link NetProtocol#DEFAULT_PORT}) */
+    public NetClient(GameSession session, String address) {
+        this(session, parse(address));
+    }
+
+    public NetClient(GameSession session, InetSocketAddress server) {
+        if (!session.world.kinematicCharacters) {
+            throw new IllegalArgumentException("Proxies de rede precisam de personagens cinemáticos");
+        }
+        this.session = session;
+        this.world = session.world;
+        this.server = server;
+        endpoint = UdpEndpoint.open();
+        timeoutTicks = Math.round(TIMEOUT_SECONDS / session.step);
+        for (int i = 0; i < HISTORY; i++) {
+            inputs[i] = new InputFrame();
+            predictedTicks[i] = -1;
+        }
+        int capacity = world.entities.capacity;
+        proxyId = new int[capacity];
+        proxySeen = new int[capacity];
+        proxyAge = new int[capacity];
+        fromX = new float[capacity];
+        fromY = new float[capacity];
+        fromZ = new float[capacity];
+        fromYaw = new float[capacity];
+        toX = new float[capacity];
+        toY = new float[capacity];
+        toZ = new float[capacity];
+        toYaw = new float[capacity];
+    }
+
+    public static InetSocketAddress parse(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) return new InetSocketAddress(address, NetProtocol.DEFAULT_PORT);
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /** Um tick da sessão com o input local, no lugar de {@code session.tick(frame)}. */
+    public void tick(InputFrame frame) {
+        world.sync();
+        int tick = (int) session.tick;
+        if (tick > 0) recordPrediction(tick - 1);
+        receive(tick);
+
+        if (connected) {
+            applyCorrection();
+            updateProxies();
+        } else if (!rejected && tick % CONNECT_RETRY_TICKS == 0) {
+            endpoint.begin(NetProtocol.CONNECT).putInt(nonce);
+            endpoint.send(server);
+        }
+
+        session.tick(frame);
+
+        if (connected) {
+            sendInput(tick, frame);
+            if (tick - lastHeardTick > timeoutTicks) {
+                System.err.println("Servidor " + server + " parou de responder");
+                reset();
+            }
+        }
+    }
+
+    private void recordPrediction(int tick) {
+        int slot = tick & HISTORY_MASK;
+        EntityStore store = world.entities;
+        predictedTicks[slot] = tick;
+        predictedX[slot] = store.posX[GameWorld.PLAYER] + pendingX;
+        predictedY[slot] = store.posY[GameWorld.PLAYER] + pendingY;
+        predictedZ[slot] = store.posZ[GameWorld.PLAYER] + pendingZ;
+        newestPredicted = tick;
+    }
+
+    private void receive(int tick) {
+        for (int p = 0; p < MAX_PACKETS_PER_TICK; p++) {
+            SocketAddress from = endpoint.receive();
+            if (from == null) return;
+            if (!from.equals(server)) continue;
+            ByteBuffer in = endpoint.in;
+            try {
+                int type = NetProtocol.readHeader(in);
+                if (type == NetProtocol.ACCEPT) {
+                    onAccept(in, tick);
+                } else if (type == NetProtocol.REJECT) {
+                    if (in.getInt() == nonce && !connected) {
+                        rejected = true;
+                        System.err.println("Servidor " + server + " cheio");
+                    }
+                } else if (type == NetProtocol.SNAPSHOT && connected) {
+                    onSnapshot(in, tick);
+                }
+            } catch (RuntimeException e) {
+                // Pacote truncado ou fora do formato: descarta
+                malformed++;
+            }
+        }
+    }
+
+    private void onAccept(ByteBuffer in, int tick) {
+        if (in.getInt() != nonce || connected) return;
+        entityId = in.getInt();
+        sendInterval = Math.max(1, in.getInt());
+        float x = in.getFloat(), y = in.getFloat(), z = in.getFloat();
+
+        // Começa onde o servidor pôs a entidade
+        EntityStore store = world.entities;
+        int player = GameWorld.PLAYER;
+        store.posX[player] = store.prevPosX[player] = x;
+        store.posY[player] = store.prevPosY[player] = y;
+        store.posZ[player] = store.prevPosZ[player] = z;
+        pendingX = pendingY = pendingZ = 0f;
+        connected = true;
+        lastHeardTick = tick;
+        System.out.println("Conectado a " + server + " como entidade " + entityId);
+    }
+
+    private void onSnapshot(ByteBuffer in, int tick) {
+        int seq = in.getInt();
+        int baseSeq = in.getInt();
+        int lastInput = in.getInt();
+        float x = in.getFloat(), y = in.getFloat(), z = in.getFloat();
+        if (seq <= lastSnapshot) return; // atrasado ou repetido
+
+        EntityFrame base = null;
+        if (baseSeq >= 0) {
+            base = received.get(baseSeq);
+            if (base == null) return; // base já saiu do histórico; o próximo vem contra o ack novo
+        }
+        DeltaCodec.decode(base, in, decoded);
+        decoded.seq = seq;
+        received.claim(seq).set(decoded);
+        lastSnapshot = seq;
+        lastHeardTick = tick;
+        snapshots++;
+
+        reconcile(lastInput, x, y, z);
+        applyEntities(decoded);
+    }
+
+    private void reconcile(int lastInput, float x, float y, float z) {
+        if (lastInput < 0) return;
+        int slot = lastInput & HISTORY_MASK;
+        if (predictedTicks[slot] != lastInput) return; // fora do histórico
+
+        float ex = x - predictedX[slot], ey = y - predictedY[slot], ez = z - predictedZ[slot];
+        float error = (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+        errorSum += error;
+        errorSamples++;
+        maxError = Math.max(maxError, error);
+        if (error < RECONCILE_EPSILON) return;
+
+        // As previsões depois de lastInput partiram da posição errada: andam junto com a correção
+        corrections++;
+        for (int t = lastInput; t <= newestPredicted; t++) {
+            int s = t & HISTORY_MASK;
+            if (predictedTicks[s] != t) continue;
+            predictedX[s] += ex;
+            predictedY[s] += ey;
+            predictedZ[s] += ez;
+        }
+        pendingX += ex;
+        pendingY += ey;
+        pendingZ += ez;
+    }
+
+    private void applyCorrection() {
+        float length2 = pendingX * pendingX + pendingY * pendingY + pendingZ * pendingZ;
+        if (length2 == 0f) return;
+        float fraction = length2 > SNAP_DISTANCE * SNAP_DISTANCE || length2 < 1e-6f ? 1f : CORRECTION_RATE;
+        float dx = pendingX * fraction, dy = pendingY * fraction, dz = pendingZ * fraction;
+        EntityStore store = world.entities;
+        store.posX[GameWorld.PLAYER] += dx;
+        store.posY[GameWorld.PLAYER] += dy;
+        store.posZ[GameWorld.PLAYER] += dz;
+        pendingX -= dx;
+        pendingY -= dy;
+        pendingZ -= dz;
+        if (fraction == 1f) pendingX = pendingY = pendingZ = 0f;
+    }
+
+    private void applyEntities(EntityFrame frame) {
+        EntityStore store = world.entities;
+        int seq = frame.seq;
+        for (int n = 0; n < frame.count; n++) {
+            int id = frame.ids[n];
+            float x = NetProtocol.position(frame.x[n]);
+            float y = NetProtocol.position(frame.y[n]);
+            float z = NetProtocol.position(frame.z[n]);
+            float yaw = NetProtocol.yaw(frame.yaw[n]);
+
+            int i = proxies.get(id, -1);
+            if (i < 0) {
+                if (store.count == store.capacity) continue;
+                int kind = (frame.flags[n] & EntityFrame.FLAG_PLAYER) != 0 ? EntityStore.KIND_PLAYER : EntityStore.KIND_ENEMY;
+                i = world.spawnRemote(kind, x, y, z);
+                proxies.put(id, i);
+                proxyId[i] = id;
+                fromX[i] = x;
+                fromY[i] = y;
+                fromZ[i] = z;
+                fromYaw[i] = yaw;
+                store.remoteYaw[i] = store.yaw[i] = store.prevYaw[i] = yaw;
+                if (listener != null) listener.proxySpawned(i);
+            } else {
+                // Continua de onde a interpolação está
+                fromX[i] = store.remoteX[i];
+                fromY[i] = store.remoteY[i];
+                fromZ[i] = store.remoteZ[i];
+                fromYaw[i] = store.remoteYaw[i];
+            }
+            toX[i] = x;
+            toY[i] = y;
+            toZ[i] = z;
+            toYaw[i] = yaw;
+            proxyAge[i] = 0;
+            proxySeen[i] = seq;
+
+            store.animState[i] = frame.anim[n] - 1;
+            boolean attacking = (frame.flags[n] & EntityFrame.FLAG_ATTACKING) != 0;
+            if (attacking && !store.attacking[i]) store.attackTimer[i] = world.animation.attackDuration;
+            store.attacking[i] = attacking;
+        }
+
+        // Quem não veio saiu do interesse (de trás para frente: o despawn traz o último para i)
+        for (int i = store.count - 1; i > GameWorld.PLAYER; i--) {
+            if (store.remote[i] && proxySeen[i] != seq) despawnProxy(i);
+        }
+    }
+
+    private void despawnProxy(int i) {
+        EntityStore store = world.entities;
+        proxies.remove(proxyId[i], -1);
+        int last = store.count - 1;
+        world.despawn(i);
+        if (i == last) return;
+        proxyId[i] = proxyId[last];
+        proxySeen[i] = proxySeen[last];
+        proxyAge[i] = proxyAge[last];
+        fromX[i] = fromX[last];
+        fromY[i] = fromY[last];
+        fromZ[i] = fromZ[last];
+        fromYaw[i] = fromYaw[last];
+        toX[i] = toX[last];
+        toY[i] = toY[last];
+        toZ[i] = toZ[last];
+        toYaw[i] = toYaw[last];
+        if (store.remote[i]) proxies.put(proxyId[i], i);
+    }
+
+    // Interpola cada proxy do snapshot anterior até o último em sendInterval ticks
+    private void updateProxies() {
+        EntityStore store = world.entities;
+        for (int i = 0; i < store.count; i++) {
+            if (!store.remote[i]) continue;
+            float a = Math.min(1f, ++proxyAge[i] / (float) sendInterval);
+            store.remoteX[i] = fromX[i] + (toX[i] - fromX[i]) * a;
+            store.remoteY[i] = fromY[i] + (toY[i] - fromY[i]) * a;
+            store.remoteZ[i] = fromZ[i] + (toZ[i] - fromZ[i]) * a;
+            store.remoteYaw[i] = MathUtils.lerpAngleDeg(fromYaw[i], toYaw[i], a);
+        }
+    }
+
+    private void sendInput(int tick, InputFrame frame) {
+        int slot = tick & HISTORY_MASK;
+        inputs[slot].set(frame);
+        if (firstInputTick < 0) firstInputTick = tick;
+
+        int count = Math.min(NetProtocol.REDUNDANT_INPUTS, tick - firstInputTick + 1);
+        ByteBuffer out = endpoint.begin(NetProtocol.INPUT);
+        out.putInt(tick);
+        out.putInt(lastSnapshot);
+        out.put((byte) count);
+        for (int k = 0; k < count; k++) inputs[(tick - k) & HISTORY_MASK].write(out);
+        endpoint.send(server);
+    }
+
+    /** Volta a tentar conectar do zero: proxies removidos, históricos limpos. */
+    private void reset() {
+        EntityStore store = world.entities;
+        for (int i = store.count - 1; i > GameWorld.PLAYER; i--) {
+            if (store.remote[i]) despawnProxy(i);
+        }
+        connected = false;
+        entityId = -1;
+        lastSnapshot = -1;
+        firstInputTick = -1;
+        received.clear();
+        pendingX = pendingY = pendingZ = 0f;
+    }
+
+    public float meanError() {
+        return errorSamples == 0 ? 0f : (float) (errorSum / errorSamples);
+    }
+
+    public int proxyCount() {
+        return proxies.size;
+    }
+
+    @Override
+    public void dispose() {
+        if (connected) {
+            endpoint.begin(NetProtocol.DISCONNECT);
+            endpoint.send(server);
+        }
+        endpoint.dispose();
+    }
+}
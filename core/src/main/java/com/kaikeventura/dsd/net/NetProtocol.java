@@ -0,0 +1,100 @@
+package com.kaikeventura.dsd.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato dos pacotes UDP entre cliente e servidor. Todo pacote começa com {@link #MAGIC} e o tipo,
+ * em ordem de rede, e nenhum passa de {@link #MTU} bytes.
+ * <pre>
+ * CONNECT    nonce:int
+ * ACCEPT     nonce:int entityId:int sendInterval:int x:float y:float z:float
+ * REJECT     nonce:int
+ * INPUT      tick:int ackSnapshot:int count:byte frames (InputFrame, do mais novo para o mais antigo)
+ * SNAPSHOT   seq:int baseSeq:int lastInput:int x:float y:float z:float entidades (DeltaCodec)
+ * DISCONNECT
+ * </pre>
+ * Posição das outras entidades vai quantizada em 1/{@link #POSITION_SCALE} m e yaw em 1/65536 de
+ * volta; a do próprio jogador vai em float, porque é ela que a reconciliação compara.
+ */
+public final class NetProtocol {
+
+    public static final int MAGIC = 0x44534431; // "DSD1"
+    public static final int MTU = 1200;
+    // Porta da sessão 0 do servidor dedicado; a sessão n escuta em DEFAULT_PORT + n
+    public static final int DEFAULT_PORT = 7777;
+    public static final int HEADER_BYTES = 5;
+
+    // Cliente -> servidor
+    public static final byte CONNECT = 1;
+    public static final byte INPUT = 2;
+    public static final byte DISCONNECT = 3;
+    // Servidor -> cliente
+    public static final byte ACCEPT = 10;
+    public static final byte REJECT = 11;
+    public static final byte SNAPSHOT = 12;
+
+    public static final float POSITION_SCALE = 64f;
+    // Frames de input repetidos em cada pacote: cobre REDUNDANT_INPUTS - 1 pacotes perdidos seguidos
+    public static final int REDUNDANT_INPUTS = 8;
+    // Entidades por snapshot: no pior caso (todas novas, DeltaCodec.MAX_RECORD_BYTES cada) ainda cabe no MTU
+    public static final int MAX_SNAPSHOT_ENTITIES = 40;
+
+    private NetProtocol() {
+    }
+
+    public static void writeHeader(ByteBuffer out, byte type) {
+        out.putInt(MAGIC);
+        out.put(type);
+    }
+
+    /** Tipo do pacote, ou -1 se não for deste protocolo. */
+    public static int readHeader(ByteBuffer in) {
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) return -1;
+        return in.get();
+    }
+
+    public static int quantizePosition(float value) {
+        return Math.round(value * POSITION_SCALE);
+    }
+
+    public static float position(int quantized) {
+        return quantized / POSITION_SCALE;
+    }
+
+    /** Yaw em graus para 1/65536 de volta, em [0, 65536). */
+    public static int quantizeYaw(float degrees) {
+        return Math.round(degrees * (65536f / 360f)) & 0xFFFF;
+    }
+
+    public static float yaw(int quantized) {
+        return quantized * (360f / 65536f);
+    }
+
+    // Varint sem sinal (7 bits por byte, o bit alto diz que tem mais)
+    public static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint maior que 5 bytes");
+    }
+
+    // Zigzag: diferenças pequenas, positivas ou negativas, viram varints curtos
+    public static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
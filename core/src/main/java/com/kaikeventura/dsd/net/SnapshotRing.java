@@ -0,0 +1,42 @@
+package com.kaikeventura.dsd.net;
+
+/**
+ * Os últimos {@link #SIZE} {@link EntityFrame}s de um cliente, por número de snapshot. O servidor
+ * guarda o que mandou e o cliente o que decodificou; o snapshot confirmado pelo cliente é a base do
+ * próximo delta.
+ */
+public final class SnapshotRing {
+
+    public static final int SIZE = 32;
+    private static final int MASK = SIZE - 1;
+
+    private final EntityFrame[] frames = new EntityFrame[SIZE];
+
+    public SnapshotRing(int entitiesPerFrame) {
+        for (int i = 0; i < SIZE; i++) frames[i] = new EntityFrame(entitiesPerFrame);
+    }
+
+    /** O frame do snapshot {@code seq}, ou null se nunca existiu ou já foi sobrescrito. */
+    public EntityFrame get(int seq) {
+        if (seq < 0) return null;
+        EntityFrame frame = frames[seq & MASK];
+        return frame.seq == seq ? frame : null;
+    }
+
+    /** Limpa e devolve o slot de {@code seq} (o que estava nele deixa de valer). */
+    public EntityFrame claim(int seq) {
+        EntityFrame frame = frames[seq & MASK];
+        frame.clear();
+        frame.seq = seq;
+        return frame;
+    }
+
+    /** true se {@link #claim} de {@code seq} sobrescreveria {@code frame}. */
+    public boolean sameSlot(EntityFrame frame, int seq) {
+        return frames[seq & MASK] == frame;
+    }
+
+    public void clear() {
+        for (EntityFrame frame : frames) frame.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package com.kaikeventura.dsd.net;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+/**
+ * Um {@link DatagramChannel} não bloqueante com os buffers de entrada e saída pré-alocados (diretos,
+ * {@link NetProtocol#MTU} bytes). Quem usa faz polling na própria thread de tick; nada aqui aloca
+ * por pacote além do endereço de origem que o NIO devolve.
+ */
+public class UdpEndpoint implements Disposable {
+
+    public final DatagramChannel channel;
+    public final ByteBuffer in = ByteBuffer.allocateDirect(NetProtocol.MTU);
+    public final ByteBuffer out = ByteBuffer.allocateDirect(NetProtocol.MTU);
+
+    // Tráfego desde o início
+    public long bytesSent, bytesReceived;
+    public long packetsSent, packetsReceived;
+
+    // Perda simulada na recepção, para testar em loopback (0 = nenhuma)
+    public float simulatedLoss;
+    public long packetsLost;
+    private final Random random = new Random(0x5EEDL);
+
+    private UdpEndpoint(InetSocketAddress bind) {
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(bind);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Não foi possível abrir UDP em " + bind, e);
+        }
+    }
+
+    /** Servidor: porta fixa em todas as interfaces. */
+    public static UdpEndpoint bind(int port) {
+        return new UdpEndpoint(new InetSocketAddress(port));
+    }
+
+    /** Cliente: porta efêmera. */
+    public static UdpEndpoint open() {
+        return new UdpEndpoint(new InetSocketAddress(0));
+    }
+
+    public int localPort() {
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    /** Próximo pacote em {@link #in} (pronto para ler) e quem mandou; null se não tem nenhum. */
+    public SocketAddress receive() {
+        try {
+            while (true) {
+                in.clear();
+                SocketAddress from = channel.receive(in);
+                if (from == null) return null;
+                in.flip();
+                if (simulatedLoss > 0f && random.nextFloat() < simulatedLoss) {
+                    packetsLost++;
+                    continue;
+                }
+                packetsReceived++;
+                bytesReceived += in.remaining();
+                return from;
+            }
+        } catch (IOException e) {
+            // ICMP de porta fechada do outro lado e afins: UDP segue, o pacote só não existe
+            return null;
+        }
+    }
+
+    /** Limpa {@link #out} para escrever o próximo pacote. */
+    public ByteBuffer begin(byte type) {
+        out.clear();
+        NetProtocol.writeHeader(out, type);
+        return out;
+    }
+
+    /** Manda o que foi escrito em {@link #out} desde o {@link #begin}. */
+    public void send(SocketAddress to) {
+        out.flip();
+        int bytes = out.remaining();
+        try {
+            channel.send(out, to);
+            packetsSent++;
+            bytesSent += bytes;
+        } catch (IOException e) {
+            // Perdido como qualquer datagrama; o outro lado lida com a falta
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar UDP: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kaikeventura.dsd.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR com o tempo de cada fase de um frame. Só é emitido quando uma gravação JFR com o
+ * evento habilitado está ativa, por exemplo:
+ * {@code -XX:StartFlightRecording=filename=dsd.jfr,settings=profile}
+ */
+@Name("com.kaikeventura.dsd.Frame")
+@Label("Frame")
+@Category({"Dark Souls Demake", "Rendering"})
+@Description("Tempo por fase de um frame do GameScreen")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    @Label("Frame")
+    public long frame;
+
+    @Label("Input") @Timespan(Timespan.NANOSECONDS)
+    public long input;
+
+    @Label("AI") @Timespan(Timespan.NANOSECONDS)
+    public long ai;
+
+    @Label("Controllers") @Timespan(Timespan.NANOSECONDS)
+    public long controllers;
+
+    @Label("Animation + skinning") @Timespan(Timespan.NANOSECONDS)
+    public long animation;
+
+    @Label("Physics") @Timespan(Timespan.NANOSECONDS)
+    public long physics;
+
+    @Label("Scene") @Timespan(Timespan.NANOSECONDS)
+    public long scene;
+
+    @Label("FBO pass") @Timespan(Timespan.NANOSECONDS)
+    public long fboPass;
+
+    @Label("Upscale blit") @Timespan(Timespan.NANOSECONDS)
+    public long blit;
+
+    @Label("Draw calls")
+    public int drawCalls;
+
+    @Label("Shader switches")
+    public int shaderSwitches;
+
+    @Label("Texture bindings")
+    public int textureBindings;
+
+    @Label("Vertices")
+    public int vertices;
+}
@@ -0,0 +1,24 @@
+package com.kaikeventura.dsd.profiling;
+
+/** Fases medidas em cada frame, na ordem em que o GameScreen as executa. */
+public enum FramePhase {
+    INPUT("input"),
+    // Ticks de IA fatiados pelo AiScheduler
+    AI("ai"),
+    CONTROLLERS("controllers"),
+    // Inclui o cálculo das matrizes dos ossos (calculateTransforms) feito pelo PackedAnimator
+    ANIMATION("animation+skinning"),
+    PHYSICS("physics"),
+    // Transforms de render, câmera e espada
+    SCENE("scene"),
+    FBO_PASS("fbo pass"),
+    BLIT("upscale blit");
+
+    public static final FramePhase[] VALUES = values();
+
+    public final String label;
+
+    FramePhase(String label) {
+        this.label = label;
+    }
+}
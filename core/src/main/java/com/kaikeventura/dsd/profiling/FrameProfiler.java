@@ -0,0 +1,146 @@
+package com.kaikeventura.dsd.profiling;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import jdk.jfr.EventType;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Timers em nanossegundos por fase do frame + contadores do {@link GLProfiler}.
+ * <p>
+ * Cada fase pode ser aberta/fechada várias vezes no mesmo frame (vários ticks de simulação); os
+ * tempos são somados. No fim do frame tudo vai para um {@link FrameSampleRing}, de onde o overlay e
+ * a exportação CSV leem, e opcionalmente vira um {@link FrameEvent} no JFR.
+ */
+public class FrameProfiler {
+
+    private final FrameSampleRing ring;
+    private final long[] phaseTotals = new long[FramePhase.VALUES.length];
+    private final long[] phaseStart = new long[FramePhase.VALUES.length];
+    private long frameStart;
+    private long frame;
+
+    // Contadores de GL só ficam ligados quando alguém está olhando (o wrapper do GL tem custo)
+    private GLProfiler glProfiler;
+
+    private final EventType frameEventType = EventType.getEventType(FrameEvent.class);
+
+    public FrameProfiler(int capacity) {
+        ring = new FrameSampleRing(capacity);
+    }
+
+    public FrameSampleRing ring() {
+        return ring;
+    }
+
+    public void setGLCountersEnabled(boolean enabled) {
+        if (enabled && glProfiler == null) glProfiler = new GLProfiler(Gdx.graphics);
+        if (glProfiler == null) return;
+        if (enabled) {
+            glProfiler.enable();
+            glProfiler.reset();
+        } else {
+            glProfiler.disable();
+        }
+    }
+
+    public void beginFrame() {
+        for (int i = 0; i < phaseTotals.length; i++) phaseTotals[i] = 0;
+        frameStart = System.nanoTime();
+    }
+
+    public void begin(FramePhase phase) {
+        phaseStart[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void end(FramePhase phase) {
+        phaseTotals[phase.ordinal()] += System.nanoTime() - phaseStart[phase.ordinal()];
+    }
+
+    public void endFrame() {
+        long total = System.nanoTime() - frameStart;
+
+        ring.put(FrameSampleRing.FRAME, frame);
+        ring.put(FrameSampleRing.TOTAL, total);
+        for (int i = 0; i < phaseTotals.length; i++) {
+            ring.put(FrameSampleRing.PHASES + i, phaseTotals[i]);
+        }
+
+        int drawCalls = 0, shaderSwitches = 0, textureBindings = 0, vertices = 0;
+        if (glProfiler != null && glProfiler.isEnabled()) {
+            drawCalls = glProfiler.getDrawCalls();
+            shaderSwitches = glProfiler.getShaderSwitches();
+            textureBindings = glProfiler.getTextureBindings();
+            vertices = (int) glProfiler.getVertexCount().total;
+            glProfiler.reset();
+        }
+        ring.put(FrameSampleRing.DRAW_CALLS, drawCalls);
+        ring.put(FrameSampleRing.SHADER_SWITCHES, shaderSwitches);
+        ring.put(FrameSampleRing.TEXTURE_BINDINGS, textureBindings);
+        ring.put(FrameSampleRing.VERTICES, vertices);
+        ring.publish();
+
+        // Só aloca o evento quando há uma gravação JFR pedindo por ele
+        if (frameEventType.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.frame = frame;
+            event.input = phaseTotals[FramePhase.INPUT.ordinal()];
+            event.ai = phaseTotals[FramePhase.AI.ordinal()];
+            event.controllers = phaseTotals[FramePhase.CONTROLLERS.ordinal()];
+            event.animation = phaseTotals[FramePhase.ANIMATION.ordinal()];
+            event.physics = phaseTotals[FramePhase.PHYSICS.ordinal()];
+            event.scene = phaseTotals[FramePhase.SCENE.ordinal()];
+            event.fboPass = phaseTotals[FramePhase.FBO_PASS.ordinal()];
+            event.blit = phaseTotals[FramePhase.BLIT.ordinal()];
+            event.drawCalls = drawCalls;
+            event.shaderSwitches = shaderSwitches;
+            event.textureBindings = textureBindings;
+            event.vertices = vertices;
+            event.commit();
+        }
+        frame++;
+    }
+
+    /**
+     * Copia o ring buffer e grava em CSV numa thread separada, para não travar o frame.
+     * Tempos em microssegundos.
+     */
+    public void exportCsv(final FileHandle file) {
+        final long[] samples = new long[ring.capacity() * FrameSampleRing.STRIDE];
+        final int count = ring.snapshot(samples);
+
+        Thread thread = new Thread(() -> {
+            try (Writer writer = file.writer(false, "UTF-8")) {
+                writer.write("frame,total_us");
+                for (FramePhase phase : FramePhase.VALUES) {
+                    writer.write(',');
+                    writer.write(phase.name().toLowerCase());
+                    writer.write("_us");
+                }
+                writer.write(",draw_calls,shader_switches,texture_bindings,vertices\n");
+
+                for (int i = 0; i < count; i++) {
+                    int offset = i * FrameSampleRing.STRIDE;
+                    writer.write(Long.toString(samples[offset + FrameSampleRing.FRAME]));
+                    for (int field = FrameSampleRing.TOTAL; field < FrameSampleRing.DRAW_CALLS; field++) {
+                        writer.write(',');
+                        writer.write(Double.toString(samples[offset + field] / 1000.0));
+                    }
+                    for (int field = FrameSampleRing.DRAW_CALLS; field < FrameSampleRing.STRIDE; field++) {
+                        writer.write(',');
+                        writer.write(Long.toString(samples[offset + field]));
+                    }
+                    writer.write('\n');
+                }
+                System.out.println("Profiler: " + count + " frames exportados para " + file.path());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Erro ao exportar profiler: " + e.getMessage());
+            }
+        }, "profiler-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,83 @@
+package com.kaikeventura.dsd.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer lock-free com as amostras dos últimos frames.
+ * <p>
+ * Um único escritor (a thread de render) grava cada frame num slot de {@link #STRIDE} longs e só
+ * então publica o índice. Leitores (overlay, exportação em outra thread) copiam sem travar e
+ * descartam os frames que o escritor sobrescreveu durante a cópia.
+ */
+public class FrameSampleRing {
+
+    // Layout de um slot: [frame, total, fases..., drawCalls, shaderSwitches, textureBindings, vertices]
+    public static final int FRAME = 0;
+    public static final int TOTAL = 1;
+    public static final int PHASES = 2;
+    public static final int DRAW_CALLS = PHASES + FramePhase.VALUES.length;
+    public static final int SHADER_SWITCHES = DRAW_CALLS + 1;
+    public static final int TEXTURE_BINDINGS = DRAW_CALLS + 2;
+    public static final int VERTICES = DRAW_CALLS + 3;
+    public static final int STRIDE = VERTICES + 1;
+
+    private final int capacity;
+    private final long[] data;
+    // Quantidade de frames já publicados (o próximo vai para written % capacity)
+    private final AtomicLong written = new AtomicLong();
+
+    public FrameSampleRing(int capacity) {
+        this.capacity = capacity;
+        this.data = new long[capacity * STRIDE];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Slot onde o escritor deve gravar o próximo frame. */
+    public int nextOffset() {
+        return (int) (written.get() % capacity) * STRIDE;
+    }
+
+    /** Escritor: grava {@code value} no campo {@code field} do próximo frame. */
+    public void put(int field, long value) {
+        data[nextOffset() + field] = value;
+    }
+
+    /** Escritor: publica o frame gravado. */
+    public void publish() {
+        written.lazySet(written.get() + 1);
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    /** Valor de um campo do frame {@code frame} (número absoluto; precisa ainda estar no buffer). */
+    public long get(long frame, int field) {
+        return data[(int) (frame % capacity) * STRIDE + field];
+    }
+
+    /**
+     * Copia até {@code out.length / STRIDE} frames mais recentes para {@code out}, do mais antigo
+     * para o mais novo. Retorna quantos frames válidos foram copiados.
+     */
+    public int snapshot(long[] out) {
+        int max = Math.min(capacity, out.length / STRIDE);
+        long end = written.get();
+        long start = Math.max(0, end - max);
+        for (long f = start; f < end; f++) {
+            System.arraycopy(data, (int) (f % capacity) * STRIDE, out, (int) (f - start) * STRIDE, STRIDE);
+        }
+        // Frames que o escritor pode ter sobrescrito enquanto copiávamos
+        long overwrittenUpTo = written.get() + 1 - capacity;
+        int skip = (int) Math.max(0, overwrittenUpTo - start);
+        int count = (int) (end - start);
+        if (skip >= count) return 0;
+        if (skip > 0) {
+            System.arraycopy(out, skip * STRIDE, out, 0, (count - skip) * STRIDE);
+        }
+        return count - skip;
+    }
+}
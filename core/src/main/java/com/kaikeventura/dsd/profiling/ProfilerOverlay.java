@@ -0,0 +1,71 @@
+package com.kaikeventura.dsd.profiling;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.CharArray;
+
+/**
+ * Texto por cima da imagem final com o último frame e a média dos últimos {@link #AVERAGE_FRAMES}.
+ * Desenhado em coordenadas de tela, depois do blit do FBO.
+ */
+public class ProfilerOverlay implements Disposable {
+
+    private static final int AVERAGE_FRAMES = 60;
+
+    private final FrameProfiler profiler;
+    private final BitmapFont font = new BitmapFont();
+    private final CharArray text = new CharArray(512);
+
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        font.setColor(Color.YELLOW);
+    }
+
+    public void draw(SpriteBatch batch, float x, float y) {
+        FrameSampleRing ring = profiler.ring();
+        long newest = ring.written() - 1;
+        if (newest < 0) return;
+        int frames = (int) Math.min(AVERAGE_FRAMES, Math.min(newest + 1, ring.capacity() - 1));
+
+        text.clear();
+        text.append("frame ").append(newest).append("   (ms: ultimo / media ").append(frames).append(")\n");
+        appendLine(ring, newest, frames, FrameSampleRing.TOTAL, "total");
+        for (FramePhase phase : FramePhase.VALUES) {
+            appendLine(ring, newest, frames, FrameSampleRing.PHASES + phase.ordinal(), phase.label);
+        }
+        text.append("draw calls ").append(ring.get(newest, FrameSampleRing.DRAW_CALLS))
+            .append("  shaders ").append(ring.get(newest, FrameSampleRing.SHADER_SWITCHES))
+            .append("  tex binds ").append(ring.get(newest, FrameSampleRing.TEXTURE_BINDINGS))
+            .append("  verts ").append(ring.get(newest, FrameSampleRing.VERTICES));
+
+        batch.begin();
+        font.draw(batch, text, x, y);
+        batch.end();
+    }
+
+    private void appendLine(FrameSampleRing ring, long newest, int frames, int field, String label) {
+        long sum = 0;
+        for (int i = 0; i < frames; i++) sum += ring.get(newest - i, field);
+        text.append(label).append(": ");
+        appendMillis(ring.get(newest, field));
+        text.append(" / ");
+        appendMillis(sum / Math.max(1, frames));
+        text.append('\n');
+    }
+
+    // Milissegundos com duas casas, sem String.format (que aloca)
+    private void appendMillis(long nanos) {
+        long hundredths = nanos / 10_000;
+        text.append(hundredths / 100).append('.');
+        long frac = hundredths % 100;
+        if (frac < 10) text.append('0');
+        text.append(frac);
+    }
+
+    @Override
+    public void dispose() {
+        font.dispose();
+    }
+}
@@ -0,0 +1,94 @@
+package com.kaikeventura.dsd.profiling;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Histograma de durações (ns) em buckets logarítmicos: cada potência de dois de microssegundos é
+ * dividida em {@link #SUB_BUCKETS} partes, então o erro de um percentil fica abaixo de 25% em
+ * qualquer escala. Tamanho fixo, sem alocação no {@link #add}.
+ */
+public class TickHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int OCTAVES = 32;
+
+    private final long[] counts = new long[OCTAVES * SUB_BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    public void add(long nanos) {
+        long micros = Math.max(0L, nanos / 1000L);
+        counts[bucket(micros)]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long maxNanos() {
+        return max;
+    }
+
+    public double meanNanos() {
+        return total == 0 ? 0.0 : (double) sum / total;
+    }
+
+    /** Limite superior (ns) do bucket onde cai o percentil {@code p} (0..1). */
+    public long percentileNanos(double p) {
+        if (total == 0) return 0L;
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= rank && counts[b] > 0) return Math.min(upperMicros(b) * 1000L, max);
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /** Percentis e uma barra por bucket não vazio. */
+    public void print(PrintStream out) {
+        out.printf("n=%d media=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+            total, meanNanos() / 1e6, percentileNanos(0.5) / 1e6, percentileNanos(0.9) / 1e6,
+            percentileNanos(0.99) / 1e6, percentileNanos(0.999) / 1e6, max / 1e6);
+        long peak = 1;
+        for (long count : counts) peak = Math.max(peak, count);
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] == 0) continue;
+            int bar = (int) Math.max(1, counts[b] * 40 / peak);
+            out.printf("  %8.3f-%8.3fms %9d %s%n", lowerMicros(b) / 1e3, upperMicros(b) / 1e3, counts[b], "#".repeat(bar));
+        }
+    }
+
+    // Abaixo de 4us um bucket por microssegundo; a partir daí 4 sub-buckets por potência de dois
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (octave - 2)) & (SUB_BUCKETS - 1);
+        return Math.min((octave - 1) * SUB_BUCKETS + sub, OCTAVES * SUB_BUCKETS - 1);
+    }
+
+    private static long lowerMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int octave = bucket / SUB_BUCKETS + 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (octave - 2);
+    }
+
+    private static long upperMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket + 1;
+        int octave = bucket / SUB_BUCKETS + 1;
+        return lowerMicros(bucket) + (1L << (octave - 2));
+    }
+}
@@ -0,0 +1,95 @@
+package com.kaikeventura.dsd.render;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.level.Chunk;
+import com.kaikeventura.dsd.level.ChunkData;
+import com.kaikeventura.dsd.level.LevelStreamer;
+
+/**
+ * Lado GL do streaming: sobe a malha de cada chunk que entrou no mundo (no máximo
+ * {@link #maxUploadsPerFrame} por frame), cadastra no {@link RenderQueue} e libera a GPU quando o
+ * chunk sai. Uma malha (e uma draw call) por chunk, com a cor nos vértices.
+ */
+public class ChunkRenderer implements LevelStreamer.ChunkListener, Disposable {
+
+    public int maxUploadsPerFrame = 1;
+
+    private final RenderQueue queue;
+    private final ModelBuilder builder = new ModelBuilder();
+    private final VertexAttributes attributes = new VertexAttributes(
+        VertexAttribute.Position(), VertexAttribute.Normal(), VertexAttribute.ColorPacked());
+    private final Array<Chunk> pending = new Array<>();
+    private final Array<Chunk> uploaded = new Array<>();
+
+    public ChunkRenderer(RenderQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void onChunkAdded(Chunk chunk) {
+        if (chunk.data != null && chunk.data.boxCount() > 0) pending.add(chunk);
+    }
+
+    @Override
+    public void onChunkRemoved(Chunk chunk) {
+        pending.removeValue(chunk, true);
+        if (chunk.renderData != null) {
+            release(chunk);
+            uploaded.removeValue(chunk, true);
+        }
+    }
+
+    /** Sobe as malhas pendentes dentro do orçamento do frame. Thread GL. */
+    public void update() {
+        for (int i = 0; i < maxUploadsPerFrame && pending.size > 0; i++) {
+            upload(pending.removeIndex(0));
+        }
+    }
+
+    /** Sobe tudo que estiver pendente de uma vez (tela de entrada, antes do primeiro frame). */
+    public void flush() {
+        while (pending.size > 0) {
+            upload(pending.removeIndex(0));
+        }
+    }
+
+    private void upload(Chunk chunk) {
+        ChunkData data = chunk.data;
+        Mesh mesh = new Mesh(true, data.vertices.length / ChunkData.VERTEX_SIZE, data.indices.length, attributes);
+        mesh.setVertices(data.vertices);
+        mesh.setIndices(data.indices);
+
+        builder.begin();
+        builder.part("chunk", mesh, GL20.GL_TRIANGLES, new Material());
+        builder.manage(mesh);
+        Model model = builder.end();
+
+        ModelInstance instance = new ModelInstance(model);
+        queue.add(instance);
+        chunk.renderData = instance;
+        uploaded.add(chunk);
+    }
+
+    private void release(Chunk chunk) {
+        ModelInstance instance = (ModelInstance) chunk.renderData;
+        queue.remove(instance);
+        instance.model.dispose();
+        chunk.renderData = null;
+    }
+
+    @Override
+    public void dispose() {
+        for (Chunk chunk : uploaded) release(chunk);
+        uploaded.clear();
+        pending.clear();
+    }
+}
@@ -0,0 +1,170 @@
+package com.kaikeventura.dsd.render;
+
+/**
+ * Escolhe a resolução interna (o FBO "PS1") pelo tempo de frame, entre os {@link #SCALES} da
+ * resolução base que cabem nos limites configurados.
+ * <p>
+ * Com vsync o tempo de frame não mostra folga de GPU, só quando ela acaba (frames perdidos). Por
+ * isso a regra é assimétrica:
+ * <ul>
+ *   <li>Frame médio acima do alvo por {@link #DOWN_SECONDS}: desce um nível.</li>
+ *   <li>Frame no alvo e o render() usando menos de {@link #UP_BUSY_FRACTION} do orçamento por
+ *       {@link #UP_SECONDS}: sobe um nível, como tentativa.</li>
+ *   <li>Se a tentativa perde frames logo depois (dentro de {@link #PROBE_SECONDS}), volta e esse
+ *       nível fica proibido por {@link #CEILING_SECONDS}, o dobro a cada nova falha seguida (até
+ *       {@link #MAX_CEILING_SECONDS}), para não oscilar.</li>
+ * </ul>
+ * Depois de cada troca as medições esperam {@link #SETTLE_SECONDS} (recriar o FBO custa um frame).
+ */
+public class DynamicResolution {
+
+    // Múltiplos da resolução base, do mais leve ao mais pesado
+    public static final float[] SCALES = {0.5f, 0.75f, 1f, 1.5f, 2f, 3f, 4f};
+
+    static final float SMOOTHING = 0.1f;
+    static final float DOWN_THRESHOLD = 1.15f;
+    static final float DOWN_SECONDS = 0.5f;
+    static final float UP_THRESHOLD = 1.05f;
+    static final float UP_BUSY_FRACTION = 0.5f;
+    static final float UP_SECONDS = 3f;
+    static final float PROBE_SECONDS = 5f;
+    static final float CEILING_SECONDS = 20f;
+    static final float MAX_CEILING_SECONDS = 320f;
+    static final float SETTLE_SECONDS = 0.5f;
+    // Frames maiores que isso são travadas pontuais (streaming, GC), não custo de resolução
+    static final float HITCH_SECONDS = 0.25f;
+
+    public final int baseWidth, baseHeight;
+    public final float targetSeconds;
+    private final int minLevel, maxLevel, baseLevel;
+
+    private boolean enabled;
+    private int level;
+    private float frameAverage, busyAverage;
+    private float overTime, underTime;
+    private float settle;
+    private float sinceUp;
+    private boolean probing;
+    private int ceiling;
+    private float ceilingTimer;
+    private float ceilingSeconds = CEILING_SECONDS;
+
+    /**
+     * @param minScale  menor múltiplo da base permitido
+     * @param maxScale  maior múltiplo da base permitido
+     * @param targetFps frames por segundo que a escala tenta segurar (a taxa do monitor, com vsync)
+     */
+    public DynamicResolution(int baseWidth, int baseHeight, float minScale, float maxScale, float targetFps) {
+        this.baseWidth = baseWidth;
+        this.baseHeight = baseHeight;
+        targetSeconds = 1f / targetFps;
+        int min = SCALES.length - 1, max = 0, base = 0;
+        for (int i = 0; i < SCALES.length; i++) {
+            if (SCALES[i] >= minScale - 1e-4f) min = Math.min(min, i);
+            if (SCALES[i] <= maxScale + 1e-4f) max = i;
+            if (SCALES[i] == 1f) base = i;
+        }
+        if (min > max) throw new IllegalArgumentException("Nenhuma escala entre " + minScale + " e " + maxScale);
+        minLevel = min;
+        maxLevel = max;
+        baseLevel = Math.max(min, Math.min(max, base));
+        level = baseLevel;
+        ceiling = maxLevel;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Liga ou desliga; desligado volta para a resolução base. Devolve true se a resolução mudou. */
+    public boolean setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        resetMeasurements();
+        ceiling = maxLevel;
+        ceilingTimer = 0f;
+        ceilingSeconds = CEILING_SECONDS;
+        probing = false;
+        if (enabled || level == baseLevel) return false;
+        level = baseLevel;
+        return true;
+    }
+
+    public float scale() {
+        return SCALES[level];
+    }
+
+    public int width() {
+        return Math.round(baseWidth * SCALES[level]);
+    }
+
+    public int height() {
+        return Math.round(baseHeight * SCALES[level]);
+    }
+
+    /**
+     * Uma medição por frame.
+     *
+     * @param frameSeconds tempo desde o frame anterior (o delta do render)
+     * @param busySeconds  tempo gasto dentro do render() no frame anterior
+     * @return true se a resolução mudou e o FBO precisa ser recriado
+     */
+    public boolean update(float frameSeconds, float busySeconds) {
+        if (!enabled) return false;
+        if (ceilingTimer > 0f) {
+            ceilingTimer -= frameSeconds;
+            if (ceilingTimer <= 0f) ceiling = maxLevel;
+        }
+        sinceUp += frameSeconds;
+        if (probing && sinceUp >= PROBE_SECONDS) {
+            // A subida aguentou
+            probing = false;
+            ceilingSeconds = CEILING_SECONDS;
+        }
+        if (settle > 0f) {
+            settle -= frameSeconds;
+            return false;
+        }
+        if (frameSeconds > HITCH_SECONDS) return false;
+
+        if (frameAverage == 0f) {
+            frameAverage = frameSeconds;
+            busyAverage = busySeconds;
+        } else {
+            frameAverage += (frameSeconds - frameAverage) * SMOOTHING;
+            busyAverage += (busySeconds - busyAverage) * SMOOTHING;
+        }
+
+        overTime = frameAverage > targetSeconds * DOWN_THRESHOLD ? overTime + frameSeconds : 0f;
+        boolean headroom = frameAverage < targetSeconds * UP_THRESHOLD && busyAverage < targetSeconds * UP_BUSY_FRACTION;
+        underTime = headroom ? underTime + frameSeconds : 0f;
+
+        if (overTime > DOWN_SECONDS && level > minLevel) {
+            // A última subida não aguentou: o nível dela fica de fora por um tempo
+            if (probing) {
+                probing = false;
+                ceiling = level - 1;
+                ceilingTimer = ceilingSeconds;
+                ceilingSeconds = Math.min(ceilingSeconds * 2f, MAX_CEILING_SECONDS);
+            }
+            return change(level - 1);
+        }
+        if (underTime > UP_SECONDS && level < Math.min(maxLevel, ceiling)) {
+            sinceUp = 0f;
+            probing = true;
+            return change(level + 1);
+        }
+        return false;
+    }
+
+    private boolean change(int newLevel) {
+        level = newLevel;
+        resetMeasurements();
+        settle = SETTLE_SECONDS;
+        return true;
+    }
+
+    private void resetMeasurements() {
+        frameAverage = busyAverage = 0f;
+        overTime = underTime = 0f;
+    }
+}
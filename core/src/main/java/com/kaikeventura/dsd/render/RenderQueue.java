@@ -0,0 +1,136 @@
+package com.kaikeventura.dsd.render;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.kaikeventura.dsd.entity.AttachmentSystem;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+/**
+ * Fila de render do passe do FBO: testa cada instância contra o frustum da câmera com uma esfera
+ * envolvente (calculada uma vez no espaço do modelo e levada para o mundo pelo transform) e só
+ * manda ao {@link ModelBatch} o que está visível. A ordenação por shader/material fica com o
+ * {@link StateSortRenderableSorter} do batch.
+ * <p>
+ * Os knights não são cadastrados um a um: todos usam a esfera do mesmo modelo e o resultado do
+ * teste vai para {@code EntityStore.visible}, que a animação usa para não calcular ossos de quem
+ * está fora da tela. O tamanho da esfera na tela decide o {@code EntityStore.animLod}: knights
+ * pequenos amostram a animação a cada 2 ou 4 ticks. Itens presos nos knights ({@link AttachmentSystem})
+ * seguem a visibilidade do dono.
+ */
+public class RenderQueue {
+
+    // A caixa do modelo skinned é da pose de bind; a animação pode passar um pouco dela
+    private static final float SKINNED_PADDING = 1.25f;
+
+    // Raio da esfera em fração da meia altura da tela abaixo do qual a animação cai para 1/2 e 1/4
+    public static final float ANIM_LOD_HALF_SIZE = 0.12f;
+    public static final float ANIM_LOD_QUARTER_SIZE = 0.06f;
+
+    public static class Entry {
+        public final ModelInstance instance;
+        final Vector3 localCenter = new Vector3();
+        float localRadius;
+        public boolean visible;
+
+        Entry(ModelInstance instance) {
+            this.instance = instance;
+            BoundingBox box = instance.calculateBoundingBox(new BoundingBox());
+            box.getCenter(localCenter);
+            localRadius = box.getDimensions(new Vector3()).len() * 0.5f;
+        }
+    }
+
+    private final Array<Entry> entries = new Array<>();
+
+    // Esfera compartilhada dos knights
+    private final Vector3 knightCenter = new Vector3();
+    private float knightRadius = -1f;
+
+    // Estatísticas do último frame
+    public int submitted;
+    public int culled;
+
+    private final Vector3 tmpCenter = new Vector3();
+    private final Vector3 tmpScale = new Vector3();
+
+    public Entry add(ModelInstance instance) {
+        Entry entry = new Entry(instance);
+        entries.add(entry);
+        return entry;
+    }
+
+    public void remove(ModelInstance instance) {
+        for (int i = entries.size - 1; i >= 0; i--) {
+            if (entries.get(i).instance == instance) entries.removeIndex(i);
+        }
+    }
+
+    /** Testa todas as instâncias e os knights contra o frustum da câmera. */
+    public void cull(Camera camera, EntityStore entities) {
+        submitted = 0;
+        culled = 0;
+
+        for (int i = 0; i < entries.size; i++) {
+            Entry entry = entries.get(i);
+            entry.visible = isVisible(camera, entry.instance.transform, entry.localCenter, entry.localRadius);
+            if (entry.visible) submitted++;
+            else culled++;
+        }
+
+        if (entities.count > 0 && knightRadius < 0f) {
+            BoundingBox box = entities.instances[0].calculateBoundingBox(new BoundingBox());
+            box.getCenter(knightCenter);
+            knightRadius = box.getDimensions(tmpCenter).len() * 0.5f * SKINNED_PADDING;
+        }
+        // Meia altura da tela em unidades de mundo a 1m da câmera (0: sem LOD, câmera ortográfica)
+        float halfHeightAtUnit = camera instanceof PerspectiveCamera
+            ? (float) Math.tan(Math.toRadians(((PerspectiveCamera) camera).fieldOfView * 0.5f)) : 0f;
+        for (int i = 0; i < entities.count; i++) {
+            boolean visible = isVisible(camera, entities.instances[i].transform, knightCenter, knightRadius);
+            entities.visible[i] = visible;
+            if (visible) {
+                submitted++;
+                // isVisible deixou o centro em mundo em tmpCenter
+                entities.animLod[i] = animationLod(camera.position.dst(tmpCenter), halfHeightAtUnit);
+            } else {
+                culled++;
+            }
+        }
+    }
+
+    private int animationLod(float distance, float halfHeightAtUnit) {
+        if (halfHeightAtUnit <= 0f || distance <= knightRadius) return 0;
+        float size = knightRadius / (distance * halfHeightAtUnit);
+        if (size < ANIM_LOD_QUARTER_SIZE) return 2;
+        if (size < ANIM_LOD_HALF_SIZE) return 1;
+        return 0;
+    }
+
+    private boolean isVisible(Camera camera, Matrix4 transform, Vector3 localCenter, float localRadius) {
+        tmpCenter.set(localCenter).mul(transform);
+        transform.getScale(tmpScale);
+        float scale = Math.max(Math.abs(tmpScale.x), Math.max(Math.abs(tmpScale.y), Math.abs(tmpScale.z)));
+        return camera.frustum.sphereInFrustum(tmpCenter, localRadius * scale);
+    }
+
+    /** Envia ao batch só o que passou no último {@link #cull}. */
+    public void render(ModelBatch batch, Environment environment, EntityStore entities, AttachmentSystem attachments) {
+        for (int i = 0; i < entities.count; i++) {
+            if (entities.visible[i]) batch.render(entities.instances[i], environment);
+        }
+        for (int a = 0; a < attachments.size(); a++) {
+            if (entities.visible[attachments.owner(a)]) batch.render(attachments.item(a), environment);
+        }
+        for (int i = 0; i < entries.size; i++) {
+            Entry entry = entries.get(i);
+            if (entry.visible) batch.render(entry.instance, environment);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.kaikeventura.dsd.render;
+
+/**
+ * Configuração da {@link DynamicResolution} vinda do launcher. O padrão é a resolução base fixa: a
+ * escala dinâmica é opcional (F8 no jogo ou {@code --dynamic-resolution}) e, sem um teto explícito,
+ * só desce abaixo da base, nunca passa dela, para não perder o visual de 320x240.
+ */
+public class ResolutionSettings {
+
+    public boolean enabled = false;
+    public float minScale = 0.5f;
+    public float maxScale = 1f;
+
+    /**
+     * Lê uma opção do launcher. Aceita {@code --dynamic-resolution} (liga) e
+     * {@code --resolution-scale=<min>:<max>} (limites em múltiplos da base, ex. {@code 0.5:2}).
+     *
+     * @return false se {@code arg} não é uma opção de resolução
+     */
+    public boolean parse(String arg) {
+        if (arg.equals("--dynamic-resolution")) {
+            enabled = true;
+            return true;
+        }
+        if (arg.startsWith("--resolution-scale=")) {
+            String value = arg.substring("--resolution-scale=".length());
+            int colon = value.indexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Esperado <min>:<max> em " + arg);
+            minScale = Float.parseFloat(value.substring(0, colon));
+            maxScale = Float.parseFloat(value.substring(colon + 1));
+            if (minScale <= 0f || maxScale < minScale) throw new IllegalArgumentException("Escalas inválidas em " + arg);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kaikeventura.dsd.render;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Ordena os renderables do {@code ModelBatch} para minimizar troca de estado: os opacos por shader,
+ * depois por material (hash dos atributos, já que cada ModelInstance tem sua cópia do material) e só
+ * então de frente para trás; os com blending vão por último, de trás para frente.
+ * <p>
+ * Tudo vira uma chave {@code long} (com o índice nos bits de baixo) e a ordenação é um
+ * {@link Arrays#sort(long[], int, int)}, sem comparator nem alocação por frame.
+ */
+public class StateSortRenderableSorter implements RenderableSorter {
+
+    private static final int INDEX_BITS = 20;
+    private static final int DEPTH_BITS = 20;
+    private static final int MATERIAL_BITS = 12;
+    private static final int SHADER_BITS = 10;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final int DEPTH_MAX = (1 << DEPTH_BITS) - 1;
+
+    private final ObjectIntMap<Shader> shaderIds = new ObjectIntMap<>();
+    private long[] keys = new long[256];
+    private Renderable[] sorted = new Renderable[256];
+    private final Vector3 tmp = new Vector3();
+
+    @Override
+    public void sort(Camera camera, Array<Renderable> renderables) {
+        int count = renderables.size;
+        if (count > keys.length) {
+            keys = new long[MathUtils.nextPowerOfTwo(count)];
+            sorted = new Renderable[keys.length];
+        }
+
+        float far = camera.far;
+        for (int i = 0; i < count; i++) {
+            Renderable renderable = renderables.get(i);
+            float distance = renderable.worldTransform.getTranslation(tmp).dst(camera.position);
+            long depth = MathUtils.clamp((int) (distance / far * DEPTH_MAX), 0, DEPTH_MAX);
+
+            long key;
+            if (isBlended(renderable)) {
+                key = (1L << 62) | ((DEPTH_MAX - depth) << INDEX_BITS);
+            } else {
+                long shader = shaderId(renderable.shader);
+                long material = renderable.material.attributesHash() & ((1 << MATERIAL_BITS) - 1);
+                key = (shader << (INDEX_BITS + DEPTH_BITS + MATERIAL_BITS))
+                    | (material << (INDEX_BITS + DEPTH_BITS))
+                    | (depth << INDEX_BITS);
+            }
+            keys[i] = key | i;
+        }
+
+        Arrays.sort(keys, 0, count);
+        Renderable[] items = renderables.items;
+        for (int i = 0; i < count; i++) {
+            sorted[i] = items[(int) (keys[i] & INDEX_MASK)];
+        }
+        System.arraycopy(sorted, 0, items, 0, count);
+        Arrays.fill(sorted, 0, count, null);
+    }
+
+    private int shaderId(Shader shader) {
+        int id = shaderIds.get(shader, -1);
+        if (id < 0) {
+            id = shaderIds.size & ((1 << SHADER_BITS) - 1);
+            shaderIds.put(shader, id);
+        }
+        return id;
+    }
+
+    private static boolean isBlended(Renderable renderable) {
+        BlendingAttribute blending = (BlendingAttribute) renderable.material.get(BlendingAttribute.Type);
+        return blending != null && blending.blended;
+    }
+}
@@ -0,0 +1,118 @@
+package com.kaikeventura.dsd.save;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.entity.AttachmentSystem;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autosave sem travar o jogo.
+ * <p>
+ * {@link #save} roda na thread do jogo e só captura o que mudou no {@link WorldSnapshot}; uma thread
+ * própria escreve a imagem com {@link FileChannel} num arquivo temporário, força no disco e renomeia
+ * por cima do save anterior (rename atômico), então um crash no meio nunca deixa um save pela
+ * metade. Enquanto uma escrita está em andamento a imagem é dela: um novo {@link #save} é recusado
+ * (o próximo autosave pega o estado mais novo) em vez de esperar o disco.
+ */
+public class SnapshotWriter implements Disposable {
+
+    public final WorldSnapshot snapshot;
+    private final Thread thread;
+    private final Semaphore pending = new Semaphore(0);
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile boolean running = true;
+    private Path target; // publicado pelo release do semáforo
+
+    // Métricas (lidas de qualquer thread)
+    public volatile long lastWriteNanos;
+    public volatile int saves;
+    public volatile int skipped;
+    public volatile IOException lastError;
+
+    public SnapshotWriter(int entityCapacity, int attachmentCapacity) {
+        snapshot = new WorldSnapshot(entityCapacity, attachmentCapacity);
+        thread = new Thread(this::run, "autosave");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /** True enquanto a última captura ainda está sendo escrita. */
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    /**
+     * Captura o mundo e agenda a escrita em {@code file}. Thread do jogo, entre ticks. False (sem
+     * capturar) se a escrita anterior ainda não terminou.
+     */
+    public boolean save(EntityStore store, AttachmentSystem attachments, long tick, Path file) {
+        if (!busy.compareAndSet(false, true)) {
+            skipped++;
+            return false;
+        }
+        snapshot.capture(store, attachments, tick);
+        target = file;
+        pending.release();
+        return true;
+    }
+
+    private void run() {
+        while (true) {
+            pending.acquireUninterruptibly();
+            if (!running) return;
+            long start = System.nanoTime();
+            try {
+                write(snapshot.view(), target);
+                saves++;
+                lastError = null;
+            } catch (IOException e) {
+                lastError = e;
+                System.err.println("Falha no autosave (" + target + "): " + e.getMessage());
+            }
+            lastWriteNanos = System.nanoTime() - start;
+            busy.set(false);
+        }
+    }
+
+    private static void write(ByteBuffer data, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) channel.write(data);
+            channel.force(false);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Espera a escrita em andamento (se houver) e para a thread. */
+    @Override
+    public void dispose() {
+        while (busy.get()) {
+            Thread.onSpinWait();
+        }
+        running = false;
+        pending.release();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.kaikeventura.dsd.save;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.kaikeventura.dsd.entity.AttachmentSystem;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Imagem binária do mundo num tick: personagens (transform, velocidade, input, animação) e
+ * equipamento (itens presos em sockets). {@code GameWorld.restore} põe um mundo de volta nela.
+ * <p>
+ * A imagem é um buffer direto pré-alocado que persiste entre capturas. {@link #capture} compara
+ * cada registro com o que já está no buffer e só reescreve os que mudaram, então quem está parado
+ * não custa nada além da comparação. O buffer inteiro, como está, é o arquivo.
+ * <p>
+ * Formato (little-endian): cabeçalho de {@link #HEADER_BYTES} bytes
+ * {@code [magic, versão, bytes por personagem, bytes por item, tick (long), personagens, itens]},
+ * os personagens e depois os itens. Os tamanhos dos registros vão no cabeçalho para que versões
+ * novas possam acrescentar campos no fim sem quebrar a leitura das antigas. Os donos dos itens são
+ * ids de entidade, não índices (que mudam com a remoção por swap).
+ */
+public class WorldSnapshot {
+
+    public static final int MAGIC = 0x53445344; // "DSDS"
+    public static final int VERSION = 2;
+
+    // Cabeçalho
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_ENTITY_BYTES = 8;
+    private static final int H_ATTACHMENT_BYTES = 12;
+    private static final int H_TICK = 16;
+    private static final int H_ENTITIES = 24;
+    private static final int H_ATTACHMENTS = 28;
+    public static final int HEADER_BYTES = 32;
+
+    // Registro de personagem: offsets para entityInt/entityFloat
+    public static final int E_ID = 0;
+    public static final int E_KIND = 4;
+    public static final int E_POS_X = 8;
+    public static final int E_POS_Y = 12;
+    public static final int E_POS_Z = 16;
+    public static final int E_YAW = 20;
+    public static final int E_VEL_X = 24;
+    public static final int E_VEL_Y = 28;
+    public static final int E_VEL_Z = 32;
+    public static final int E_ANIM_STATE = 36;
+    public static final int E_ANIM_TIME = 40;
+    public static final int E_ATTACK_TIMER = 44;
+    public static final int E_FLAGS = 48; // FLAG_*
+    public static final int E_BUTTONS = 52; // IN_*, desde a versão 2
+    public static final int ENTITY_BYTES = 56;
+
+    public static final int FLAG_GROUNDED = 1;
+    public static final int FLAG_ATTACKING = 1 << 1;
+
+    // Registro de item preso
+    public static final int A_OWNER_ID = 0;
+    public static final int A_SOCKET = 4;
+    public static final int A_ITEM = 8;
+    public static final int ATTACHMENT_BYTES = 12;
+
+    private ByteBuffer image;
+    private int size;
+    private int entityBytes = ENTITY_BYTES;
+    private int attachmentBytes = ATTACHMENT_BYTES;
+
+    // Métricas da última captura
+    public int lastDirty;
+    public long lastCaptureNanos;
+
+    public WorldSnapshot(int entityCapacity, int attachmentCapacity) {
+        image = ByteBuffer.allocateDirect(HEADER_BYTES + entityCapacity * ENTITY_BYTES + attachmentCapacity * ATTACHMENT_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private WorldSnapshot(ByteBuffer image) {
+        this.image = image;
+        size = image.limit();
+    }
+
+    /** Copia para a imagem só o que mudou desde a última captura. Thread do jogo, fora do tick. */
+    public void capture(EntityStore store, AttachmentSystem attachments, long tick) {
+        long start = System.nanoTime();
+        int entities = store.count;
+        int items = attachments.size();
+        int needed = HEADER_BYTES + entities * ENTITY_BYTES + items * ATTACHMENT_BYTES;
+        if (needed > image.capacity()) grow(needed);
+
+        ByteBuffer b = image;
+        b.putInt(H_MAGIC, MAGIC);
+        b.putInt(H_VERSION, VERSION);
+        b.putInt(H_ENTITY_BYTES, ENTITY_BYTES);
+        b.putInt(H_ATTACHMENT_BYTES, ATTACHMENT_BYTES);
+        b.putLong(H_TICK, tick);
+        b.putInt(H_ENTITIES, entities);
+        b.putInt(H_ATTACHMENTS, items);
+
+        int dirty = 0;
+        for (int i = 0, o = HEADER_BYTES; i < entities; i++, o += ENTITY_BYTES) {
+            int flags = (store.grounded[i] ? FLAG_GROUNDED : 0) | (store.attacking[i] ? FLAG_ATTACKING : 0);
+            if (b.getInt(o + E_ID) == store.ids[i]
+                && b.getInt(o + E_POS_X) == Float.floatToRawIntBits(store.posX[i])
+                && b.getInt(o + E_POS_Y) == Float.floatToRawIntBits(store.posY[i])
+                && b.getInt(o + E_POS_Z) == Float.floatToRawIntBits(store.posZ[i])
+                && b.getInt(o + E_YAW) == Float.floatToRawIntBits(store.yaw[i])
+                && b.getInt(o + E_VEL_X) == Float.floatToRawIntBits(store.velX[i])
+                && b.getInt(o + E_VEL_Y) == Float.floatToRawIntBits(store.velY[i])
+                && b.getInt(o + E_VEL_Z) == Float.floatToRawIntBits(store.velZ[i])
+                && b.getInt(o + E_ANIM_STATE) == store.animState[i]
+                && b.getInt(o + E_ANIM_TIME) == Float.floatToRawIntBits(store.animTime[i])
+                && b.getInt(o + E_ATTACK_TIMER) == Float.floatToRawIntBits(store.attackTimer[i])
+                && b.getInt(o + E_FLAGS) == flags
+                && b.getInt(o + E_BUTTONS) == store.buttons[i]) {
+                continue;
+            }
+            b.putInt(o + E_ID, store.ids[i]);
+            b.putInt(o + E_KIND, store.kind[i]);
+            b.putFloat(o + E_POS_X, store.posX[i]);
+            b.putFloat(o + E_POS_Y, store.posY[i]);
+            b.putFloat(o + E_POS_Z, store.posZ[i]);
+            b.putFloat(o + E_YAW, store.yaw[i]);
+            b.putFloat(o + E_VEL_X, store.velX[i]);
+            b.putFloat(o + E_VEL_Y, store.velY[i]);
+            b.putFloat(o + E_VEL_Z, store.velZ[i]);
+            b.putInt(o + E_ANIM_STATE, store.animState[i]);
+            b.putFloat(o + E_ANIM_TIME, store.animTime[i]);
+            b.putFloat(o + E_ATTACK_TIMER, store.attackTimer[i]);
+            b.putInt(o + E_FLAGS, flags);
+            b.putInt(o + E_BUTTONS, store.buttons[i]);
+            dirty++;
+        }
+
+        // Itens são poucos e mudam de lugar quando o número de personagens muda: sempre copiados
+        int base = HEADER_BYTES + entities * ENTITY_BYTES;
+        for (int a = 0, o = base; a < items; a++, o += ATTACHMENT_BYTES) {
+            b.putInt(o + A_OWNER_ID, store.ids[attachments.owner(a)]);
+            b.putInt(o + A_SOCKET, attachments.socketIndex(a));
+            b.putInt(o + A_ITEM, attachments.itemId(a));
+        }
+
+        size = needed;
+        lastDirty = dirty;
+        lastCaptureNanos = System.nanoTime() - start;
+    }
+
+    /** Bytes válidos da imagem (o tamanho do arquivo). */
+    public int size() {
+        return size;
+    }
+
+    /** Visão {@code [0, size)} da imagem, com posição própria, para a thread que escreve. */
+    ByteBuffer view() {
+        ByteBuffer view = image.duplicate();
+        view.clear();
+        view.limit(size);
+        return view;
+    }
+
+    // Leitura
+
+    public static WorldSnapshot load(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        ByteBuffer b = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(bytes).flip();
+        if (b.limit() < HEADER_BYTES || b.getInt(H_MAGIC) != MAGIC) {
+            throw new GdxRuntimeException("Não é um save: " + file);
+        }
+        int version = b.getInt(H_VERSION);
+        if (version > VERSION) {
+            throw new GdxRuntimeException("Save da versão " + version + ", mais nova que a suportada (" + VERSION + "): " + file);
+        }
+        WorldSnapshot snapshot = new WorldSnapshot(b);
+        snapshot.entityBytes = b.getInt(H_ENTITY_BYTES);
+        snapshot.attachmentBytes = b.getInt(H_ATTACHMENT_BYTES);
+        long expected = HEADER_BYTES + (long) snapshot.entityCount() * snapshot.entityBytes
+            + (long) snapshot.attachmentCount() * snapshot.attachmentBytes;
+        // A versão 1 terminava o registro de personagem antes de E_BUTTONS
+        int minEntityBytes = version == 1 ? E_BUTTONS : ENTITY_BYTES;
+        if (snapshot.entityBytes < minEntityBytes || snapshot.attachmentBytes < ATTACHMENT_BYTES || expected != b.limit()) {
+            throw new GdxRuntimeException("Save corrompido: " + file);
+        }
+        return snapshot;
+    }
+
+    public int version() {
+        return image.getInt(H_VERSION);
+    }
+
+    public long tick() {
+        return image.getLong(H_TICK);
+    }
+
+    public int entityCount() {
+        return image.getInt(H_ENTITIES);
+    }
+
+    public int attachmentCount() {
+        return image.getInt(H_ATTACHMENTS);
+    }
+
+    /** False se o save é de uma versão anterior ao campo ({@code E_*}). */
+    public boolean hasEntityField(int field) {
+        return field + 4 <= entityBytes;
+    }
+
+    /** Campo inteiro ({@code E_*}) do personagem {@code e}. */
+    public int entityInt(int e, int field) {
+        return image.getInt(HEADER_BYTES + e * entityBytes + field);
+    }
+
+    /** Campo float ({@code E_*}) do personagem {@code e}. */
+    public float entityFloat(int e, int field) {
+        return image.getFloat(HEADER_BYTES + e * entityBytes + field);
+    }
+
+    /** Campo ({@code A_*}) do item {@code a}. */
+    public int attachmentInt(int a, int field) {
+        return image.getInt(HEADER_BYTES + entityCount() * entityBytes + a * attachmentBytes + field);
+    }
+
+    private void grow(int needed) {
+        // Raro (mais personagens ou itens que a capacidade); o conteúdo vai junto para o diff continuar valendo
+        ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(needed, image.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer old = image.duplicate();
+        old.clear();
+        bigger.put(old).clear();
+        image = bigger;
+    }
+}
@@ -0,0 +1,302 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.bullet.collision.ClosestRayResultCallback;
+import com.badlogic.gdx.physics.bullet.collision.ConvexResultCallback;
+import com.badlogic.gdx.physics.bullet.collision.LocalConvexResult;
+import com.badlogic.gdx.physics.bullet.collision.btBroadphaseProxy;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionObject;
+import com.badlogic.gdx.physics.bullet.collision.btConvexShape;
+import com.badlogic.gdx.physics.bullet.dynamics.btDynamicsWorld;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+/**
+ * Movimento dos personagens na thread de física.
+ * <p>
+ * Todo comando de velocidade, impulso ou yaw passa por aqui. Com corpos dinâmicos ele só repassa
+ * para o {@link btRigidBody}. Com {@link #kinematic} os corpos são cinemáticos: o solver não resolve
+ * contato nenhum deles, a velocidade vive em arrays e cada passo move a cápsula com sweeps contra
+ * o cenário estático e os outros personagens, deslizando nas paredes.
+ * <p>
+ * Nos dois modos o contato com o chão é um raycast para baixo a partir do centro da cápsula, e não um
+ * palpite pela velocidade vertical (que zera também no topo do pulo).
+ */
+public class CharacterMotor implements Disposable {
+
+    // Folga entre a cápsula e o que ela toca, e quanto abaixo dos pés o raycast ainda conta como chão
+    public static final float SKIN = 0.02f;
+    public static final float GROUND_PROBE = 0.15f;
+    // Acima desta velocidade vertical o personagem está subindo (pulo), mesmo perto do chão
+    public static final float MAX_GROUNDED_RISE = 1f;
+    // Atrito no chão para velocidade que nenhum comando renovou (knockback), por segundo
+    public static final float GROUND_FRICTION = 8f;
+    private static final float GROUND_SNAP = 0.05f;
+    private static final int MAX_SLIDES = 3;
+
+    // Grupos de colisão dos personagens cinemáticos: sem pares entre si nem com o estático no
+    // broadphase (nada para o solver), mas visíveis para os sweeps do motor e das espadas
+    public static final int CHARACTER_GROUP = btBroadphaseProxy.CollisionFilterGroups.CharacterFilter;
+    public static final int CHARACTER_MASK = btBroadphaseProxy.CollisionFilterGroups.DefaultFilter;
+
+    public final boolean kinematic;
+
+    private final btDynamicsWorld world;
+    private final EntityStore store;
+    private final btConvexShape shape;
+    private final float halfHeight;
+    private final float gravity;
+
+    // Estado do passo (modo cinemático), semeado do store em begin()
+    private final float[] velX, velY, velZ, yaw;
+    private final boolean[] driven;
+
+    private final SweepCallback sweep = new SweepCallback();
+    private final ClosestRayResultCallback ray = new ClosestRayResultCallback(new Vector3(), new Vector3());
+
+    // Temporários
+    private final Vector3 tmpVector = new Vector3();
+    private final Vector3 tmpPosition = new Vector3();
+    private final Vector3 position = new Vector3();
+    private final Vector3 move = new Vector3();
+    private final Vector3 rayFrom = new Vector3();
+    private final Vector3 rayTo = new Vector3();
+    private final Matrix4 tmpTransform = new Matrix4();
+    private final Matrix4 sweepFrom = new Matrix4();
+    private final Matrix4 sweepTo = new Matrix4();
+
+    /**
+     * @param halfHeight distância do centro da cápsula até o pé
+     */
+    public CharacterMotor(btDynamicsWorld world, EntityStore store, btConvexShape shape, float halfHeight, boolean kinematic) {
+        this.world = world;
+        this.store = store;
+        this.shape = shape;
+        this.halfHeight = halfHeight;
+        this.kinematic = kinematic;
+        gravity = world.getGravity().y;
+
+        int capacity = store.capacity;
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        yaw = new float[capacity];
+        driven = new boolean[capacity];
+
+        ray.setCollisionFilterGroup(btBroadphaseProxy.CollisionFilterGroups.AllFilter);
+        ray.setCollisionFilterMask(btBroadphaseProxy.CollisionFilterGroups.StaticFilter);
+        sweep.setCollisionFilterGroup(btBroadphaseProxy.CollisionFilterGroups.AllFilter);
+        sweep.setCollisionFilterMask(btBroadphaseProxy.CollisionFilterGroups.StaticFilter | CHARACTER_GROUP);
+    }
+
+    /** Semeia velocidade e yaw com o resultado do passo anterior (já no store). */
+    void begin() {
+        if (!kinematic) return;
+        int count = store.count;
+        System.arraycopy(store.velX, 0, velX, 0, count);
+        System.arraycopy(store.velY, 0, velY, 0, count);
+        System.arraycopy(store.velZ, 0, velZ, 0, count);
+        System.arraycopy(store.yaw, 0, yaw, 0, count);
+        for (int i = 0; i < count; i++) driven[i] = false;
+    }
+
+    public void setVelocity(btRigidBody body, float x, float y, float z) {
+        if (!kinematic) {
+            body.setLinearVelocity(tmpVector.set(x, y, z));
+            return;
+        }
+        int i = body.getUserValue();
+        velX[i] = x;
+        velY[i] = y;
+        velZ[i] = z;
+        driven[i] = true;
+    }
+
+    /** Impulso no centro de massa (os knights têm massa 1, então é uma mudança de velocidade). */
+    public void applyImpulse(btRigidBody body, float x, float y, float z) {
+        if (!kinematic) {
+            body.applyCentralImpulse(tmpVector.set(x, y, z));
+            return;
+        }
+        int i = body.getUserValue();
+        velX[i] += x;
+        velY[i] += y;
+        velZ[i] += z;
+    }
+
+    /** Gira o corpo em volta de Y (graus), mantendo a posição. */
+    public void setYaw(btRigidBody body, float degrees) {
+        if (kinematic) {
+            yaw[body.getUserValue()] = degrees;
+            return;
+        }
+        body.getWorldTransform(tmpTransform);
+        tmpTransform.getTranslation(tmpPosition);
+        tmpTransform.setToRotation(Vector3.Y, degrees);
+        tmpTransform.setTranslation(tmpPosition);
+        body.setWorldTransform(tmpTransform);
+    }
+
+    /** Move os corpos cinemáticos e grava o resultado em {@code out}. Antes do stepSimulation. */
+    void integrate(float dt, TransformSnapshot out) {
+        if (!kinematic) return;
+        for (int i = 0; i < store.count; i++) {
+            if (store.remote[i]) {
+                // Proxy de rede: fica onde o store manda, sem gravidade nem sweep
+                btRigidBody body = store.bodies[i];
+                position.set(store.posX[i], store.posY[i], store.posZ[i]);
+                tmpTransform.setToRotation(Vector3.Y, store.yaw[i]);
+                tmpTransform.setTranslation(position);
+                body.setWorldTransform(tmpTransform);
+                velX[i] = velY[i] = velZ[i] = 0f;
+                out.posX[i] = position.x;
+                out.posY[i] = position.y;
+                out.posZ[i] = position.z;
+                out.yaw[i] = store.yaw[i];
+                out.velX[i] = out.velY[i] = out.velZ[i] = 0f;
+                continue;
+            }
+            float vy = velY[i];
+            boolean onGround = store.grounded[i] && vy <= 0f;
+            if (onGround) {
+                vy = 0f;
+                if (!driven[i]) {
+                    float friction = Math.max(0f, 1f - GROUND_FRICTION * dt);
+                    velX[i] *= friction;
+                    velZ[i] *= friction;
+                }
+            } else {
+                vy += gravity * dt;
+            }
+
+            btRigidBody body = store.bodies[i];
+            position.set(store.posX[i], store.posY[i], store.posZ[i]);
+
+            // Horizontal: desliza na parede e perde a velocidade contra ela
+            move.set(velX[i] * dt, 0f, velZ[i] * dt);
+            for (int slide = 0; slide < MAX_SLIDES && move.len2() > 1e-8f; slide++) {
+                if (!cast(body, position, move)) {
+                    position.add(move);
+                    break;
+                }
+                advance(position, move, sweep.fraction);
+                float nx = sweep.normal.x, nz = sweep.normal.z;
+                float nLen = (float) Math.sqrt(nx * nx + nz * nz);
+                if (nLen < 1e-4f) break;
+                nx /= nLen;
+                nz /= nLen;
+                float remaining = 1f - sweep.fraction;
+                move.scl(remaining);
+                float into = move.x * nx + move.z * nz;
+                move.x -= nx * into;
+                move.z -= nz * into;
+                float velInto = velX[i] * nx + velZ[i] * nz;
+                if (velInto < 0f) {
+                    velX[i] -= nx * velInto;
+                    velZ[i] -= nz * velInto;
+                }
+            }
+
+            // Vertical: no chão, encosta um pouco para baixo para acompanhar descidas
+            move.set(0f, vy * dt - (onGround ? GROUND_SNAP : 0f), 0f);
+            if (cast(body, position, move)) {
+                // Pouso, teto ou o próprio chão: a velocidade vertical acaba
+                advance(position, move, sweep.fraction);
+                vy = 0f;
+            } else {
+                position.add(move);
+            }
+            velY[i] = vy;
+
+            tmpTransform.setToRotation(Vector3.Y, yaw[i]);
+            tmpTransform.setTranslation(position);
+            body.setWorldTransform(tmpTransform);
+
+            out.posX[i] = position.x;
+            out.posY[i] = position.y;
+            out.posZ[i] = position.z;
+            out.yaw[i] = yaw[i];
+            out.velX[i] = velX[i];
+            out.velY[i] = vy;
+            out.velZ[i] = velZ[i];
+        }
+    }
+
+    /** Depois do stepSimulation: velocidade dos corpos dinâmicos e o raycast de chão de todos. */
+    void finish(TransformSnapshot out) {
+        int count = store.count;
+        for (int i = 0; i < count; i++) {
+            if (!kinematic) {
+                Vector3 velocity = store.bodies[i].getLinearVelocity();
+                out.velX[i] = velocity.x;
+                out.velY[i] = velocity.y;
+                out.velZ[i] = velocity.z;
+            }
+            out.grounded[i] = out.velY[i] <= MAX_GROUNDED_RISE && probeGround(out.posX[i], out.posY[i], out.posZ[i]);
+        }
+    }
+
+    private boolean probeGround(float x, float y, float z) {
+        rayFrom.set(x, y, z);
+        rayTo.set(x, y - halfHeight - GROUND_PROBE, z);
+        ray.setCollisionObject(null);
+        ray.setClosestHitFraction(1f);
+        ray.setRayFromWorld(rayFrom);
+        ray.setRayToWorld(rayTo);
+        world.rayTest(rayFrom, rayTo, ray);
+        return ray.hasHit();
+    }
+
+    // Sweep da cápsula de from até from + delta ignorando o próprio corpo; true se bateu
+    private boolean cast(btRigidBody self, Vector3 from, Vector3 delta) {
+        sweepFrom.setToTranslation(from);
+        sweepTo.setToTranslation(tmpVector.set(from).add(delta));
+        sweep.self = self;
+        sweep.dirX = delta.x;
+        sweep.dirY = delta.y;
+        sweep.dirZ = delta.z;
+        sweep.fraction = 1f;
+        sweep.setClosestHitFraction(1f);
+        world.convexSweepTest(shape, sweepFrom, sweepTo, sweep);
+        sweep.self = null;
+        return sweep.fraction < 1f;
+    }
+
+    // Anda até o ponto de contato, parando SKIN antes
+    private void advance(Vector3 position, Vector3 delta, float fraction) {
+        float length = delta.len();
+        float allowed = Math.max(0f, fraction * length - SKIN);
+        if (length > 0f) position.mulAdd(delta, allowed / length);
+    }
+
+    // Mais próximo entre os hits contra o movimento (sair de dentro de outro personagem é livre)
+    private static class SweepCallback extends ConvexResultCallback {
+        btCollisionObject self;
+        float dirX, dirY, dirZ;
+        float fraction;
+        final Vector3 normal = new Vector3();
+        private final Vector3 hitNormal = new Vector3();
+
+        @Override
+        public float addSingleResult(LocalConvexResult convexResult, boolean normalInWorldSpace) {
+            if (convexResult.getHitCollisionObject() == self) return getClosestHitFraction();
+            convexResult.getHitNormalLocal(hitNormal);
+            if (hitNormal.x * dirX + hitNormal.y * dirY + hitNormal.z * dirZ >= 0f) return getClosestHitFraction();
+            float hitFraction = convexResult.getHitFraction();
+            if (hitFraction < fraction) {
+                fraction = hitFraction;
+                normal.set(hitNormal);
+                setClosestHitFraction(hitFraction);
+            }
+            return hitFraction;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        sweep.dispose();
+        ray.dispose();
+    }
+}
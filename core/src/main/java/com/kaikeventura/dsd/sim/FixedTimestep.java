@@ -0,0 +1,49 @@
+package com.kaikeventura.dsd.sim;
+
+/**
+ * Acumulador do loop de simulação em passo fixo.
+ * <p>
+ * Cada frame entrega o delta real em {@link #advance(float)}, que devolve quantos ticks de
+ * {@link #step} segundos devem rodar. O que sobra no acumulador vira o {@link #alpha()} usado
+ * pelo render para interpolar entre os dois últimos ticks.
+ */
+public class FixedTimestep {
+
+    public static final float DEFAULT_STEP = 1f / 60f;
+
+    public final float step;
+    private final int maxTicksPerFrame;
+    private float accumulator;
+
+    public FixedTimestep() {
+        this(DEFAULT_STEP, 4);
+    }
+
+    public FixedTimestep(float step, int maxTicksPerFrame) {
+        this.step = step;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Soma o tempo do frame e retorna quantos ticks rodar. Picos longos (debugger, troca de janela)
+     * são cortados em {@code maxTicksPerFrame} para a simulação não entrar em espiral.
+     */
+    public int advance(float delta) {
+        accumulator += Math.min(delta, step * maxTicksPerFrame);
+        int ticks = 0;
+        while (accumulator >= step) {
+            accumulator -= step;
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /** Fração [0, 1) do próximo tick já decorrida. */
+    public float alpha() {
+        return accumulator / step;
+    }
+
+    public void reset() {
+        accumulator = 0f;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.animation.PackedClips;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.profiling.TickHistogram;
+
+/**
+ * Uma partida sem nada de render: o {@link GameWorld} montado (jogador, inimigos da arena, lâmina
+ * da espada) e o passo fixo. O GameScreen, o replay e o servidor dedicado rodam a simulação só por
+ * aqui; apresentação (câmera, render transforms, espadas desenhadas) fica com quem desenha.
+ */
+public class GameSession implements Disposable {
+
+    public final GameWorld world;
+    public final float step;
+    public final int enemies;
+
+    // Ticks rodados e o tempo de cada um
+    public long tick;
+    public long lastTickNanos;
+    public final TickHistogram tickTimes = new TickHistogram();
+
+    public GameSession(Model knightModel, PackedClips knightClips, Model swordModel, int enemies, float step) {
+        this(knightModel, knightClips, swordModel, enemies, step, JobSystem.defaultWorkers());
+    }
+
+    public GameSession(Model knightModel, PackedClips knightClips, Model swordModel, int enemies, float step, int jobWorkers) {
+        this.step = step;
+        this.enemies = enemies;
+        world = new GameWorld(knightModel, knightClips, GameWorld.DEFAULT_CAPACITY, true, jobWorkers);
+        world.spawnArena(enemies);
+        if (swordModel != null) world.melee.setBlade(swordModel);
+    }
+
+    /** Um tick com o input do jogador. */
+    public void tick(InputFrame playerInput) {
+        world.entities.setInput(GameWorld.PLAYER, playerInput);
+        long start = System.nanoTime();
+        world.tick(step);
+        lastTickNanos = System.nanoTime() - start;
+        tickTimes.add(lastTickNanos);
+        tick++;
+    }
+
+    @Override
+    public void dispose() {
+        world.dispose();
+    }
+}
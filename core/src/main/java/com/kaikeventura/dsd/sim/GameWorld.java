@@ -0,0 +1,529 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.physics.bullet.Bullet;
+import com.badlogic.gdx.physics.bullet.collision.Collision;
+import com.badlogic.gdx.physics.bullet.collision.btCapsuleShape;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionConfiguration;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionDispatcher;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionObject;
+import com.badlogic.gdx.physics.bullet.collision.btCollisionShape;
+import com.badlogic.gdx.physics.bullet.collision.btConvexShape;
+import com.badlogic.gdx.physics.bullet.collision.btDbvtBroadphase;
+import com.badlogic.gdx.physics.bullet.collision.btDefaultCollisionConfiguration;
+import com.badlogic.gdx.physics.bullet.collision.btDispatcher;
+import com.badlogic.gdx.physics.bullet.dynamics.btConstraintSolver;
+import com.badlogic.gdx.physics.bullet.dynamics.btDiscreteDynamicsWorld;
+import com.badlogic.gdx.physics.bullet.dynamics.btDynamicsWorld;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.badlogic.gdx.physics.bullet.dynamics.btSequentialImpulseConstraintSolver;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.ai.AiScheduler;
+import com.kaikeventura.dsd.ai.EnemyBrain;
+import com.kaikeventura.dsd.animation.PackedAnimator;
+import com.kaikeventura.dsd.animation.PackedClips;
+import com.kaikeventura.dsd.combat.MeleeSystem;
+import com.kaikeventura.dsd.entity.AnimationSystem;
+import com.kaikeventura.dsd.entity.AttachmentSystem;
+import com.kaikeventura.dsd.entity.EntityMotionState;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.entity.LocomotionSystem;
+import com.kaikeventura.dsd.entity.RenderTransformSystem;
+import com.kaikeventura.dsd.level.Chunk;
+import com.kaikeventura.dsd.level.FileChunkSource;
+import com.kaikeventura.dsd.level.LevelStreamer;
+import com.kaikeventura.dsd.level.ProceduralChunkSource;
+import com.kaikeventura.dsd.nav.NavGrid;
+import com.kaikeventura.dsd.nav.NavGridBuilder;
+import com.kaikeventura.dsd.nav.PathService;
+import com.kaikeventura.dsd.profiling.FramePhase;
+import com.kaikeventura.dsd.profiling.FrameProfiler;
+import com.kaikeventura.dsd.save.WorldSnapshot;
+
+/**
+ * Metade de simulação do jogo: mundo Bullet, nível em chunks e knights. Não depende de GL, então roda tanto
+ * atrás do {@code GameScreen} quanto no backend headless (benchmarks).
+ * <p>
+ * Os knights vivem no {@link EntityStore} (structure-of-arrays) e cada fase do tick é um sistema
+ * que percorre os arrays em sequência. O jogador é sempre a entidade {@link #PLAYER}.
+ */
+public class GameWorld implements Disposable {
+
+    public interface ItemFactory {
+        /** Instância do item {@code itemId} ({@code ITEM_*}), ou null para deixá-lo de fora. */
+        ModelInstance create(int itemId);
+    }
+
+    // Bullet Physics
+    public final btCollisionConfiguration collisionConfig;
+    public final btDispatcher dispatcher;
+    public final btDbvtBroadphase broadphase;
+    public final btConstraintSolver solver;
+    public final btDynamicsWorld dynamicsWorld;
+
+    // Nível em chunks (piso e cenário estático), carregados em volta do jogador
+    public static final String LEVEL_DIR = "levels/demo";
+    public static final String BVH_CACHE_DIR = "cache/bvh/demo";
+    public static final long LEVEL_SEED = 0x5EED_D5DL;
+    public final LevelStreamer level;
+
+    public final btCollisionShape knightShape;
+    public static final float KNIGHT_RADIUS = 0.5f;
+    public static final float KNIGHT_HEIGHT = 1.8f;
+
+    // Knights cinemáticos movidos pelo CharacterMotor (padrão) ou corpos dinâmicos resolvidos pelo solver
+    public final boolean kinematicCharacters;
+    public final CharacterMotor motor;
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int PLAYER = 0;
+
+    private final Model knightModel;
+    // Clips do knight empacotados uma vez no GameAssets, compartilhados por todos os mundos e instâncias
+    public final PackedClips knightClips;
+    private final Vector3 knightInertia = new Vector3();
+    public final EntityStore entities;
+
+    // Navegação (grid gerado da colisão estática, A* em threads próprias)
+    public static final float NAV_CELL_SIZE = 0.5f;
+    public final PathService paths;
+
+    // Passo do Bullet (numa thread própria depois de physics.start()); corpos só mudam por physics.commands
+    public final PhysicsThread physics;
+
+    // Workers para o trabalho por entidade (IA, animação, transforms de render)
+    public final JobSystem jobs;
+
+    // Sistemas, na ordem do tick
+    public final AiScheduler ai;
+    // IA reproduzível (setReproducibleAi): decisões por tick e atraso fixo dos caminhos
+    public static final int REPRODUCIBLE_THINKS_PER_TICK = 32;
+    public static final int REPRODUCIBLE_PATH_LATENCY = 6;
+    public final LocomotionSystem locomotion = new LocomotionSystem();
+    public final AnimationSystem animation;
+    public final MeleeSystem melee;
+    public final RenderTransformSystem renderTransforms;
+    public final AttachmentSystem attachments;
+
+    // Mão direita do knight (Mixamo ou genérico): espada desenhada e hitbox da lâmina
+    public static final String HAND_SOCKET = "right_hand";
+    // Tipos de item (gravados no save junto com o socket)
+    public static final int ITEM_SWORD = 1;
+    public final AttachmentSystem.Socket handSocket;
+
+    // Opcional: mede cada fase do tick quando presente
+    public FrameProfiler profiler;
+
+    // Temporários do restore()
+    private final Matrix4 tmpTransform = new Matrix4();
+    private final Vector3 tmpVector = new Vector3();
+
+    public GameWorld(Model knightModel, PackedClips knightClips) {
+        this(knightModel, knightClips, DEFAULT_CAPACITY);
+    }
+
+    public GameWorld(Model knightModel, PackedClips knightClips, int capacity) {
+        this(knightModel, knightClips, capacity, true);
+    }
+
+    public GameWorld(Model knightModel, PackedClips knightClips, int capacity, boolean kinematicCharacters) {
+        this(knightModel, knightClips, capacity, kinematicCharacters, JobSystem.defaultWorkers());
+    }
+
+    /**
+     * @param jobWorkers workers do {@link JobSystem} deste mundo; 0 roda tudo na thread do tick
+     *                   (servidor com várias sessões, que já paraleliza entre elas)
+     * @param knightClips clips do knight já empacotados ({@code GameAssets.knightClips}), os mesmos
+     *                    para todos os mundos do processo
+     */
+    public GameWorld(Model knightModel, PackedClips knightClips, int capacity, boolean kinematicCharacters, int jobWorkers) {
+        Bullet.init();
+        this.knightModel = knightModel;
+        this.knightClips = knightClips;
+        this.kinematicCharacters = kinematicCharacters;
+        entities = new EntityStore(capacity);
+        jobs = new JobSystem(jobWorkers);
+        ai = new AiScheduler(jobs);
+        renderTransforms = new RenderTransformSystem(jobs);
+        attachments = new AttachmentSystem(jobs);
+        animation = new AnimationSystem(knightClips, jobs);
+        handSocket = attachments.addSocket(HAND_SOCKET, knightClips.boneIndex("mixamo.com:RightHand", "RightHand"));
+
+        collisionConfig = new btDefaultCollisionConfiguration();
+        dispatcher = new btCollisionDispatcher(collisionConfig);
+        broadphase = new btDbvtBroadphase();
+        solver = new btSequentialImpulseConstraintSolver();
+        dynamicsWorld = new btDiscreteDynamicsWorld(dispatcher, broadphase, solver, collisionConfig);
+        dynamicsWorld.setGravity(new Vector3(0, -9.8f, 0));
+
+        // Todos os knights compartilham a mesma cápsula; a altura do btCapsuleShape não conta as pontas
+        knightShape = new btCapsuleShape(KNIGHT_RADIUS, KNIGHT_HEIGHT);
+        knightShape.calculateLocalInertia(1f, knightInertia);
+        motor = new CharacterMotor(dynamicsWorld, entities, (btConvexShape) knightShape,
+            KNIGHT_HEIGHT / 2f + KNIGHT_RADIUS, kinematicCharacters);
+        physics = new PhysicsThread(dynamicsWorld, entities, motor);
+
+        // Nível: os chunks em volta do spawn entram já, antes de qualquer knight
+        level = new LevelStreamer(dynamicsWorld, new FileChunkSource(LEVEL_DIR, new ProceduralChunkSource(LEVEL_SEED)));
+        level.bvhCacheDir = Gdx.files.local(BVH_CACHE_DIR);
+        level.loadAround(0f, 0f);
+
+        // Grid de navegação: antes dos knights, só a colisão estática interessa
+        int pathWorkers = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+        paths = new PathService(NavGridBuilder.build(dynamicsWorld, -25f, -25f, 25f, 25f, NAV_CELL_SIZE), pathWorkers);
+        // Chunk que entra ou sai por cima da área do grid muda a colisão estática
+        level.listeners.add(new LevelStreamer.ChunkListener() {
+            @Override
+            public void onChunkAdded(Chunk chunk) {
+                invalidateNavigation(chunk);
+            }
+
+            @Override
+            public void onChunkRemoved(Chunk chunk) {
+                invalidateNavigation(chunk);
+            }
+        });
+
+        melee = new MeleeSystem(dynamicsWorld, motor);
+        physics.beforeStep = () -> melee.update(entities, animation.attackDuration);
+        spawn(EntityStore.KIND_PLAYER, 0, 5f, 0, false);
+    }
+
+    /** Cria um knight inimigo e devolve o índice da entidade. */
+    public int spawnKnight(float x, float y, float z) {
+        return spawn(EntityStore.KIND_ENEMY, x, y, z, false);
+    }
+
+    /** Outro jogador (servidor com vários clientes): sem IA, movido pelo input que chega da rede. */
+    public int spawnPlayer(float x, float y, float z) {
+        return spawn(EntityStore.KIND_PLAYER, x, y, z, false);
+    }
+
+    /**
+     * Proxy de uma entidade do servidor (cliente em rede): sem IA nem física própria, o transform e o
+     * estado de animação são escritos pelo {@code NetClient}. Só com personagens cinemáticos.
+     */
+    public int spawnRemote(int kind, float x, float y, float z) {
+        int i = spawn(kind, x, y, z, true);
+        EntityStore store = entities;
+        store.remote[i] = true;
+        store.remoteX[i] = x;
+        store.remoteY[i] = y;
+        store.remoteZ[i] = z;
+        store.remoteYaw[i] = 0f;
+        return i;
+    }
+
+    /** Inimigos em anel de 8m em volta do jogador (mesma montagem no jogo e no replay). */
+    public void spawnArena(int enemies) {
+        for (int i = 0; i < enemies; i++) {
+            float angle = i * 360f / enemies;
+            spawnKnight(MathUtils.cosDeg(angle) * 8f, 1.5f, MathUtils.sinDeg(angle) * 8f);
+        }
+    }
+
+    private int spawn(int kind, float x, float y, float z, boolean remote) {
+        sync();
+        EntityStore store = entities;
+        int i = store.create(kind, x, y, z);
+
+        ModelInstance instance = new ModelInstance(knightModel);
+        instance.transform.setToTranslation(x, y, z);
+        // As cópias das Animations que o ModelInstance faz não são usadas: quem toca é o PackedAnimator
+        instance.animations.clear();
+        PackedAnimator animator = new PackedAnimator(instance, knightClips);
+
+        EntityMotionState motionState = null;
+        btRigidBody body;
+        if (kinematicCharacters) {
+            // Sem motion state: o CharacterMotor move o corpo e grava o snapshot ele mesmo
+            body = new btRigidBody(0f, null, knightShape, Vector3.Zero);
+            body.setCollisionFlags(body.getCollisionFlags() | btCollisionObject.CollisionFlags.CF_KINEMATIC_OBJECT);
+            body.setWorldTransform(instance.transform);
+            body.setActivationState(Collision.DISABLE_DEACTIVATION);
+            body.setUserValue(i);
+            physics.commands.addBody(body, CharacterMotor.CHARACTER_GROUP, CharacterMotor.CHARACTER_MASK);
+        } else {
+            // O motion state lê a posição inicial do store no construtor do corpo
+            motionState = new EntityMotionState(store, physics, i);
+            btRigidBody.btRigidBodyConstructionInfo info = new btRigidBody.btRigidBodyConstructionInfo(1f, motionState, knightShape, knightInertia);
+            body = new btRigidBody(info);
+            info.dispose();
+            body.setAngularFactor(Vector3.Y);
+            body.setActivationState(Collision.DISABLE_DEACTIVATION);
+            body.setUserValue(i);
+            physics.commands.addBody(body);
+        }
+
+        store.instances[i] = instance;
+        store.animators[i] = animator;
+        store.motionStates[i] = motionState;
+        store.bodies[i] = body;
+        store.hands[i] = handSocket.bone >= 0 ? animator.node(handSocket.bone) : null;
+        if (kind == EntityStore.KIND_ENEMY && !remote) {
+            EnemyBrain brain = new EnemyBrain(store, i, PLAYER, paths);
+            store.brains[i] = brain;
+            ai.schedule(brain);
+        }
+        return i;
+    }
+
+    /** Remove a entidade (por swap: a última passa a ocupar o índice {@code i}). */
+    public void despawn(int i) {
+        sync();
+        btRigidBody body = entities.bodies[i];
+        EntityMotionState motionState = entities.motionStates[i];
+        if (entities.brains[i] != null) entities.brains[i].release();
+        int last = entities.count - 1;
+        attachments.detachAll(i);
+        entities.remove(i);
+        attachments.moveOwner(last, i);
+        physics.commands.removeBody(body);
+        physics.commands.dispose(body);
+        if (motionState != null) physics.commands.dispose(motionState);
+    }
+
+    /**
+     * Põe o mundo no estado de {@code snapshot}. O prefixo de entidades com os mesmos ids nos mesmos
+     * índices é reaproveitado (com os brains); o resto sai e é recriado na ordem do save, então o
+     * {@link EntityStore#stateHash()} volta a ser o do mundo capturado. Os itens são presos de novo
+     * pelo socket e id de item, com as instâncias criadas por {@code items}. O nível em volta do
+     * jogador chega no próximo {@link #updateStreaming}.
+     */
+    public void restore(WorldSnapshot snapshot, ItemFactory items) {
+        sync();
+        EntityStore store = entities;
+        int saved = snapshot.entityCount();
+        if (saved == 0 || saved > store.capacity) {
+            throw new IllegalArgumentException("Save com " + saved + " entidades (capacidade " + store.capacity + ")");
+        }
+
+        int keep = 1; // o jogador nunca sai
+        while (keep < saved && keep < store.count && store.ids[keep] == snapshot.entityInt(keep, WorldSnapshot.E_ID)) keep++;
+        // Do fim para o começo: remover o último não move ninguém
+        for (int i = store.count - 1; i >= keep; i--) despawn(i);
+        for (int i = 0; i < store.count; i++) attachments.detachAll(i);
+        for (int e = keep; e < saved; e++) {
+            float x = snapshot.entityFloat(e, WorldSnapshot.E_POS_X);
+            float y = snapshot.entityFloat(e, WorldSnapshot.E_POS_Y);
+            float z = snapshot.entityFloat(e, WorldSnapshot.E_POS_Z);
+            if (snapshot.entityInt(e, WorldSnapshot.E_KIND) == EntityStore.KIND_ENEMY) {
+                spawnKnight(x, y, z);
+            } else {
+                spawnPlayer(x, y, z);
+            }
+        }
+
+        boolean hasButtons = snapshot.hasEntityField(WorldSnapshot.E_BUTTONS);
+        for (int i = 0; i < saved; i++) {
+            store.setId(i, snapshot.entityInt(i, WorldSnapshot.E_ID));
+            store.posX[i] = store.prevPosX[i] = snapshot.entityFloat(i, WorldSnapshot.E_POS_X);
+            store.posY[i] = store.prevPosY[i] = snapshot.entityFloat(i, WorldSnapshot.E_POS_Y);
+            store.posZ[i] = store.prevPosZ[i] = snapshot.entityFloat(i, WorldSnapshot.E_POS_Z);
+            store.yaw[i] = store.prevYaw[i] = snapshot.entityFloat(i, WorldSnapshot.E_YAW);
+            store.velX[i] = snapshot.entityFloat(i, WorldSnapshot.E_VEL_X);
+            store.velY[i] = snapshot.entityFloat(i, WorldSnapshot.E_VEL_Y);
+            store.velZ[i] = snapshot.entityFloat(i, WorldSnapshot.E_VEL_Z);
+            int flags = snapshot.entityInt(i, WorldSnapshot.E_FLAGS);
+            store.grounded[i] = (flags & WorldSnapshot.FLAG_GROUNDED) != 0;
+            store.attacking[i] = (flags & WorldSnapshot.FLAG_ATTACKING) != 0;
+            store.attackTimer[i] = snapshot.entityFloat(i, WorldSnapshot.E_ATTACK_TIMER);
+            store.buttons[i] = hasButtons ? snapshot.entityInt(i, WorldSnapshot.E_BUTTONS) : 0;
+            store.bladeTracking[i] = false;
+            restoreAnimation(i, snapshot.entityInt(i, WorldSnapshot.E_ANIM_STATE), snapshot.entityFloat(i, WorldSnapshot.E_ANIM_TIME));
+
+            // O mundo Bullet está parado desde o sync(); corpos novos entram com o transform certo
+            btRigidBody body = store.bodies[i];
+            tmpTransform.setToRotation(Vector3.Y, store.yaw[i]);
+            tmpTransform.trn(store.posX[i], store.posY[i], store.posZ[i]);
+            body.setWorldTransform(tmpTransform);
+            body.setInterpolationWorldTransform(tmpTransform);
+            if (!kinematicCharacters) {
+                body.setLinearVelocity(tmpVector.set(store.velX[i], store.velY[i], store.velZ[i]));
+                body.setAngularVelocity(Vector3.Zero);
+            }
+        }
+
+        for (int a = 0; a < snapshot.attachmentCount(); a++) {
+            int owner = indexOf(snapshot.attachmentInt(a, WorldSnapshot.A_OWNER_ID));
+            AttachmentSystem.Socket socket = attachments.getSocket(snapshot.attachmentInt(a, WorldSnapshot.A_SOCKET));
+            int itemId = snapshot.attachmentInt(a, WorldSnapshot.A_ITEM);
+            ModelInstance item = owner >= 0 && socket != null ? items.create(itemId) : null;
+            if (item != null) attachments.attach(store, owner, socket, item, itemId);
+        }
+    }
+
+    // Clip do estado salvo já avançado até o tempo salvo, sem mistura com o que tocava antes
+    private void restoreAnimation(int i, int state, float time) {
+        EntityStore store = entities;
+        store.animState[i] = state;
+        store.animTime[i] = time;
+        store.animDebt[i] = 0f;
+        if (store.poses[i] != null) store.poses[i].valid = false;
+        if (state < 0) return;
+        PackedAnimator animator = store.animators[i];
+        animator.animate(animation.states.clip(state), animation.states.loopCount(state), 0f);
+        animator.update(time);
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < entities.count; i++) {
+            if (entities.ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Um tick completo: resultado do passo anterior, IA, controllers, animação e o disparo do passo de
+     * física (que faz os sweeps das espadas antes de integrar).
+     * <p>
+     * Cada fase é um estágio com barreira: IA e amostragem da animação (com os ossos) se espalham
+     * pelo {@link #jobs}; controllers e seleção de estado ficam na thread do jogo porque gravam na
+     * fila de comandos da física. O passo só dispara com as poses prontas, já que a espada lê a mão.
+     */
+    public void tick(float step) {
+        if (profiler == null) {
+            sync();
+            updateAi();
+            updateControllers(step);
+            updateAnimations(step);
+            stepPhysics(step);
+            return;
+        }
+        profiler.begin(FramePhase.PHYSICS);
+        sync();
+        profiler.end(FramePhase.PHYSICS);
+        profiler.begin(FramePhase.AI);
+        updateAi();
+        profiler.end(FramePhase.AI);
+        profiler.begin(FramePhase.CONTROLLERS);
+        updateControllers(step);
+        profiler.end(FramePhase.CONTROLLERS);
+        profiler.begin(FramePhase.ANIMATION);
+        updateAnimations(step);
+        profiler.end(FramePhase.ANIMATION);
+        profiler.begin(FramePhase.PHYSICS);
+        stepPhysics(step);
+        profiler.end(FramePhase.PHYSICS);
+    }
+
+    /**
+     * Deixa a IA igual tick a tick entre gravação e replay: orçamento só por quantidade, sem LOD pela
+     * câmera (que o replay não tem) e caminhos aplicados {@link #REPRODUCIBLE_PATH_LATENCY} ticks
+     * depois do pedido, seja qual for a hora em que a worker terminou.
+     */
+    public void setReproducibleAi() {
+        ai.budgetNanos = 0;
+        ai.maxThinksPerTick = REPRODUCIBLE_THINKS_PER_TICK;
+        ai.camera = null;
+        paths.latencyTicks = REPRODUCIBLE_PATH_LATENCY;
+    }
+
+    public void updateAi() {
+        ai.update(entities, PLAYER);
+    }
+
+    public void updateControllers(float step) {
+        locomotion.update(entities, physics.commands, step);
+        animation.updateStates(entities);
+    }
+
+    public void updateAnimations(float step) {
+        animation.update(entities, step);
+    }
+
+    /** Dispara o passo de física com os comandos do tick. Sem a thread, roda aqui mesmo. */
+    public void stepPhysics(float step) {
+        sync();
+        physics.step(step);
+    }
+
+    /**
+     * Espera o passo em andamento e copia posição, yaw, velocidade e chão para o store; depois entrega os
+     * acertos de espada ao listener. Sem passo pendente não faz nada. Depois do sync o mundo Bullet
+     * está parado até o próximo {@link #stepPhysics}.
+     */
+    public void sync() {
+        TransformSnapshot snapshot = physics.sync();
+        if (snapshot == null) return;
+        EntityStore store = entities;
+        int count = Math.min(snapshot.count, store.count);
+        System.arraycopy(snapshot.posX, 0, store.posX, 0, count);
+        System.arraycopy(snapshot.posY, 0, store.posY, 0, count);
+        System.arraycopy(snapshot.posZ, 0, store.posZ, 0, count);
+        System.arraycopy(snapshot.yaw, 0, store.yaw, 0, count);
+        System.arraycopy(snapshot.velX, 0, store.velX, 0, count);
+        System.arraycopy(snapshot.velY, 0, store.velY, 0, count);
+        System.arraycopy(snapshot.velZ, 0, store.velZ, 0, count);
+        System.arraycopy(snapshot.grounded, 0, store.grounded, 0, count);
+        melee.deliverHits();
+    }
+
+    /** Streaming do nível em volta do jogador; uma vez por frame, fora do tick. */
+    public void updateStreaming() {
+        sync(); // adiciona e remove corpos direto no mundo
+        level.update(entities.posX[PLAYER], entities.posZ[PLAYER]);
+    }
+
+    /** Repete um evento de streaming gravado (ver {@code InputRecording}) no lugar de {@link #updateStreaming}. */
+    public void replayStreaming(int cx, int cz, boolean added) {
+        sync();
+        if (added) {
+            level.forceAdd(cx, cz);
+        } else {
+            level.forceRemove(cx, cz);
+        }
+    }
+
+    private void invalidateNavigation(Chunk chunk) {
+        NavGrid grid = paths.getGrid();
+        float gridMaxX = grid.originX + grid.width * grid.cellSize;
+        float gridMaxZ = grid.originZ + grid.depth * grid.cellSize;
+        float minX = Math.max(chunk.minX, grid.originX), maxX = Math.min(chunk.maxX, gridMaxX);
+        float minZ = Math.max(chunk.minZ, grid.originZ), maxZ = Math.min(chunk.maxZ, gridMaxZ);
+        if (minX < maxX && minZ < maxZ) {
+            paths.invalidate(dynamicsWorld, minX, minZ, maxX - 0.001f, maxZ - 0.001f);
+        }
+    }
+
+    /** Transforms de render de todos os knights (entre o tick anterior e o atual) e dos itens presos neles. */
+    public void updateRenderTransforms(float alpha) {
+        renderTransforms.update(entities, alpha);
+        attachments.update(entities);
+    }
+
+    @Override
+    public void dispose() {
+        physics.dispose();
+        jobs.dispose();
+        paths.dispose();
+        melee.dispose();
+        EntityStore store = entities;
+        for (int i = store.count - 1; i >= 0; i--) {
+            dynamicsWorld.removeRigidBody(store.bodies[i]);
+            store.bodies[i].dispose();
+            if (store.motionStates[i] != null) store.motionStates[i].dispose();
+            store.bodies[i] = null;
+            store.motionStates[i] = null;
+            store.animators[i] = null;
+            store.poses[i] = null;
+            store.instances[i] = null;
+            store.brains[i] = null;
+        }
+        store.count = 0;
+        level.dispose();
+        motor.dispose();
+        knightShape.dispose();
+
+        dynamicsWorld.dispose();
+        solver.dispose();
+        broadphase.dispose();
+        dispatcher.dispose();
+        collisionConfig.dispose();
+    }
+}
@@ -0,0 +1,127 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool fixo de workers para trabalho por entidade.
+ * <p>
+ * {@link #parallelFor} divide {@code [0, count)} em blocos de {@code grain} índices; os workers e a
+ * própria thread que chamou pegam blocos de um contador atômico até acabar (quem termina antes
+ * pega mais, então blocos caros não seguram os outros). A chamada só volta quando todos os
+ * workers acordados saíram do job, então cada chamada é um estágio com barreira: o tick encadeia
+ * estágios (IA, animação, transforms) na ordem das dependências.
+ * <p>
+ * O corpo do job só pode escrever nos índices que recebeu. Sem workers tudo roda em série na
+ * thread de quem chama, na mesma ordem.
+ */
+public class JobSystem implements Disposable {
+
+    /** Trabalho sobre os índices {@code [start, end)}. */
+    public interface RangeJob {
+        void run(int start, int end);
+    }
+
+    private final Thread[] workers;
+    private final Semaphore wake = new Semaphore(0);
+    private volatile boolean running = true;
+
+    // Job atual; só muda com todos os workers fora dele
+    private RangeJob job;
+    private int count;
+    private int grain;
+    private int chunks;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile Throwable failure;
+
+    /** Um worker por núcleo, fora a thread do jogo e a de física. */
+    public static int defaultWorkers() {
+        return Math.max(0, Runtime.getRuntime().availableProcessors() - 2);
+    }
+
+    public JobSystem(int workerCount) {
+        workers = new Thread[workerCount];
+        for (int w = 0; w < workerCount; w++) {
+            Thread thread = new Thread(this::run, "jobs-" + w);
+            thread.setDaemon(true);
+            thread.start();
+            workers[w] = thread;
+        }
+    }
+
+    public int workerCount() {
+        return workers.length;
+    }
+
+    /** Roda {@code job} sobre {@code [0, count)} em blocos de {@code grain} e espera todos. */
+    public void parallelFor(int count, int grain, RangeJob job) {
+        if (count <= 0) return;
+        grain = Math.max(1, grain);
+        if (workers.length == 0 || count <= grain) {
+            job.run(0, count);
+            return;
+        }
+
+        this.job = job;
+        this.count = count;
+        this.grain = grain;
+        chunks = (count + grain - 1) / grain;
+        nextChunk.set(0);
+        // Cada permissão acorda um worker, que só sai do job depois de decrementar active: quando
+        // active chega a zero ninguém mais lê os campos acima (o release do semáforo os publica)
+        int helpers = Math.min(workers.length, chunks - 1);
+        active.set(helpers);
+        wake.release(helpers);
+
+        work();
+        while (active.get() > 0) {
+            Thread.onSpinWait();
+        }
+        this.job = null;
+
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            throw new GdxRuntimeException("Erro num job", error);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            int chunk = nextChunk.getAndIncrement();
+            if (chunk >= chunks) return;
+            int start = chunk * grain;
+            try {
+                job.run(start, Math.min(start + grain, count));
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            wake.acquireUninterruptibly();
+            if (!running) return;
+            work();
+            active.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        running = false;
+        wake.release(workers.length);
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.physics.bullet.dynamics.btDynamicsWorld;
+import com.badlogic.gdx.physics.bullet.dynamics.btRigidBody;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Fila de comandos para os corpos rígidos, gravada pela thread do jogo durante o tick e aplicada
+ * pela thread de física antes do passo, na ordem em que chegaram.
+ * <p>
+ * Arrays paralelos que só crescem: depois do aquecimento gravar um comando não aloca.
+ */
+public class PhysicsCommands {
+
+    static final int SET_VELOCITY = 0;
+    static final int APPLY_IMPULSE = 1;
+    static final int SET_YAW = 2;
+    static final int ADD_BODY = 3;
+    static final int REMOVE_BODY = 4;
+    static final int DISPOSE = 5;
+
+    private int[] ops = new int[64];
+    private Object[] targets = new Object[64];
+    private float[] values = new float[64 * 3];
+    // Argumentos inteiros (grupo e máscara de colisão)
+    private int[] intValues = new int[64 * 2];
+    private int size;
+
+    public void setVelocity(btRigidBody body, float x, float y, float z) {
+        add(SET_VELOCITY, body, x, y, z);
+    }
+
+    public void applyImpulse(btRigidBody body, float x, float y, float z) {
+        add(APPLY_IMPULSE, body, x, y, z);
+    }
+
+    /** Gira o corpo em volta de Y (graus), mantendo a posição. */
+    public void setYaw(btRigidBody body, float degrees) {
+        add(SET_YAW, body, degrees, 0f, 0f);
+    }
+
+    /** Entra no mundo com os grupos de colisão padrão do Bullet. */
+    public void addBody(btRigidBody body) {
+        addBody(body, 0, 0);
+    }
+
+    /** Entra no mundo com grupo e máscara de colisão explícitos (0 e 0: os padrões). */
+    public void addBody(btRigidBody body, int group, int mask) {
+        add(ADD_BODY, body, 0f, 0f, 0f);
+        int i = (size - 1) * 2;
+        intValues[i] = group;
+        intValues[i + 1] = mask;
+    }
+
+    public void removeBody(btRigidBody body) {
+        add(REMOVE_BODY, body, 0f, 0f, 0f);
+    }
+
+    /** Libera {@code resource} na thread de física, depois dos comandos anteriores. */
+    public void dispose(Disposable resource) {
+        add(DISPOSE, resource, 0f, 0f, 0f);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Descarta os comandos sem aplicar (benchmarks que medem só quem grava). */
+    public void clear() {
+        for (int c = 0; c < size; c++) targets[c] = null;
+        size = 0;
+    }
+
+    private void add(int op, Object target, float x, float y, float z) {
+        if (size == ops.length) grow();
+        ops[size] = op;
+        targets[size] = target;
+        int v = size * 3;
+        values[v] = x;
+        values[v + 1] = y;
+        values[v + 2] = z;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ops.length * 2;
+        int[] newOps = new int[capacity];
+        Object[] newTargets = new Object[capacity];
+        float[] newValues = new float[capacity * 3];
+        int[] newIntValues = new int[capacity * 2];
+        System.arraycopy(ops, 0, newOps, 0, size);
+        System.arraycopy(targets, 0, newTargets, 0, size);
+        System.arraycopy(values, 0, newValues, 0, size * 3);
+        System.arraycopy(intValues, 0, newIntValues, 0, size * 2);
+        ops = newOps;
+        targets = newTargets;
+        values = newValues;
+        intValues = newIntValues;
+    }
+
+    /** Aplica tudo em {@code world} e esvazia a fila. Thread de física. */
+    void execute(btDynamicsWorld world, CharacterMotor motor) {
+        for (int c = 0; c < size; c++) {
+            int v = c * 3;
+            Object target = targets[c];
+            targets[c] = null;
+            switch (ops[c]) {
+                case SET_VELOCITY:
+                    motor.setVelocity((btRigidBody) target, values[v], values[v + 1], values[v + 2]);
+                    break;
+                case APPLY_IMPULSE:
+                    motor.applyImpulse((btRigidBody) target, values[v], values[v + 1], values[v + 2]);
+                    break;
+                case SET_YAW:
+                    motor.setYaw((btRigidBody) target, values[v]);
+                    break;
+                case ADD_BODY: {
+                    int group = intValues[c * 2];
+                    int mask = intValues[c * 2 + 1];
+                    if (group == 0 && mask == 0) {
+                        world.addRigidBody((btRigidBody) target);
+                    } else {
+                        world.addRigidBody((btRigidBody) target, group, mask);
+                    }
+                    break;
+                }
+                case REMOVE_BODY:
+                    world.removeRigidBody((btRigidBody) target);
+                    break;
+                case DISPOSE:
+                    ((Disposable) target).dispose();
+                    break;
+            }
+        }
+        size = 0;
+    }
+}
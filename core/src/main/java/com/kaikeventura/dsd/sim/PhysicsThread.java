@@ -0,0 +1,158 @@
+package com.kaikeventura.dsd.sim;
+
+import com.badlogic.gdx.physics.bullet.dynamics.btDynamicsWorld;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.kaikeventura.dsd.entity.EntityStore;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Passo do Bullet numa thread própria, em paralelo com o render.
+ * <p>
+ * A thread do jogo grava o que quer fazer com os corpos em {@link #commands} durante o tick e chama
+ * {@link #step(float)}: as filas trocam de lado e a thread de física aplica os comandos pelo
+ * {@link CharacterMotor}, roda {@link #beforeStep}, dá o passo e publica posição/velocidade num
+ * {@link TransformSnapshot}. São dois snapshots: a thread de física escreve no de trás enquanto a
+ * thread do jogo lê o da frente, e {@link #sync()} troca os dois depois que o passo acaba.
+ * <p>
+ * O paralelismo é entre o passo e o render do mesmo frame. {@link #sync()} bloqueia até o passo em
+ * andamento terminar, e o próximo tick começa por ele: o resultado é o mesmo com ou sem thread,
+ * então replay e benchmarks continuam determinísticos. Entre {@link #sync()} e {@link #step(float)}
+ * o mundo está parado e a thread do jogo ainda pode mexer nele direto (streaming, raycasts do grid
+ * de navegação, debug draw).
+ * <p>
+ * Sem {@link #start()} o passo roda na própria chamada de {@link #step(float)}.
+ */
+public class PhysicsThread implements Disposable {
+
+    /** Comandos do tick atual. Só a thread do jogo grava, só entre sync() e step(). */
+    public PhysicsCommands commands = new PhysicsCommands();
+    private PhysicsCommands executing = new PhysicsCommands();
+
+    /** Roda na thread de física, depois dos comandos e antes do passo (sweeps das espadas). */
+    public Runnable beforeStep;
+
+    private final btDynamicsWorld world;
+    private final EntityStore store;
+    public final CharacterMotor motor;
+
+    private final TransformSnapshot[] snapshots = new TransformSnapshot[2];
+    private int back = 0;
+    private long stepCount;
+
+    private Thread thread;
+    private volatile boolean running;
+    private final Semaphore startSignal = new Semaphore(0);
+    private final Semaphore doneSignal = new Semaphore(0);
+    private boolean inFlight;
+    private float pendingStep;
+    private volatile Throwable failure;
+
+    public PhysicsThread(btDynamicsWorld world, EntityStore store, CharacterMotor motor) {
+        this.world = world;
+        this.store = store;
+        this.motor = motor;
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new TransformSnapshot(store.capacity);
+        }
+    }
+
+    /** Liga a thread de física. Sem ela o passo roda na thread de quem chama {@link #step(float)}. */
+    public void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::run, "physics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isThreaded() {
+        return thread != null;
+    }
+
+    /** Snapshot sendo escrito pelo passo em andamento. Só a thread de física (motion states). */
+    public TransformSnapshot back() {
+        return snapshots[back];
+    }
+
+    /** Dispara um passo de {@code delta} segundos com os comandos gravados até aqui. */
+    public void step(float delta) {
+        if (inFlight) {
+            throw new GdxRuntimeException("step() antes do sync() do passo anterior");
+        }
+        PhysicsCommands swap = executing;
+        executing = commands;
+        commands = swap;
+        pendingStep = delta;
+        inFlight = true;
+        if (thread == null) {
+            runStep();
+        } else {
+            startSignal.release();
+        }
+    }
+
+    /**
+     * Espera o passo em andamento e devolve o snapshot dele, ou null se não havia passo pendente.
+     * O snapshot devolvido é da thread do jogo até o próximo sync(); o semáforo já garante que as
+     * escritas da thread de física estão visíveis.
+     */
+    public TransformSnapshot sync() {
+        if (!inFlight) return null;
+        if (thread != null) doneSignal.acquireUninterruptibly();
+        inFlight = false;
+        if (failure != null) {
+            throw new GdxRuntimeException("Erro na thread de física", failure);
+        }
+        TransformSnapshot front = snapshots[back];
+        back ^= 1;
+        return front;
+    }
+
+    private void run() {
+        while (true) {
+            startSignal.acquireUninterruptibly();
+            if (!running) return;
+            try {
+                runStep();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            doneSignal.release();
+        }
+    }
+
+    private void runStep() {
+        motor.begin();
+        executing.execute(world, motor);
+        if (beforeStep != null) beforeStep.run();
+
+        TransformSnapshot snapshot = snapshots[back];
+        snapshot.count = store.count;
+        snapshot.step = ++stepCount;
+
+        // Personagens cinemáticos andam antes; os dinâmicos são integrados pelo passo e os motion
+        // states gravam posição e yaw em back(). Exatamente um substep de tamanho fixo.
+        motor.integrate(pendingStep, snapshot);
+        world.stepSimulation(pendingStep, 1, pendingStep);
+        motor.finish(snapshot);
+    }
+
+    @Override
+    public void dispose() {
+        sync();
+        if (thread != null) {
+            running = false;
+            startSignal.release();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        // O que ficou na fila (despawns do último tick) é liberado aqui
+        commands.execute(world, motor);
+    }
+}
@@ -0,0 +1,27 @@
+package com.kaikeventura.dsd.sim;
+
+/**
+ * Posição, yaw, velocidade e contato com o chão de cada entidade no fim de um passo de física.
+ * Índices do EntityStore.
+ */
+public class TransformSnapshot {
+
+    public int count;
+    public long step;
+
+    public final float[] posX, posY, posZ;
+    public final float[] yaw;
+    public final float[] velX, velY, velZ;
+    public final boolean[] grounded;
+
+    public TransformSnapshot(int capacity) {
+        posX = new float[capacity];
+        posY = new float[capacity];
+        posZ = new float[capacity];
+        yaw = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        grounded = new boolean[capacity];
+    }
+}
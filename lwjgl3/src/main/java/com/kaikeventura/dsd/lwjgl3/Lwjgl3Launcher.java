@@ -3,16 +3,24 @@ package com.kaikeventura.dsd.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.kaikeventura.dsd.Main;
+import com.kaikeventura.dsd.render.ResolutionSettings;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        // Argumentos opcionais: host[:porta] de um servidor dedicado (sem ele, jogo local) e as
+        // opções de resolução dinâmica (--dynamic-resolution, --resolution-scale=<min>:<max>)
+        String server = null;
+        ResolutionSettings resolution = new ResolutionSettings();
+        for (String arg : args) {
+            if (!resolution.parse(arg)) server = arg;
+        }
+        createApplication(server, resolution);
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+    private static Lwjgl3Application createApplication(String server, ResolutionSettings resolution) {
+        return new Lwjgl3Application(new Main(server, resolution), getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
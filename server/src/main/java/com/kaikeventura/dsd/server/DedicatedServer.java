@@ -0,0 +1,131 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.animation.PackedClips;
+import com.kaikeventura.dsd.sim.GameSession;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hospeda várias sessões no mesmo processo, cada uma no seu {@link GameSession} sem render.
+ * <p>
+ * As sessões são divididas entre threads de tick fixas (sessão {@code id % threads}); cada thread
+ * roda um tick de todas as suas sessões por período de {@code 1 / tickRate} e dorme até o próximo.
+ * O paralelismo é entre sessões, então os mundos rodam com o {@code JobSystem} sem workers e a
+ * física no próprio tick (sem a thread de física do jogo). Uma thread atrasada tenta alcançar o
+ * relógio até {@link #MAX_CATCH_UP} ticks; mais que isso, descarta e segue do tempo atual.
+ * <p>
+ * Com {@code basePort} a sessão {@code n} aceita clientes UDP em {@code basePort + n} ({@link SessionNet}),
+ * atendidos pela mesma thread de tick.
+ * <p>
+ * Cada thread imprime o relatório das suas sessões a cada {@code reportSeconds}.
+ */
+public class DedicatedServer implements Disposable {
+
+    static final int MAX_CATCH_UP = 5;
+
+    public final int tickRate;
+    private final long periodNanos;
+    private final long reportNanos;
+    private final float reportSeconds;
+    private final Array<ServerSession> sessions = new Array<>();
+    private final Thread[] threads;
+    private volatile boolean running = true;
+
+    /** @param basePort porta UDP da sessão 0; 0 roda sem rede */
+    public DedicatedServer(Model knightModel, PackedClips knightClips, Model swordModel, int sessionCount, int tickRate, int enemies,
+                           int threadCount, float reportSeconds, int basePort) {
+        this.tickRate = tickRate;
+        this.reportSeconds = reportSeconds;
+        periodNanos = 1_000_000_000L / tickRate;
+        reportNanos = (long) (reportSeconds * 1e9);
+
+        float step = 1f / tickRate;
+        for (int s = 0; s < sessionCount; s++) {
+            GameSession game = new GameSession(knightModel, knightClips, swordModel, enemies, step, 0);
+            sessions.add(new ServerSession(s, game, basePort > 0 ? new SessionNet(game, basePort + s) : null));
+        }
+
+        if (threadCount <= 0) threadCount = Math.min(sessionCount, Runtime.getRuntime().availableProcessors());
+        threads = new Thread[Math.max(1, threadCount)];
+        for (int t = 0; t < threads.length; t++) {
+            final int index = t;
+            threads[t] = new Thread(() -> run(index), "tick-" + t);
+        }
+    }
+
+    public int sessionCount() {
+        return sessions.size;
+    }
+
+    public ServerSession session(int index) {
+        return sessions.get(index);
+    }
+
+    public void start() {
+        for (Thread thread : threads) thread.start();
+    }
+
+    /** Bloqueia até o servidor parar. */
+    public void join() throws InterruptedException {
+        for (Thread thread : threads) thread.join();
+    }
+
+    private void run(int index) {
+        // Índices, não iteradores: os iteradores do Array são compartilhados entre threads
+        Array<ServerSession> mine = new Array<>();
+        for (int s = 0; s < sessions.size; s++) {
+            if (sessions.get(s).id % threads.length == index) mine.add(sessions.get(s));
+        }
+
+        long next = System.nanoTime();
+        long nextReport = next + reportNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            boolean late = now - next > periodNanos;
+            if (now - next > MAX_CATCH_UP * periodNanos) {
+                int dropped = (int) ((now - next) / periodNanos);
+                for (int s = 0; s < mine.size; s++) mine.get(s).droppedTicks += dropped;
+                next = now;
+            }
+
+            for (int s = 0; s < mine.size; s++) {
+                ServerSession session = mine.get(s);
+                session.tick();
+                if (late) session.lateTicks++;
+            }
+            next += periodNanos;
+
+            if (now >= nextReport) {
+                for (int s = 0; s < mine.size; s++) System.out.println(mine.get(s).report(reportSeconds));
+                nextReport += reportNanos;
+            }
+        }
+    }
+
+    /** Para as threads de tick (cada uma termina o tick em andamento). */
+    public void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        stop();
+        for (ServerSession session : sessions) session.dispose();
+        sessions.clear();
+    }
+}
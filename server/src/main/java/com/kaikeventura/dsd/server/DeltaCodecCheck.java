@@ -0,0 +1,188 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.kaikeventura.dsd.net.DeltaCodec;
+import com.kaikeventura.dsd.net.EntityFrame;
+import com.kaikeventura.dsd.net.NetProtocol;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Ida e volta do {@link DeltaCodec} sem sockets, com frames de semente fixa: frame inteiro sem base,
+ * delta com entidades entrando e saindo do interesse, entidades paradas custando 2 bytes e pacotes
+ * malformados (truncados em todo tamanho, ids fora de ordem, entidade nova sem estado completo,
+ * contagem acima da capacidade), que precisam ser recusados. O {@link LoopbackRun} roda isto antes
+ * de abrir as portas.
+ */
+public final class DeltaCodecCheck {
+
+    private static final int CAPACITY = NetProtocol.MAX_SNAPSHOT_ENTITIES;
+
+    private final Random random = new Random(42);
+    private final ByteBuffer buffer = ByteBuffer.allocate(NetProtocol.MTU);
+    private final EntityFrame decoded = new EntityFrame(CAPACITY);
+    private final Array<String> failures = new Array<>();
+
+    private DeltaCodecCheck() {
+    }
+
+    /** Roda todos os casos e devolve as falhas (vazio se passou). */
+    public static Array<String> run() {
+        DeltaCodecCheck check = new DeltaCodecCheck();
+        check.fullFrame();
+        check.enterAndLeave();
+        check.unchangedCost();
+        check.malformed();
+        return check.failures;
+    }
+
+    public static void main(String[] args) {
+        Array<String> failures = run();
+        for (String failure : failures) System.out.println("FALHOU: " + failure);
+        System.out.println(failures.size == 0 ? "DeltaCodec: ok" : "DeltaCodec: " + failures.size + " falha(s)");
+        System.exit(failures.size == 0 ? 0 : 1);
+    }
+
+    private void fullFrame() {
+        EntityFrame frame = randomFrame(1, CAPACITY, 7);
+        roundTrip("sem base", null, frame);
+        roundTrip("sem base, vazio", null, new EntityFrame(CAPACITY));
+    }
+
+    private void enterAndLeave() {
+        // Base com ids 10..39 (passo 1); o frame perde os 8 primeiros, ganha 8 novos e mexe em parte
+        EntityFrame base = randomFrame(10, 30, 1);
+        EntityFrame frame = new EntityFrame(CAPACITY);
+        for (int n = 8; n < base.count; n++) copy(base, n, frame);
+        for (int n = 0; n < 8; n++) {
+            int i = frame.count++;
+            fill(frame, i, 40 + n * 3);
+        }
+        for (int n = 0; n < frame.count; n += 3) {
+            frame.x[n] += random.nextInt(129) - 64;
+            frame.yaw[n] = random.nextInt(0x10000);
+            frame.flags[n] ^= EntityFrame.FLAG_ATTACKING;
+        }
+        roundTrip("base com entradas e saídas", base, frame);
+        for (int n = 0; n < decoded.count; n++) {
+            if (decoded.ids[n] < 18) failures.add("entidade " + decoded.ids[n] + " saiu do interesse e voltou no decode");
+        }
+    }
+
+    private void unchangedCost() {
+        EntityFrame base = randomFrame(100, CAPACITY, 1);
+        EntityFrame frame = new EntityFrame(CAPACITY);
+        frame.set(base);
+        buffer.clear();
+        DeltaCodec.encode(base, frame, buffer);
+        int expected = 1 + 2 * frame.count; // contagem (varint de 1 byte) + id e máscara por entidade
+        if (buffer.position() != expected) {
+            failures.add("entidades paradas custaram " + buffer.position() + " bytes, esperado " + expected);
+        }
+        roundTrip("entidades paradas", base, frame);
+    }
+
+    private void malformed() {
+        EntityFrame base = randomFrame(1, 20, 2);
+        EntityFrame frame = randomFrame(5, 20, 2);
+        buffer.clear();
+        DeltaCodec.encode(base, frame, buffer);
+        buffer.flip();
+        byte[] valid = new byte[buffer.limit()];
+        buffer.get(valid);
+
+        for (int length = 0; length < valid.length; length++) {
+            expectRejected("truncado em " + length + " de " + valid.length + " bytes", base, ByteBuffer.wrap(valid, 0, length));
+        }
+
+        // Dois registros com o mesmo id (diferença 0)
+        ByteBuffer out = ByteBuffer.allocate(64);
+        NetProtocol.putVarInt(out, 2);
+        NetProtocol.putVarInt(out, 5);
+        out.put((byte) 0);
+        NetProtocol.putVarInt(out, 0);
+        out.put((byte) 0);
+        out.flip();
+        expectRejected("ids fora de ordem", randomFrame(5, 1, 1), out);
+
+        // Entidade fora da base mandando só parte dos campos
+        out = ByteBuffer.allocate(64);
+        NetProtocol.putVarInt(out, 1);
+        NetProtocol.putVarInt(out, 999);
+        out.put((byte) 1);
+        NetProtocol.putVarInt(out, 0);
+        out.flip();
+        expectRejected("entidade nova sem estado completo", base, out);
+
+        out = ByteBuffer.allocate(64);
+        NetProtocol.putVarInt(out, CAPACITY + 1);
+        out.flip();
+        expectRejected("contagem acima da capacidade", null, out);
+    }
+
+    private void roundTrip(String name, EntityFrame base, EntityFrame frame) {
+        buffer.clear();
+        DeltaCodec.encode(base, frame, buffer);
+        buffer.flip();
+        try {
+            DeltaCodec.decode(base, buffer, decoded);
+        } catch (RuntimeException e) {
+            failures.add(name + ": decode lançou " + e);
+            return;
+        }
+        if (buffer.hasRemaining()) failures.add(name + ": sobraram " + buffer.remaining() + " bytes");
+        if (decoded.count != frame.count) {
+            failures.add(name + ": " + decoded.count + " entidades, esperado " + frame.count);
+            return;
+        }
+        for (int n = 0; n < frame.count; n++) {
+            if (decoded.ids[n] != frame.ids[n] || decoded.x[n] != frame.x[n] || decoded.y[n] != frame.y[n]
+                || decoded.z[n] != frame.z[n] || decoded.yaw[n] != frame.yaw[n] || decoded.anim[n] != frame.anim[n]
+                || decoded.flags[n] != frame.flags[n]) {
+                failures.add(name + ": entidade " + frame.ids[n] + " diferente depois do decode");
+                return;
+            }
+        }
+    }
+
+    private void expectRejected(String name, EntityFrame base, ByteBuffer in) {
+        try {
+            DeltaCodec.decode(base, in, decoded);
+            failures.add(name + ": aceito");
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // Esperado: o cliente conta como inválido e descarta
+        } catch (RuntimeException e) {
+            failures.add(name + ": lançou " + e + " em vez de recusar");
+        }
+    }
+
+    // count entidades com ids firstId, firstId + idStep, ...
+    private EntityFrame randomFrame(int firstId, int count, int idStep) {
+        EntityFrame frame = new EntityFrame(CAPACITY);
+        for (int n = 0; n < count; n++) fill(frame, frame.count++, firstId + n * idStep);
+        return frame;
+    }
+
+    private void fill(EntityFrame frame, int n, int id) {
+        frame.ids[n] = id;
+        frame.x[n] = NetProtocol.quantizePosition(random.nextFloat() * 200f - 100f);
+        frame.y[n] = NetProtocol.quantizePosition(random.nextFloat() * 10f);
+        frame.z[n] = NetProtocol.quantizePosition(random.nextFloat() * 200f - 100f);
+        frame.yaw[n] = random.nextInt(0x10000);
+        frame.anim[n] = random.nextInt(8);
+        frame.flags[n] = random.nextInt(8);
+    }
+
+    private static void copy(EntityFrame from, int n, EntityFrame to) {
+        int i = to.count++;
+        to.ids[i] = from.ids[n];
+        to.x[i] = from.x[n];
+        to.y[i] = from.y[n];
+        to.z[i] = from.z[n];
+        to.yaw[i] = from.yaw[n];
+        to.anim[i] = from.anim[n];
+        to.flags[i] = from.flags[n];
+    }
+}
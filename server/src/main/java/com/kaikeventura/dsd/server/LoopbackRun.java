@@ -0,0 +1,134 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.net.NetClient;
+import com.kaikeventura.dsd.net.NetProtocol;
+import com.kaikeventura.dsd.sim.GameSession;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Servidor e clientes no mesmo processo, falando UDP por 127.0.0.1: uma sessão do
+ * {@link DedicatedServer} com inimigos e alguns bots, cada um com a própria {@link GameSession} e um
+ * {@link NetClient}, andando em círculo, pulando e atacando. Com perda simulada os pacotes somem
+ * na recepção dos clientes.
+ * <p>
+ * Antes de abrir as portas roda o {@link DeltaCodecCheck}. No fim imprime, por bot, banda nos dois
+ * sentidos, snapshots recebidos, proxies visíveis e o erro de predição medido na reconciliação, e o
+ * custo de rede do servidor por cliente e tick. Sai com 1 se o codec falhou, se algum bot não
+ * conectou, ou se algum número passou dos limites abaixo: a banda e a CPU por cliente precisam
+ * ficar limitadas, não importa quantos inimigos a sessão tenha.
+ */
+public class LoopbackRun {
+
+    // Limites por cliente. O teto do protocolo é um pacote de MTU a cada SEND_INTERVAL ticks
+    // (uns 23 KB/s a 60 Hz); na prática os deltas ficam bem abaixo disso
+    static final float MAX_DOWN_KBPS = 12f;
+    static final float MAX_UP_KBPS = 4f;
+    static final float MAX_NET_MS_PER_CLIENT_TICK = 0.2f;
+    static final float MAX_MEAN_ERROR = 0.25f;
+    // Acima disso a reconciliação teleporta o jogador
+    static final float MAX_ERROR = NetClient.SNAP_DISTANCE;
+    // Fração mínima dos snapshots esperados (descontada a perda): a conexão no começo e o jitter
+    static final float MIN_SNAPSHOT_FRACTION = 0.5f;
+
+    // Uso: LoopbackRun [bots] [inimigos] [segundos] [perda 0..1] [porta] [ticks por segundo]
+    public static void main(String[] args) {
+        int botCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int enemies = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        float seconds = args.length > 2 ? Float.parseFloat(args[2]) : 20f;
+        float loss = args.length > 3 ? Float.parseFloat(args[3]) : 0f;
+        int port = args.length > 4 ? Integer.parseInt(args[4]) : NetProtocol.DEFAULT_PORT;
+        int tickRate = args.length > 5 ? Integer.parseInt(args[5]) : 60;
+
+        Array<String> failures = DeltaCodecCheck.run();
+        for (String failure : failures) System.out.println("FALHOU: DeltaCodec: " + failure);
+        if (failures.size > 0) System.exit(1);
+
+        GameAssets assets = ServerLauncher.boot();
+        DedicatedServer server = new DedicatedServer(assets.playerModel, assets.knightClips, assets.swordModel, 1, tickRate, enemies, 1,
+            seconds / 2f, port);
+        server.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+        Array<NetClient> bots = new Array<>();
+        float step = 1f / tickRate;
+        for (int b = 0; b < botCount; b++) {
+            NetClient bot = new NetClient(new GameSession(assets.playerModel, assets.knightClips, assets.swordModel, 0, step, 0), address);
+            bot.endpoint.simulatedLoss = loss;
+            bots.add(bot);
+        }
+        System.out.printf("Loopback: %d bots, %d inimigos, %.0fs, perda %.0f%%%n", botCount, enemies, seconds, loss * 100f);
+
+        // Os bots no mesmo relógio do servidor, numa thread só
+        InputFrame frame = new InputFrame();
+        long period = 1_000_000_000L / tickRate;
+        int ticks = Math.round(seconds * tickRate);
+        long next = System.nanoTime();
+        for (int t = 0; t < ticks; t++) {
+            for (int b = 0; b < bots.size; b++) {
+                NetClient bot = bots.get(b);
+                bot.session.world.updateStreaming();
+                bot.tick(script(t, b, frame));
+            }
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+
+        // Servidor parado antes de ler as métricas dele
+        server.stop();
+        float expectedSnapshots = (float) tickRate / SessionNet.SEND_INTERVAL * (1f - loss);
+        for (int b = 0; b < bots.size; b++) {
+            NetClient bot = bots.get(b);
+            float rate = bot.snapshots / seconds;
+            float down = bot.endpoint.bytesReceived / 1024f / seconds;
+            float up = bot.endpoint.bytesSent / 1024f / seconds;
+            System.out.printf("bot %d: entidade=%d snapshots=%d (%.1f/s) desce=%.1fKB/s sobe=%.1fKB/s proxies=%d "
+                    + "correções=%d erro médio=%.3fm max=%.3fm perdidos=%d inválidos=%d%n",
+                b, bot.entityId, bot.snapshots, rate, down, up,
+                bot.proxyCount(), bot.corrections, bot.meanError(), bot.maxError, bot.endpoint.packetsLost, bot.malformed);
+            String name = "bot " + b;
+            if (!bot.connected) failures.add(name + " não conectou");
+            if (rate < expectedSnapshots * MIN_SNAPSHOT_FRACTION) {
+                failures.add(String.format("%s: %.1f snapshots/s, mínimo %.1f", name, rate, expectedSnapshots * MIN_SNAPSHOT_FRACTION));
+            }
+            if (down > MAX_DOWN_KBPS) failures.add(String.format("%s: desce %.1fKB/s, limite %.1f", name, down, MAX_DOWN_KBPS));
+            if (up > MAX_UP_KBPS) failures.add(String.format("%s: sobe %.1fKB/s, limite %.1f", name, up, MAX_UP_KBPS));
+            if (bot.meanError() > MAX_MEAN_ERROR) {
+                failures.add(String.format("%s: erro médio de predição %.3fm, limite %.3f", name, bot.meanError(), MAX_MEAN_ERROR));
+            }
+            if (bot.maxError > MAX_ERROR) {
+                failures.add(String.format("%s: erro máximo de predição %.3fm, limite %.3f", name, bot.maxError, MAX_ERROR));
+            }
+        }
+        float netMillis = server.session(0).net.millisPerClientTick();
+        System.out.printf("servidor: rede=%.4fms por cliente e tick%n", netMillis);
+        if (netMillis > MAX_NET_MS_PER_CLIENT_TICK) {
+            failures.add(String.format("servidor: rede %.4fms por cliente e tick, limite %.4f", netMillis, MAX_NET_MS_PER_CLIENT_TICK));
+        }
+        for (String failure : failures) System.out.println("FALHOU: " + failure);
+
+        for (int b = 0; b < bots.size; b++) {
+            bots.get(b).dispose();
+            bots.get(b).session.dispose();
+        }
+        server.dispose();
+        assets.dispose();
+        System.exit(failures.size == 0 ? 0 : 1);
+    }
+
+    // Anda sempre para frente girando devagar; ataca e pula de tempos em tempos, fora de fase entre bots
+    private static InputFrame script(int tick, int bot, InputFrame out) {
+        int buttons = EntityStore.IN_FORWARD;
+        if ((tick + bot * 17) % 120 == 0) buttons |= EntityStore.IN_ATTACK;
+        if ((tick + bot * 29) % 180 == 0) buttons |= EntityStore.IN_JUMP | EntityStore.IN_JUMP_HELD;
+        out.buttons = buttons;
+        out.heading = (short) (tick * 200 + bot * 16384);
+        return out;
+    }
+}
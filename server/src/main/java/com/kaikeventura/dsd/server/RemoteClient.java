@@ -0,0 +1,102 @@
+package com.kaikeventura.dsd.server;
+
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.net.NetProtocol;
+import com.kaikeventura.dsd.net.SnapshotRing;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Um cliente conectado a uma sessão: a entidade que ele controla, os inputs que chegaram (por tick
+ * do cliente) e os snapshots mandados, que servem de base para os deltas quando confirmados.
+ * <p>
+ * O servidor consome um input por tick. Input perdido de vez (já chegou um mais novo) repete o
+ * anterior sem as bordas e conta como aplicado; input que ainda não chegou repete e espera. Se o
+ * cliente acumula mais que {@link #MAX_BUFFERED_INPUTS} à frente, pula para perto do mais novo em
+ * vez de deixar o atraso crescer.
+ */
+class RemoteClient {
+
+    static final int INPUT_BUFFER = 64;
+    private static final int INPUT_MASK = INPUT_BUFFER - 1;
+    static final int MAX_BUFFERED_INPUTS = 8;
+    private static final int EDGES = EntityStore.IN_JUMP | EntityStore.IN_ATTACK;
+
+    final SocketAddress address;
+    final int nonce;
+    final int entityId;
+    int entity;
+
+    private final InputFrame[] inputs = new InputFrame[INPUT_BUFFER];
+    private final int[] inputTicks = new int[INPUT_BUFFER];
+    private int newestInput = -1;
+    private int nextInput = -1;
+    int lastProcessed = -1;
+    final InputFrame current = new InputFrame();
+
+    long lastHeardTick;
+    int ackSnapshot = -1;
+    int snapshotSeq;
+    final SnapshotRing sent = new SnapshotRing(NetProtocol.MAX_SNAPSHOT_ENTITIES);
+
+    // Métricas desde o último relatório
+    long bytesSent;
+    int lostInputs, starvedTicks, skippedInputs;
+
+    RemoteClient(SocketAddress address, int nonce, int entity, int entityId) {
+        this.address = address;
+        this.nonce = nonce;
+        this.entity = entity;
+        this.entityId = entityId;
+        for (int i = 0; i < INPUT_BUFFER; i++) {
+            inputs[i] = new InputFrame();
+            inputTicks[i] = -1;
+        }
+    }
+
+    /** Lê um pacote INPUT (depois do cabeçalho). */
+    void readInputs(ByteBuffer in) {
+        int tick = in.getInt();
+        int ack = in.getInt();
+        int count = in.get() & 0xFF;
+        if (tick < 0 || count == 0 || count > NetProtocol.REDUNDANT_INPUTS) {
+            throw new IllegalArgumentException("Pacote de input inválido");
+        }
+        if (ack > ackSnapshot && ack < snapshotSeq) ackSnapshot = ack;
+        for (int k = 0; k < count; k++) {
+            int t = tick - k;
+            int slot = t & INPUT_MASK;
+            if (t > lastProcessed && inputTicks[slot] != t) {
+                inputs[slot].read(in);
+                inputTicks[slot] = t;
+            } else {
+                in.position(in.position() + InputFrame.BYTES);
+            }
+        }
+        if (tick > newestInput) newestInput = tick;
+        if (nextInput < 0) nextInput = Math.max(0, tick - count + 1);
+    }
+
+    /** Escolhe o input deste tick em {@link #current}. */
+    void advanceInput() {
+        if (nextInput < 0) return; // nenhum input ainda: parado
+        if (newestInput - nextInput > MAX_BUFFERED_INPUTS) {
+            skippedInputs += newestInput - 2 - nextInput;
+            nextInput = newestInput - 2;
+        }
+        int slot = nextInput & INPUT_MASK;
+        if (inputTicks[slot] == nextInput) {
+            current.set(inputs[slot]);
+            lastProcessed = nextInput++;
+        } else if (newestInput > nextInput) {
+            current.buttons &= ~EDGES;
+            lostInputs++;
+            lastProcessed = nextInput++;
+        } else {
+            current.buttons &= ~EDGES;
+            starvedTicks++;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.kaikeventura.dsd.assets.GameAssets;
+import com.kaikeventura.dsd.net.NetProtocol;
+
+/** Sobe o servidor dedicado no backend headless (sem GPU): os modelos são carregados uma vez e compartilhados. */
+public class ServerLauncher {
+
+    // Uso: ServerLauncher [sessões] [ticks por segundo] [inimigos por sessão] [threads (0 = automático)] [segundos entre relatórios]
+    //                    [porta UDP da sessão 0 (0 = sem rede)]
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int enemies = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        float reportSeconds = args.length > 4 ? Float.parseFloat(args[4]) : 10f;
+        int port = args.length > 5 ? Integer.parseInt(args[5]) : NetProtocol.DEFAULT_PORT;
+
+        GameAssets assets = boot();
+        DedicatedServer server = new DedicatedServer(assets.playerModel, assets.knightClips, assets.swordModel, sessions, tickRate, enemies,
+            threads, reportSeconds, port);
+        System.out.printf("Servidor: %d sessões a %d ticks/s, %d inimigos por sessão%n", server.sessionCount(), tickRate, enemies);
+        if (port > 0) System.out.printf("UDP: sessões nas portas %d-%d%n", port, port + server.sessionCount() - 1);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "shutdown"));
+        server.start();
+        server.join();
+    }
+
+    /** Sobe o backend headless e carrega os modelos. */
+    static GameAssets boot() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = -1; // sem loop de render, as threads de tick são do servidor
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+
+        GameAssets assets = new GameAssets();
+        assets.load();
+        // Sem contexto GL de verdade (MockGL20), então o "upload" roda aqui mesmo
+        while (!assets.update(100)) {
+            Thread.yield();
+        }
+        return assets;
+    }
+}
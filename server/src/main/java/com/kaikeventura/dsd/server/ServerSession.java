@@ -0,0 +1,66 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.input.InputFrame;
+import com.kaikeventura.dsd.sim.GameSession;
+
+/**
+ * Uma partida hospedada pelo {@link DedicatedServer}: a {@link GameSession}, o input do jogador
+ * para o próximo tick, a rede (opcional) e as métricas de pontualidade. Só a thread de tick dona da
+ * sessão mexe nela.
+ */
+public class ServerSession implements Disposable {
+
+    public final int id;
+    public final GameSession game;
+    // Clientes UDP desta sessão; null sem rede
+    public final SessionNet net;
+
+    // Input do jogador: botões segurados valem até mudar, bordas só para um tick
+    public final InputFrame input = new InputFrame();
+
+    // Ticks que começaram mais de um período atrasados e ticks descartados para alcançar o relógio
+    public int lateTicks;
+    public int droppedTicks;
+    private long ticksAtReport;
+
+    public ServerSession(int id, GameSession game) {
+        this(id, game, null);
+    }
+
+    public ServerSession(int id, GameSession game, SessionNet net) {
+        this.id = id;
+        this.game = game;
+        this.net = net;
+    }
+
+    void tick() {
+        game.world.updateStreaming();
+        if (net != null) net.beforeTick(this);
+        game.tick(input);
+        input.buttons &= ~(EntityStore.IN_JUMP | EntityStore.IN_ATTACK);
+        if (net != null) net.afterTick();
+    }
+
+    /** Uma linha com as métricas desde o último relatório, que então recomeçam. */
+    String report(float seconds) {
+        long ticks = game.tick - ticksAtReport;
+        String line = String.format("sessão=%d ticks=%d (%.1f/s) p50=%.3fms p99=%.3fms max=%.3fms atrasados=%d descartados=%d personagens=%d",
+            id, ticks, ticks / seconds,
+            game.tickTimes.percentileNanos(0.5) / 1e6, game.tickTimes.percentileNanos(0.99) / 1e6,
+            game.tickTimes.maxNanos() / 1e6, lateTicks, droppedTicks, game.world.entities.count);
+        if (net != null) line += net.report(seconds, ticks);
+        ticksAtReport = game.tick;
+        lateTicks = 0;
+        droppedTicks = 0;
+        game.tickTimes.reset();
+        return line;
+    }
+
+    @Override
+    public void dispose() {
+        if (net != null) net.dispose();
+        game.dispose();
+    }
+}
@@ -0,0 +1,252 @@
+package com.kaikeventura.dsd.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.kaikeventura.dsd.entity.EntityStore;
+import com.kaikeventura.dsd.net.DeltaCodec;
+import com.kaikeventura.dsd.net.EntityFrame;
+import com.kaikeventura.dsd.net.InterestGrid;
+import com.kaikeventura.dsd.net.NetProtocol;
+import com.kaikeventura.dsd.net.UdpEndpoint;
+import com.kaikeventura.dsd.sim.GameSession;
+import com.kaikeventura.dsd.sim.GameWorld;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A rede de uma {@link ServerSession}: uma porta UDP própria, lida e escrita só pela thread de tick
+ * dona da sessão (sem fila entre threads).
+ * <p>
+ * O primeiro cliente controla o jogador {@link GameWorld#PLAYER} (o alvo dos inimigos); os outros
+ * ganham um knight novo. A cada {@link #SEND_INTERVAL} ticks cada cliente recebe um snapshot com as
+ * entidades a até {@link #INTEREST_RADIUS} dele, as {@link NetProtocol#MAX_SNAPSHOT_ENTITIES} mais
+ * perto, codificado contra o último snapshot que ele confirmou. Assim cada cliente custa no máximo
+ * um pacote de {@link NetProtocol#MTU} bytes por envio e uma consulta ao {@link InterestGrid}, não
+ * importa quantos jogadores e inimigos a sessão tenha.
+ */
+public class SessionNet implements Disposable {
+
+    public static final float INTEREST_RADIUS = 30f;
+    public static final int MAX_CLIENTS = 8;
+    public static final int SEND_INTERVAL = 3;
+    public static final float TIMEOUT_SECONDS = 5f;
+    // Pacotes lidos por tick no máximo: um cliente inundando a porta não segura a thread
+    static final int MAX_PACKETS_PER_TICK = 16 * MAX_CLIENTS;
+    private static final int GRID_BUCKETS = 256;
+
+    public final UdpEndpoint endpoint;
+    private final GameSession game;
+    private final Array<RemoteClient> clients = new Array<>(false, MAX_CLIENTS);
+    private final int timeoutTicks;
+
+    private final InterestGrid grid;
+    private final long[] candidates;
+    private final long[] chosen = new long[NetProtocol.MAX_SNAPSHOT_ENTITIES];
+
+    // Métricas desde o último relatório
+    private long netNanos;
+    private long bytesAtReport;
+    private int malformed;
+    // Totais desde o início: tempo de rede e soma de clientes por tick (o custo por cliente)
+    private long totalNetNanos;
+    private long clientTicks;
+
+    public SessionNet(GameSession game, int port) {
+        this.game = game;
+        endpoint = UdpEndpoint.bind(port);
+        timeoutTicks = Math.round(TIMEOUT_SECONDS / game.step);
+        int capacity = game.world.entities.capacity;
+        grid = new InterestGrid(INTEREST_RADIUS, GRID_BUCKETS, capacity);
+        candidates = new long[capacity];
+    }
+
+    /** Antes do tick: pacotes recebidos, clientes mudos e o input de cada um na sua entidade. */
+    void beforeTick(ServerSession session) {
+        long start = System.nanoTime();
+        receive(session);
+
+        EntityStore store = game.world.entities;
+        for (int c = clients.size - 1; c >= 0; c--) {
+            RemoteClient client = clients.get(c);
+            if (game.tick - client.lastHeardTick > timeoutTicks) {
+                System.out.println("Sessão " + session.id + ": " + client.address + " caiu (sem pacotes)");
+                removeClient(session, client);
+                continue;
+            }
+            client.advanceInput();
+            if (client.entity == GameWorld.PLAYER) {
+                session.input.set(client.current);
+            } else {
+                store.setInput(client.entity, client.current);
+            }
+        }
+        clientTicks += clients.size;
+        long elapsed = System.nanoTime() - start;
+        netNanos += elapsed;
+        totalNetNanos += elapsed;
+    }
+
+    /** Depois do tick: snapshots para quem está na vez. */
+    void afterTick() {
+        if (clients.size == 0 || game.tick % SEND_INTERVAL != 0) return;
+        long start = System.nanoTime();
+        GameWorld world = game.world;
+        world.sync(); // estado depois dos inputs deste tick
+        grid.build(world.entities);
+        for (int c = 0; c < clients.size; c++) sendSnapshot(clients.get(c));
+        long elapsed = System.nanoTime() - start;
+        netNanos += elapsed;
+        totalNetNanos += elapsed;
+    }
+
+    private void receive(ServerSession session) {
+        for (int p = 0; p < MAX_PACKETS_PER_TICK; p++) {
+            SocketAddress from = endpoint.receive();
+            if (from == null) return;
+            ByteBuffer in = endpoint.in;
+            try {
+                int type = NetProtocol.readHeader(in);
+                RemoteClient client = find(from);
+                if (type == NetProtocol.INPUT && client != null) {
+                    client.readInputs(in);
+                    client.lastHeardTick = game.tick;
+                } else if (type == NetProtocol.CONNECT) {
+                    onConnect(session, from, in.getInt(), client);
+                } else if (type == NetProtocol.DISCONNECT && client != null) {
+                    System.out.println("Sessão " + session.id + ": " + from + " saiu");
+                    removeClient(session, client);
+                }
+            } catch (RuntimeException e) {
+                malformed++;
+            }
+        }
+    }
+
+    private void onConnect(ServerSession session, SocketAddress from, int nonce, RemoteClient existing) {
+        if (existing != null) {
+            if (existing.nonce == nonce) {
+                sendAccept(existing); // o ACCEPT anterior se perdeu
+                return;
+            }
+            removeClient(session, existing); // mesmo endereço, cliente novo
+        }
+        if (clients.size == MAX_CLIENTS) {
+            endpoint.begin(NetProtocol.REJECT).putInt(nonce);
+            endpoint.send(from);
+            return;
+        }
+
+        GameWorld world = game.world;
+        boolean playerTaken = false;
+        for (int c = 0; c < clients.size; c++) playerTaken |= clients.get(c).entity == GameWorld.PLAYER;
+        int entity = playerTaken
+            ? world.spawnPlayer(2f * clients.size, 5f, 2f)
+            : GameWorld.PLAYER;
+        RemoteClient client = new RemoteClient(from, nonce, entity, world.entities.ids[entity]);
+        client.lastHeardTick = game.tick;
+        clients.add(client);
+        System.out.println("Sessão " + session.id + ": " + from + " entrou como entidade " + client.entityId);
+        sendAccept(client);
+    }
+
+    private void sendAccept(RemoteClient client) {
+        EntityStore store = game.world.entities;
+        ByteBuffer out = endpoint.begin(NetProtocol.ACCEPT);
+        out.putInt(client.nonce);
+        out.putInt(client.entityId);
+        out.putInt(SEND_INTERVAL);
+        out.putFloat(store.posX[client.entity]);
+        out.putFloat(store.posY[client.entity]);
+        out.putFloat(store.posZ[client.entity]);
+        endpoint.send(client.address);
+    }
+
+    private void removeClient(ServerSession session, RemoteClient client) {
+        clients.removeValue(client, true);
+        if (client.entity == GameWorld.PLAYER) {
+            // O jogador fica no mundo, parado, até outro cliente assumir
+            session.input.buttons = 0;
+            return;
+        }
+        EntityStore store = game.world.entities;
+        int last = store.count - 1;
+        game.world.despawn(client.entity);
+        for (int c = 0; c < clients.size; c++) {
+            if (clients.get(c).entity == last) clients.get(c).entity = client.entity;
+        }
+    }
+
+    private RemoteClient find(SocketAddress address) {
+        for (int c = 0; c < clients.size; c++) {
+            if (clients.get(c).address.equals(address)) return clients.get(c);
+        }
+        return null;
+    }
+
+    private void sendSnapshot(RemoteClient client) {
+        EntityStore store = game.world.entities;
+        int self = client.entity;
+
+        // Interesse: os mais perto primeiro quando passa do limite, depois em ordem de id para o delta
+        int found = grid.query(store, store.posX[self], store.posZ[self], INTEREST_RADIUS, self, candidates);
+        int count = Math.min(found, chosen.length);
+        if (found > count) Arrays.sort(candidates, 0, found);
+        for (int n = 0; n < count; n++) {
+            int i = (int) candidates[n];
+            chosen[n] = ((long) store.ids[i] << 32) | i;
+        }
+        Arrays.sort(chosen, 0, count);
+
+        int seq = client.snapshotSeq++;
+        EntityFrame base = client.sent.get(client.ackSnapshot);
+        if (base != null && client.sent.sameSlot(base, seq)) base = null;
+        EntityFrame frame = client.sent.claim(seq);
+        for (int n = 0; n < count; n++) frame.add(store, (int) chosen[n]);
+
+        ByteBuffer out = endpoint.begin(NetProtocol.SNAPSHOT);
+        out.putInt(seq);
+        out.putInt(base != null ? base.seq : -1);
+        out.putInt(client.lastProcessed);
+        out.putFloat(store.posX[self]);
+        out.putFloat(store.posY[self]);
+        out.putFloat(store.posZ[self]);
+        DeltaCodec.encode(base, frame, out);
+        client.bytesSent += out.position();
+        endpoint.send(client.address);
+    }
+
+    public int clientCount() {
+        return clients.size;
+    }
+
+    /** Tempo médio de rede por cliente e tick desde o início, em ms. Ler com a sessão parada. */
+    public float millisPerClientTick() {
+        return clientTicks == 0 ? 0f : totalNetNanos / 1e6f / clientTicks;
+    }
+
+    /** Métricas de rede desde o último relatório, que então recomeçam. */
+    String report(float seconds, long ticks) {
+        long bytes = endpoint.bytesSent - bytesAtReport;
+        StringBuilder line = new StringBuilder(String.format(" clientes=%d saída=%.1fKB/s rede=%.3fms/tick inválidos=%d",
+            clients.size, bytes / 1024f / seconds, ticks == 0 ? 0f : netNanos / 1e6f / ticks, malformed));
+        for (int c = 0; c < clients.size; c++) {
+            RemoteClient client = clients.get(c);
+            line.append(String.format("%n  cliente %d (%s): %.1fKB/s perdidos=%d esperando=%d pulados=%d",
+                client.entityId, client.address, client.bytesSent / 1024f / seconds, client.lostInputs,
+                client.starvedTicks, client.skippedInputs));
+            client.bytesSent = 0;
+            client.lostInputs = client.starvedTicks = client.skippedInputs = 0;
+        }
+        bytesAtReport = endpoint.bytesSent;
+        netNanos = 0;
+        malformed = 0;
+        return line.toString();
+    }
+
+    @Override
+    public void dispose() {
+        endpoint.dispose();
+    }
+}